@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+#
+# Measures the throughput of loan sum reads that all miss the cache, once with batched cache-miss loading and once
+# without. A file-based H2 database is seeded with one loan request per customer, then every run starts the service
+# with an empty cache and reads the loan sum of every customer once with many concurrent requests.
+#
+# Admission control is disabled, so that both variants are only limited by the connection pool.
+#
+# Usage: scripts/cold-cache-benchmark.sh [runs per variant, default: 3] [customers, default: 5000] [concurrency, default: 256]
+
+set -euo pipefail
+
+RUNS="${1:-3}"
+CUSTOMERS="${2:-5000}"
+CONCURRENCY="${3:-256}"
+PORT="${PORT:-18080}"
+BASE_URL="http://localhost:${PORT}/api/v1/loan-requests"
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="${ROOT}/target/cold-cache-benchmark"
+
+now_ms() {
+    date +%s%3N
+}
+
+# starts the service with the given additional arguments in the background and waits until it answers requests
+start() {
+    java -jar "${WORK}/app.jar" \
+        --server.port="${PORT}" \
+        --spring.datasource.url="jdbc:h2:file:${WORK}/db" \
+        --loan-request-service.admission.enabled=false \
+        "$@" > "${WORK}/last-run.log" 2>&1 &
+    PID=$!
+
+    # customer 0 does not exist, hence this does not populate the cache
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "${BASE_URL}/sum/0")" = "404" ]; do
+        sleep 0.1
+    done
+}
+
+stop() {
+    kill "${PID}"
+    wait "${PID}" 2> /dev/null || true
+}
+
+seed() {
+    echo "Seeding ${CUSTOMERS} customers ..."
+    rm -f "${WORK}"/db.*
+    start
+    seq 1 "${CUSTOMERS}" | xargs -P 16 -I '{}' curl -s -o /dev/null -X POST -H 'Content-Type: application/json' \
+        -d '{"id": {}, "amount": 1000.0, "customerId": {}, "customerFullName": "Customer {}"}' "${BASE_URL}"
+    stop
+}
+
+# prints the number of reads per second
+measure() {
+    local begin elapsed
+    start "$@"
+    begin="$(now_ms)"
+    curl -s --no-progress-meter --parallel --parallel-max "${CONCURRENCY}" "${BASE_URL}/sum/[1-${CUSTOMERS}]" > /dev/null
+    elapsed=$(($(now_ms) - begin))
+    stop
+    echo $((CUSTOMERS * 1000 / elapsed))
+}
+
+benchmark() {
+    local name="$1"
+    shift
+    local total=0 throughput
+    for run in $(seq 1 "${RUNS}"); do
+        throughput="$(measure "$@")"
+        echo "${name} run ${run}: ${throughput} reads/s"
+        total=$((total + throughput))
+    done
+    echo "${name} average: $((total / RUNS)) reads/s"
+}
+
+echo "Building the jar ..."
+(cd "${ROOT}" && mvn -B -q clean package -P h2 -DskipTests)
+mkdir -p "${WORK}"
+cp "${ROOT}"/target/loan-request-service-*.jar "${WORK}/app.jar"
+
+seed
+benchmark "batched" --loan-request-service.batch-loading.enabled=true
+benchmark "unbatched" --loan-request-service.batch-loading.enabled=false
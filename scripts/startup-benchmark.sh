@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+#
+# Measures the time from starting the JVM until both endpoints answered with a 200 for the first time, once for the
+# regular executable jar and once for the fast-startup build (Spring AOT + AppCDS), both on the H2 profile.
+#
+# Usage: scripts/startup-benchmark.sh [runs per variant, default: 5]
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+BASE_URL="http://localhost:${PORT}/api/v1/loan-requests"
+PAYLOAD='{"id": 1, "amount": 1000.0, "customerId": 1, "customerFullName": "Startup Benchmark"}'
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="${ROOT}/target/startup-benchmark"
+
+now_ms() {
+    date +%s%3N
+}
+
+# prints the number of milliseconds since $1 once the request described by the remaining arguments returned a 200
+await_ok() {
+    local start="$1"
+    shift
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$@")" = "200" ]; do
+        sleep 0.01
+    done
+    echo $(($(now_ms) - start))
+}
+
+# runs the given command once and prints the time to the first 200 of the POST and of the GET endpoint
+measure() {
+    local start pid post get
+    start="$(now_ms)"
+    "$@" --server.port="${PORT}" > "${WORK}/last-run.log" 2>&1 &
+    pid=$!
+
+    post="$(await_ok "${start}" -X POST -H 'Content-Type: application/json' -d "${PAYLOAD}" "${BASE_URL}")"
+    get="$(await_ok "${start}" "${BASE_URL}/sum/1")"
+
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+    echo "${post} ${get}"
+}
+
+benchmark() {
+    local name="$1"
+    shift
+    local post_total=0 get_total=0 post get
+    for run in $(seq 1 "${RUNS}"); do
+        read -r post get < <(measure "$@")
+        echo "${name} run ${run}: POST ${post} ms, GET ${get} ms"
+        post_total=$((post_total + post))
+        get_total=$((get_total + get))
+    done
+    echo "${name} average: POST $((post_total / RUNS)) ms, GET $((get_total / RUNS)) ms"
+}
+
+echo "Building the regular jar ..."
+(cd "${ROOT}" && mvn -B -q clean package -P h2 -DskipTests)
+mkdir -p "${WORK}/regular" "${WORK}/fast-startup"
+cp "${ROOT}"/target/loan-request-service-*.jar "${WORK}/regular/app.jar"
+
+echo "Building the fast-startup jar ..."
+(cd "${ROOT}" && mvn -B -q package -P h2,fast-startup -DskipTests -Dfast-startup.skip-training=true)
+cp "${ROOT}"/target/loan-request-service-*.jar "${WORK}/fast-startup/app.jar"
+cp -r "${ROOT}/target/lib" "${WORK}/fast-startup/lib"
+
+# the archive depends on the class path, hence it is created for the copied jar
+echo "Creating the AppCDS archive ..."
+(cd "${WORK}/fast-startup" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -jar app.jar > training-run.log 2>&1)
+
+benchmark "regular" java -jar "${WORK}/regular/app.jar"
+benchmark "fast-startup" java -XX:SharedArchiveFile="${WORK}/fast-startup/app.jsa" -Dspring.aot.enabled=true \
+    -jar "${WORK}/fast-startup/app.jar"
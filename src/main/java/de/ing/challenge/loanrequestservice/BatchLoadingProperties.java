@@ -0,0 +1,27 @@
+package de.ing.challenge.loanrequestservice;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-request-service.batch-loading")
+@Data
+public class BatchLoadingProperties {
+    /**
+     * Whether cache misses of different customers are loaded together, otherwise each miss is loaded on its own.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long the first miss of a batch waits for further misses.
+     */
+    @Nonnull
+    private Duration window = Duration.ofMillis(1);
+
+    /**
+     * The number of customers after which a batch is loaded without waiting for the rest of the window.
+     */
+    private int maxBatchSize = 256;
+}
@@ -0,0 +1,178 @@
+package de.ing.challenge.loanrequestservice;
+
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Remembers a fingerprint of the full name of every customer seen so far, so that the write path can check whether an
+ * incoming customer matches the existing one without reading it from the database.
+ * <p>
+ * Customers are never modified or deleted, hence entries never become stale. Entries must only be registered once the
+ * customer has been committed, otherwise a rolled back insert would be reported as an existing customer.
+ * <p>
+ * The fingerprints are kept in an open-addressing hash map of primitive arrays (16 bytes per slot), which is populated
+ * lazily as customers are read from or written to the database.
+ */
+@Component
+@Slf4j
+public class CustomerRegistry {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final long EMPTY = 0;
+
+    public enum Match {
+        /**
+         * The customer exists and its full name matches (up to a fingerprint collision, which is negligible for 64 bit
+         * fingerprints).
+         */
+        MATCHES,
+        /**
+         * The customer exists with a different full name.
+         */
+        MISMATCHES,
+        /**
+         * The customer is not (yet) known to the registry.
+         */
+        UNKNOWN
+    }
+
+    @Nonnull
+    private final StampedLock lock = new StampedLock();
+
+    // guarded by lock, EMPTY fingerprints mark free slots
+    @Nonnull
+    private long[] customerIds = new long[INITIAL_CAPACITY];
+    @Nonnull
+    private long[] fingerprints = new long[INITIAL_CAPACITY];
+    private int size;
+
+    @Nonnull
+    public Match lookup(final long customerId, @Nonnull final String fullName) {
+        final long fingerprint = fingerprint(fullName);
+
+        long stamp = lock.tryOptimisticRead();
+        long storedFingerprint = find(customerId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                storedFingerprint = find(customerId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        if (storedFingerprint == EMPTY) {
+            return Match.UNKNOWN;
+        }
+
+        return storedFingerprint == fingerprint ? Match.MATCHES : Match.MISMATCHES;
+    }
+
+    /**
+     * Must only be called with committed customers.
+     */
+    public void register(final long customerId, @Nonnull final String fullName) {
+        final long fingerprint = fingerprint(fullName);
+
+        final long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 4L > customerIds.length * 3L) {
+                resize(customerIds.length * 2);
+            }
+
+            if (insert(customerIds, fingerprints, customerId, fingerprint)) {
+                size++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        final long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void reset() {
+        final long stamp = lock.writeLock();
+        try {
+            customerIds = new long[INITIAL_CAPACITY];
+            fingerprints = new long[INITIAL_CAPACITY];
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * May observe the arrays while they are being replaced, hence the result must be validated by the caller.
+     */
+    private long find(final long customerId) {
+        final long[] ids = customerIds;
+        final long[] prints = fingerprints;
+        if (ids.length != prints.length) {
+            return EMPTY;
+        }
+
+        final int mask = ids.length - 1;
+        for (int slot = slotOf(customerId, mask), probes = 0; probes < ids.length; slot = (slot + 1) & mask, probes++) {
+            final long storedFingerprint = prints[slot];
+            if (storedFingerprint == EMPTY || ids[slot] == customerId) {
+                return storedFingerprint;
+            }
+        }
+
+        return EMPTY;
+    }
+
+    private void resize(final int capacity) {
+        final long[] newCustomerIds = new long[capacity];
+        final long[] newFingerprints = new long[capacity];
+        for (int slot = 0; slot < customerIds.length; slot++) {
+            if (fingerprints[slot] != EMPTY) {
+                insert(newCustomerIds, newFingerprints, customerIds[slot], fingerprints[slot]);
+            }
+        }
+
+        log.debug("Resized the customer registry from {} to {} slots.", customerIds.length, capacity);
+        customerIds = newCustomerIds;
+        fingerprints = newFingerprints;
+    }
+
+    /**
+     * @return Whether a new entry was added.
+     */
+    private static boolean insert(@Nonnull final long[] ids, @Nonnull final long[] prints, final long customerId, final long fingerprint) {
+        final int mask = ids.length - 1;
+        for (int slot = slotOf(customerId, mask); ; slot = (slot + 1) & mask) {
+            if (prints[slot] == EMPTY) {
+                ids[slot] = customerId;
+                prints[slot] = fingerprint;
+                return true;
+            }
+
+            if (ids[slot] == customerId) {
+                prints[slot] = fingerprint;
+                return false;
+            }
+        }
+    }
+
+    private static int slotOf(final long customerId, final int mask) {
+        return Hashing.spread(customerId) & mask;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the UTF-8 encoded name, never {@link #EMPTY}.
+     */
+    static long fingerprint(@Nonnull final String fullName) {
+        final long hash = Hashing.fnv1a(fullName);
+        return hash == EMPTY ? 1 : hash;
+    }
+}
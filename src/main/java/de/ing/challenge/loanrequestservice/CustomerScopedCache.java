@@ -0,0 +1,17 @@
+package de.ing.challenge.loanrequestservice;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory state per customer that can be rebuilt from the {@link de.ing.challenge.loanrequestservice.store.LoanStore}
+ * at any time, and hence may be dropped for customers this instance is no longer responsible for.
+ */
+public interface CustomerScopedCache {
+
+    /**
+     * Removes all cached state of customers that do not match the given predicate.
+     */
+    void retainOnly(@Nonnull final LongPredicate isRetained);
+}
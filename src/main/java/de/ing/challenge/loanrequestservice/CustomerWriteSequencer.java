@@ -0,0 +1,78 @@
+package de.ing.challenge.loanrequestservice;
+
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes the writes of each customer, while writes of different customers run in parallel.
+ * <p>
+ * Without it, concurrent loan requests of a new customer would all miss the customer lookup and race to insert it,
+ * and all but one of them would fail on commit. The lock must therefore be held until the transaction has completed,
+ * i.e. around the transactional service.
+ * <p>
+ * Customers are mapped to a fixed number of striped locks, hence memory does not grow with the number of customers.
+ * Only writes of this instance are serialized; in cluster mode all writes of a customer are routed to its owner.
+ */
+@Component
+@EnableConfigurationProperties(SequencerProperties.class)
+public class CustomerWriteSequencer {
+    @Nonnull
+    private final SequencerProperties properties;
+    @Nonnull
+    private final ReentrantLock[] stripes;
+
+    public CustomerWriteSequencer(@Autowired @Nonnull final SequencerProperties properties) {
+        if (properties.getStripes() < 1) {
+            throw new IllegalArgumentException("The number of stripes must be positive.");
+        }
+
+        this.properties = properties;
+        this.stripes = new ReentrantLock[properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @param customerId {@code null} for invalid loan requests, which are not serialized since they are rejected anyway.
+     * @throws AdmissionRejectedException If the previous write of the customer did not complete in time.
+     */
+    public <T> T execute(@Nullable final Long customerId, @Nonnull final Supplier<T> call) throws AdmissionRejectedException {
+        if (customerId == null) {
+            return call.get();
+        }
+
+        final ReentrantLock lock = stripes[stripeOf(customerId, stripes.length)];
+        if (!tryLock(lock)) {
+            throw new AdmissionRejectedException("Timed out waiting for the previous write of customer %d.".formatted(customerId),
+                    properties.getRetryAfter());
+        }
+
+        try {
+            return call.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryLock(@Nonnull final ReentrantLock lock) {
+        try {
+            return lock.tryLock(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static int stripeOf(final long customerId, final int stripes) {
+        return Math.floorMod(Hashing.spread(customerId), stripes);
+    }
+}
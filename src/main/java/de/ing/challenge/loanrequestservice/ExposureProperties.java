@@ -0,0 +1,17 @@
+package de.ing.challenge.loanrequestservice;
+
+import jakarta.annotation.Nullable;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+
+@ConfigurationProperties(prefix = "loan-request-service.exposure")
+@Data
+public class ExposureProperties {
+    /**
+     * The maximum loan sum of a customer; loan requests that would exceed it are rejected. {@code null} for no limit.
+     */
+    @Nullable
+    private BigDecimal limit;
+}
@@ -0,0 +1,52 @@
+package de.ing.challenge.loanrequestservice;
+
+import jakarta.annotation.Nonnull;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Non-cryptographic hash functions shared by the in-memory structures. Results must not change, as they are also used to
+ * place customers on shards and cluster members.
+ */
+public final class Hashing {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private Hashing() {
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the UTF-8 encoded value.
+     */
+    public static long fnv1a(@Nonnull final String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (final byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Fibonacci hash of the value, folded to 32 bits. Cheap enough for picking a slot or stripe on every access.
+     */
+    public static int spread(final long value) {
+        final long hash = value * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Finalizer of MurmurHash3, so that values sharing a common stride or prefix are still spread over the whole 64 bit
+     * range.
+     */
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -1,13 +1,25 @@
 package de.ing.challenge.loanrequestservice;
 
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import de.ing.challenge.loanrequestservice.cluster.ClusterRouter;
+import de.ing.challenge.loanrequestservice.deduplication.LoanRequestDeduplicator;
 import de.ing.challenge.loanrequestservice.dto.BadRequestResponseDto;
+import de.ing.challenge.loanrequestservice.dto.LoanAsOfSumResponseDto;
 import de.ing.challenge.loanrequestservice.dto.LoanRequestDto;
+import de.ing.challenge.loanrequestservice.dto.LoanRequestPageResponseDto;
+import de.ing.challenge.loanrequestservice.dto.LoanStatisticsResponseDto;
 import de.ing.challenge.loanrequestservice.dto.LoanSumResponseDto;
+import de.ing.challenge.loanrequestservice.dto.LoanWindowSumResponseDto;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.constraints.Min;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,45 +27,234 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(value = "/api/v1/loan-requests", produces = MediaType.APPLICATION_JSON_VALUE)
 @Slf4j
 public class LoanController {
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Nonnull
     private final LoanService loanService;
+    @Nonnull
+    private final ClusterRouter clusterRouter;
+    @Nonnull
+    private final AdmissionControl admissionControl;
+    @Nonnull
+    private final LoanRequestDeduplicator loanRequestDeduplicator;
+    @Nonnull
+    private final CustomerWriteSequencer customerWriteSequencer;
 
-    public LoanController(@Autowired @Nonnull final LoanService loanService) {
+    public LoanController(@Autowired @Nonnull final LoanService loanService,
+                          @Autowired @Nonnull final ClusterRouter clusterRouter,
+                          @Autowired @Nonnull final AdmissionControl admissionControl,
+                          @Autowired @Nonnull final LoanRequestDeduplicator loanRequestDeduplicator,
+                          @Autowired @Nonnull final CustomerWriteSequencer customerWriteSequencer) {
         this.loanService = loanService;
+        this.clusterRouter = clusterRouter;
+        this.admissionControl = admissionControl;
+        this.loanRequestDeduplicator = loanRequestDeduplicator;
+        this.customerWriteSequencer = customerWriteSequencer;
     }
 
     @PostMapping
     ResponseEntity<?> createLoanRequest(@RequestBody @Nonnull final LoanRequestDto loanRequest) {
+        final Optional<ResponseEntity<?>> routedResponse = clusterRouter.route(loanRequest.getCustomerId(), loanRequest);
+        if (routedResponse.isPresent()) {
+            return routedResponse.get();
+        }
+
         try {
-            loanService.createLoanRequest(loanRequest);
+            // sequenced and admitted outside the transactional service, so that the next write of the customer only starts
+            // once the previous one has been committed and rejected requests never wait for a connection; the time spent
+            // waiting for the customer does not count towards the latency of the bulkhead
+            loanRequestDeduplicator.execute(loanRequest, () -> customerWriteSequencer.execute(loanRequest.getCustomerId(),
+                    () -> admissionControl.writes().execute(() -> loanService.createLoanRequest(loanRequest))));
             return ResponseEntity.ok().build();
         } catch (final ConstraintViolationException e) {
             return ResponseEntity.badRequest().body(new BadRequestResponseDto(e.getMessage()));
+        } catch (final AdmissionRejectedException e) {
+            return serviceUnavailable(e);
         } catch (final Exception e) {
             log.error("Caught {} while creating loan request.", e.getClass(), e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Served from the database by any instance, hence not routed in cluster mode.
+     *
+     * @param after The cursor returned with the previous page.
+     */
+    @GetMapping
+    ResponseEntity<?> getLoanRequests(@RequestParam("customerId") @Min(0) final long customerId,
+                                      @RequestParam(name = "after", required = false) @Nullable final String after,
+                                      @RequestParam(name = "limit", defaultValue = "50") final int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(new BadRequestResponseDto("limit must be between 1 and %d.".formatted(MAX_PAGE_SIZE)));
+        }
+
+        try {
+            final LoanRequestPage page = admissionControl.reads().execute(() -> loanService.getLoanRequestPage(customerId, after, limit));
+            return ResponseEntity.ok().body(new LoanRequestPageResponseDto(customerId,
+                    page.getLoanRequests().stream()
+                            .map(loanRequest -> new LoanRequestPageResponseDto.LoanRequest(loanRequest.getId(), loanRequest.getAmount(), loanRequest.getCreatedAt()))
+                            .toList(),
+                    page.getNextCursor()));
+        } catch (final IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new BadRequestResponseDto(e.getMessage()));
+        } catch (final AdmissionRejectedException e) {
+            return serviceUnavailable(e);
+        } catch (final Exception e) {
+            log.error("Caught {} while listing loan requests.", e.getClass(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/sum/{customerId}")
     ResponseEntity<?> getLoanSumByCustomerId(@PathVariable("customerId") @Min(0) final long customerId) {
+        final Optional<ResponseEntity<?>> routedResponse = clusterRouter.route(customerId, null);
+        if (routedResponse.isPresent()) {
+            return routedResponse.get();
+        }
+
         try {
             final BigDecimal loanSum = loanService.getLoanSumByCustomerId(customerId);
             return ResponseEntity.ok().body(new LoanSumResponseDto(customerId, loanSum));
         } catch (final NoSuchElementException e) {
             return ResponseEntity.notFound().build();
+        } catch (final AdmissionRejectedException e) {
+            return serviceUnavailable(e);
         } catch (final Exception e) {
             log.error("Caught {} while getting loan sum.", e.getClass(), e);
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    /**
+     * Not routed in cluster mode, every instance answers from its own ranking (see {@link LoanSumRanking}).
+     */
+    @GetMapping("/top")
+    ResponseEntity<?> getTopCustomersByLoanSum(@RequestParam(name = "n", defaultValue = "100") final int n) {
+        try {
+            final List<LoanSumResponseDto> topCustomers = loanService.getTopCustomersByLoanSum(n).stream()
+                    .map(customer -> new LoanSumResponseDto(customer.getCustomerId(), customer.getSum()))
+                    .toList();
+            return ResponseEntity.ok().body(topCustomers);
+        } catch (final IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new BadRequestResponseDto(e.getMessage()));
+        } catch (final Exception e) {
+            log.error("Caught {} while getting top customers.", e.getClass(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/stats/{customerId}")
+    ResponseEntity<?> getLoanStatisticsByCustomerId(@PathVariable("customerId") @Min(0) final long customerId) {
+        final Optional<ResponseEntity<?>> routedResponse = clusterRouter.route(customerId, null);
+        if (routedResponse.isPresent()) {
+            return routedResponse.get();
+        }
+
+        try {
+            final LoanStatistics statistics = loanService.getLoanStatisticsByCustomerId(customerId);
+            return ResponseEntity.ok().body(new LoanStatisticsResponseDto(customerId, statistics.getCount(),
+                    statistics.getSum(), statistics.getMin(), statistics.getMax(), statistics.getAverage()));
+        } catch (final NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (final AdmissionRejectedException e) {
+            return serviceUnavailable(e);
+        } catch (final Exception e) {
+            log.error("Caught {} while getting loan statistics.", e.getClass(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/sum/{customerId}/rolling/{window}")
+    ResponseEntity<?> getRollingLoanSumByCustomerId(@PathVariable("customerId") @Min(0) final long customerId,
+                                                    @PathVariable("window") @Nonnull final String windowName) {
+        final Optional<ResponseEntity<?>> routedResponse = clusterRouter.route(customerId, null);
+        if (routedResponse.isPresent()) {
+            return routedResponse.get();
+        }
+
+        final Optional<RollingLoanSumCache.Window> maybeWindow = RollingLoanSumCache.Window.fromName(windowName);
+        if (maybeWindow.isEmpty()) {
+            return ResponseEntity.badRequest().body(new BadRequestResponseDto("Unknown window '%s'.".formatted(windowName)));
+        }
+
+        try {
+            final BigDecimal loanSum = loanService.getRollingLoanSumByCustomerId(customerId, maybeWindow.get());
+            return ResponseEntity.ok().body(new LoanWindowSumResponseDto(customerId, windowName, loanSum));
+        } catch (final NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (final AdmissionRejectedException e) {
+            return serviceUnavailable(e);
+        } catch (final Exception e) {
+            log.error("Caught {} while getting rolling loan sum.", e.getClass(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * @param at Either an ISO-8601 instant or a date, which refers to the end of that day (UTC).
+     */
+    @GetMapping("/sum/{customerId}/as-of")
+    ResponseEntity<?> getLoanSumByCustomerIdAsOf(@PathVariable("customerId") @Min(0) final long customerId,
+                                                 @RequestParam("at") @Nonnull final String at) {
+        final Optional<ResponseEntity<?>> routedResponse = clusterRouter.route(customerId, null);
+        if (routedResponse.isPresent()) {
+            return routedResponse.get();
+        }
+
+        final Optional<Instant> maybeAsOf = parseAsOf(at);
+        if (maybeAsOf.isEmpty()) {
+            return ResponseEntity.badRequest().body(new BadRequestResponseDto("Invalid point in time '%s'.".formatted(at)));
+        }
+
+        try {
+            final BigDecimal loanSum = loanService.getLoanSumByCustomerIdAsOf(customerId, maybeAsOf.get());
+            return ResponseEntity.ok().body(new LoanAsOfSumResponseDto(customerId, maybeAsOf.get(), loanSum));
+        } catch (final NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (final AdmissionRejectedException e) {
+            return serviceUnavailable(e);
+        } catch (final Exception e) {
+            log.error("Caught {} while getting loan sum as of {}.", e.getClass(), at, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @Nonnull
+    private static Optional<Instant> parseAsOf(@Nonnull final String at) {
+        try {
+            return Optional.of(Instant.parse(at));
+        } catch (final DateTimeParseException e) {
+            // not an instant, maybe a date
+        }
+
+        try {
+            return Optional.of(LocalDate.parse(at).plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusNanos(1));
+        } catch (final DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Nonnull
+    private static ResponseEntity<?> serviceUnavailable(@Nonnull final AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .build();
+    }
 }
@@ -0,0 +1,24 @@
+package de.ing.challenge.loanrequestservice;
+
+import jakarta.annotation.Nonnull;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by the {@link LoanService} whenever a new loan request has been accepted.
+ * Listeners interested in committed data only should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}.
+ */
+@Value
+public class LoanRequestAcceptedEvent {
+    long loanRequestId;
+    long customerId;
+    @Nonnull
+    BigDecimal amount;
+    /**
+     * The sum of all loan requests of the customer, including this one.
+     */
+    @Nonnull
+    BigDecimal loanSum;
+}
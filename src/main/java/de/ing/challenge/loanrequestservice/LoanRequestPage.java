@@ -0,0 +1,52 @@
+package de.ing.challenge.loanrequestservice;
+
+import de.ing.challenge.loanrequestservice.dao.LoanRequestSummary;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.Value;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of the loan requests of a customer, ordered by id.
+ * <p>
+ * Pages are fetched with a keyset query continuing after the last id of the previous page, hence fetching a page takes
+ * the same time no matter how many pages precede it. The position is handed to clients as an opaque cursor, which is
+ * only valid for the customer it was issued for.
+ */
+@Value
+public class LoanRequestPage {
+    @Nonnull
+    List<LoanRequestSummary> loanRequests;
+    /**
+     * {@code null} on the last page.
+     */
+    @Nullable
+    String nextCursor;
+
+    @Nonnull
+    static String encodeCursor(final long customerId, final long lastLoanRequestId) {
+        final ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES).putLong(customerId).putLong(lastLoanRequestId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @return The id of the last loan request of the previous page.
+     * @throws IllegalArgumentException If the cursor is malformed or has been issued for another customer.
+     */
+    static long decodeCursor(final long customerId, @Nonnull final String cursor) throws IllegalArgumentException {
+        final byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+        if (bytes.length != 2 * Long.BYTES) {
+            throw new IllegalArgumentException("Invalid cursor '%s'.".formatted(cursor));
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getLong() != customerId) {
+            throw new IllegalArgumentException("The cursor '%s' belongs to another customer.".formatted(cursor));
+        }
+
+        return buffer.getLong();
+    }
+}
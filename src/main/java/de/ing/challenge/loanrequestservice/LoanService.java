@@ -1,58 +1,135 @@
 package de.ing.challenge.loanrequestservice;
 
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
 import de.ing.challenge.loanrequestservice.dao.Customer;
-import de.ing.challenge.loanrequestservice.dao.CustomerDao;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
 import de.ing.challenge.loanrequestservice.dao.LoanRequest;
-import de.ing.challenge.loanrequestservice.dao.LoanRequestDao;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestSummary;
+import de.ing.challenge.loanrequestservice.diagnostics.LoanRequestPhaseEvent;
 import de.ing.challenge.loanrequestservice.dto.LoanRequestDto;
+import de.ing.challenge.loanrequestservice.search.CustomerNameIndex;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
+@EnableConfigurationProperties(ExposureProperties.class)
 @Slf4j
 public class LoanService {
     private static final ConstraintViolationException CUSTOMER_ALREADY_EXISTS = new ConstraintViolationException("The customer id is already in use.", null);
     private static final ConstraintViolationException LOAN_REQUEST_ALREADY_EXISTS = new ConstraintViolationException("The loan request id is already in use.", null);
+    private static final ConstraintViolationException EXPOSURE_LIMIT_EXCEEDED = new ConstraintViolationException("The loan request would exceed the exposure limit of the customer.", null);
 
     @Nonnull
     private final Validator validator;
     @Nonnull
-    private final CustomerDao customerDao;
-    @Nonnull
-    private final LoanRequestDao loanRequestDao;
+    private final LoanStore loanStore;
     @Nonnull
     private final LoanSumCache loanSumCache;
+    @Nonnull
+    private final RollingLoanSumCache rollingLoanSumCache;
+    @Nonnull
+    private final LoanSumRanking loanSumRanking;
+    @Nonnull
+    private final CustomerRegistry customerRegistry;
+    @Nonnull
+    private final CustomerNameIndex customerNameIndex;
+    @Nonnull
+    private final ApplicationEventPublisher eventPublisher;
+    @Nonnull
+    private final ExposureProperties exposureProperties;
+    @Nonnull
+    private final AdmissionControl admissionControl;
 
     public LoanService(@Autowired @Nonnull final Validator validator,
-                       @Autowired @Nonnull final CustomerDao customerDao,
-                       @Autowired @Nonnull final LoanRequestDao loanRequestDao,
-                       @Autowired @Nonnull final LoanSumCache loanSumCache) {
+                       @Autowired @Nonnull final LoanStore loanStore,
+                       @Autowired @Nonnull final LoanSumCache loanSumCache,
+                       @Autowired @Nonnull final RollingLoanSumCache rollingLoanSumCache,
+                       @Autowired @Nonnull final LoanSumRanking loanSumRanking,
+                       @Autowired @Nonnull final CustomerRegistry customerRegistry,
+                       @Autowired @Nonnull final CustomerNameIndex customerNameIndex,
+                       @Autowired @Nonnull final ApplicationEventPublisher eventPublisher,
+                       @Autowired @Nonnull final ExposureProperties exposureProperties,
+                       @Autowired @Nonnull final AdmissionControl admissionControl) {
         this.validator = validator;
-        this.customerDao = customerDao;
-        this.loanRequestDao = loanRequestDao;
+        this.loanStore = loanStore;
         this.loanSumCache = loanSumCache;
+        this.rollingLoanSumCache = rollingLoanSumCache;
+        this.loanSumRanking = loanSumRanking;
+        this.customerRegistry = customerRegistry;
+        this.customerNameIndex = customerNameIndex;
+        this.eventPublisher = eventPublisher;
+        this.exposureProperties = exposureProperties;
+        this.admissionControl = admissionControl;
     }
 
     @Transactional
     public LoanRequest createLoanRequest(@Nonnull final LoanRequestDto dto) throws ConstraintViolationException {
-        throwIfConstrainsAreViolated(dto);
+        time(dto, LoanRequestPhaseEvent.VALIDATION, () -> {
+            throwIfConstrainsAreViolated(dto);
+            return null;
+        });
+        timeCommit(dto);
 
-        final Customer customer = getOrPersistCustomer(dto);
+        final Customer customer = time(dto, LoanRequestPhaseEvent.CUSTOMER_LOOKUP, () -> getOrPersistCustomer(dto));
         return persistLoanRequest(dto, customer);
     }
 
+    private static <T> T time(@Nonnull final LoanRequestDto dto, @Nonnull final String phase, @Nonnull final Supplier<T> call) {
+        return LoanRequestPhaseEvent.time(LoanRequestPhaseEvent.CREATE_LOAN_REQUEST, phase, dto.getCustomerId(), dto.getId(), call);
+    }
+
+    /**
+     * The commit (including the flush of all pending changes) happens after this service returned, hence it is timed
+     * from the transaction's completion callbacks.
+     */
+    private static void timeCommit(@Nonnull final LoanRequestDto dto) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private LoanRequestPhaseEvent event;
+
+            @Override
+            public void beforeCommit(final boolean readOnly) {
+                event = LoanRequestPhaseEvent.begin(LoanRequestPhaseEvent.CREATE_LOAN_REQUEST, LoanRequestPhaseEvent.COMMIT,
+                        dto.getCustomerId(), dto.getId());
+            }
+
+            @Override
+            public void afterCompletion(final int status) {
+                if (event != null) {
+                    event.commit(status == STATUS_COMMITTED);
+                }
+            }
+        });
+    }
+
     private void throwIfConstrainsAreViolated(@Nonnull final LoanRequestDto dto) {
         final Set<ConstraintViolation<LoanRequestDto>> violations = validator.validate(dto);
         if (violations.isEmpty()) {
@@ -67,8 +144,16 @@ public class LoanService {
     }
 
     private Customer getOrPersistCustomer(@Nonnull final LoanRequestDto dto) throws ConstraintViolationException {
-        final Optional<Customer> existingCustomer = customerDao.findById(dto.getCustomerId());
+        // mismatches are rare, hence they are confirmed against the store before rejecting the request
+        if (customerRegistry.lookup(dto.getCustomerId(), dto.getCustomerFullName()) == CustomerRegistry.Match.MATCHES) {
+            log.debug("The {} with id {} is known to match the incoming {} with id {}.",
+                    Customer.class, dto.getCustomerId(), LoanRequestDto.class, dto.getId());
+            return loanStore.getExistingCustomer(dto.getCustomerId());
+        }
+
+        final Optional<Customer> existingCustomer = loanStore.findCustomerById(dto.getCustomerId());
         if (existingCustomer.isPresent()) {
+            customerRegistry.register(existingCustomer.get().getId(), existingCustomer.get().getFullName());
             throwIfExistingCustomerDoesNotMatch(dto, existingCustomer.get());
             return existingCustomer.get();
         }
@@ -76,7 +161,31 @@ public class LoanService {
         final Customer newCustomer = new Customer(dto.getCustomerId(), dto.getCustomerFullName());
 
         log.debug("Creating new {} with id {}.", Customer.class, newCustomer.getId());
-        return customerDao.save(newCustomer);
+        final Customer savedCustomer = loanStore.saveCustomer(newCustomer);
+        registerAndIndexAfterCommit(savedCustomer);
+        return savedCustomer;
+    }
+
+    /**
+     * Concurrent inserts of the same customer are only detected on commit, hence neither the registry nor the name index
+     * must learn about the new customer before.
+     */
+    private void registerAndIndexAfterCommit(@Nonnull final Customer customer) {
+        final long customerId = customer.getId();
+        final String fullName = customer.getFullName();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            customerRegistry.register(customerId, fullName);
+            customerNameIndex.add(customerId, fullName);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                customerRegistry.register(customerId, fullName);
+                customerNameIndex.add(customerId, fullName);
+            }
+        });
     }
 
     private void throwIfExistingCustomerDoesNotMatch(@Nonnull final LoanRequestDto dto, @Nonnull final Customer customer) throws ConstraintViolationException {
@@ -96,18 +205,75 @@ public class LoanService {
     }
 
     private LoanRequest persistLoanRequest(@Nonnull final LoanRequestDto dto, @Nonnull final Customer customer) {
-        final Optional<LoanRequest> maybeExistingRequest = loanRequestDao.findById(dto.getId());
+        final Optional<LoanRequest> maybeExistingRequest = time(dto, LoanRequestPhaseEvent.LOAN_REQUEST_LOOKUP,
+                () -> loanStore.findLoanRequestById(dto.getId()));
         if (maybeExistingRequest.isPresent()) {
             throwIfExistingLoanRequestDoesNotMatch(dto, maybeExistingRequest.get());
             return maybeExistingRequest.get();
         }
 
         final LoanRequest newRequest = new LoanRequest(dto.getId(), dto.getAmount(), customer);
-        loanSumCache.insertOrAdd(customer.getId(), newRequest.getAmount());
+        final CacheUpdate cacheUpdate = time(dto, LoanRequestPhaseEvent.CACHE_UPDATE, () -> {
+            final LoanSumCache.Reservation reservation = loanSumCache.tryReserve(customer.getId(), newRequest.getAmount(), exposureProperties.getLimit())
+                    .orElseThrow(() -> {
+                        log.info("The incoming {} with id {} would exceed the exposure limit of {} with id {}.",
+                                LoanRequestDto.class, dto.getId(), Customer.class, customer.getId());
+                        return EXPOSURE_LIMIT_EXCEEDED;
+                    });
+            final RollingLoanSumCache.Addition addition = rollingLoanSumCache.add(customer.getId(),
+                    Objects.requireNonNull(newRequest.getCreatedAt()), newRequest.getAmount());
+            return new CacheUpdate(reservation, addition);
+        });
+        final boolean completesWithTransaction = commitOrUndoWithTransaction(cacheUpdate);
 
         log.debug("Creating new {} with id {} for {} with id {}.",
                 LoanRequest.class, newRequest.getId(), Customer.class, customer.getId());
-        return loanRequestDao.save(newRequest);
+        final LoanRequest savedRequest;
+        try {
+            savedRequest = time(dto, LoanRequestPhaseEvent.PERSIST, () -> loanStore.saveLoanRequest(newRequest));
+        } catch (final RuntimeException e) {
+            if (!completesWithTransaction) {
+                undo(cacheUpdate);
+            }
+            throw e;
+        }
+        if (!completesWithTransaction) {
+            loanSumCache.commit(cacheUpdate.getReservation());
+        }
+
+        eventPublisher.publishEvent(new LoanRequestAcceptedEvent(savedRequest.getId(), customer.getId(), savedRequest.getAmount(),
+                cacheUpdate.getReservation().getSum()));
+        return savedRequest;
+    }
+
+    /**
+     * The reserved loan sum and the rolling loan sums only count once the loan request has been committed, otherwise
+     * they are undone again, so that rolled back loan requests neither count against the exposure limit nor remain in
+     * the rolling windows.
+     *
+     * @return Whether the cache update completes with the transaction, otherwise it is up to the caller.
+     */
+    private boolean commitOrUndoWithTransaction(@Nonnull final CacheUpdate cacheUpdate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(final int status) {
+                if (status == STATUS_COMMITTED) {
+                    loanSumCache.commit(cacheUpdate.getReservation());
+                } else {
+                    undo(cacheUpdate);
+                }
+            }
+        });
+        return true;
+    }
+
+    private void undo(@Nonnull final CacheUpdate cacheUpdate) {
+        loanSumCache.release(cacheUpdate.getReservation());
+        rollingLoanSumCache.undo(cacheUpdate.getAddition());
     }
 
     private void throwIfExistingLoanRequestDoesNotMatch(@Nonnull final LoanRequestDto dto, @Nonnull final LoanRequest loanRequest) throws ConstraintViolationException {
@@ -132,11 +298,91 @@ public class LoanService {
 
     @Nonnull
     public BigDecimal getLoanSumByCustomerId(final long customerId) throws NoSuchElementException {
-        final Optional<BigDecimal> maybeLoanSum = loanSumCache.get(customerId);
+        final Optional<BigDecimal> maybeLoanSum = LoanRequestPhaseEvent.time(LoanRequestPhaseEvent.GET_LOAN_SUM,
+                LoanRequestPhaseEvent.CACHE_GET, customerId, null, () -> loanSumCache.get(customerId));
         if (maybeLoanSum.isEmpty()) {
             throw new NoSuchElementException("Customer with id %s not found.".formatted(customerId));
         }
 
         return maybeLoanSum.get();
     }
+
+    /**
+     * @param cursor The {@link LoanRequestPage#getNextCursor() cursor} of the previous page, {@code null} for the first.
+     * @throws IllegalArgumentException If the cursor is invalid.
+     */
+    @Nonnull
+    public LoanRequestPage getLoanRequestPage(final long customerId, @Nullable final String cursor, final int limit) throws IllegalArgumentException {
+        final long afterId = cursor == null ? -1 : LoanRequestPage.decodeCursor(customerId, cursor);
+
+        // one more than requested, to find out whether there is a next page
+        final List<LoanRequestSummary> loanRequests = loanStore.findLoanRequestSummariesByCustomerIdAfter(customerId, afterId, limit + 1);
+        if (loanRequests.size() <= limit) {
+            return new LoanRequestPage(loanRequests, null);
+        }
+
+        final List<LoanRequestSummary> page = loanRequests.subList(0, limit);
+        return new LoanRequestPage(page, LoanRequestPage.encodeCursor(customerId, page.get(limit - 1).getId()));
+    }
+
+    /**
+     * @return The top {@code n} customers by loan sum, in descending order.
+     * @throws IllegalArgumentException If {@code n} is not positive or exceeds the capacity of the ranking.
+     */
+    @Nonnull
+    public List<CustomerLoanSum> getTopCustomersByLoanSum(final int n) throws IllegalArgumentException {
+        if (n < 1 || n > loanSumRanking.getCapacity()) {
+            throw new IllegalArgumentException("n must be between 1 and %d.".formatted(loanSumRanking.getCapacity()));
+        }
+
+        return loanSumRanking.top(n);
+    }
+
+    @Nonnull
+    public LoanStatistics getLoanStatisticsByCustomerId(final long customerId) throws NoSuchElementException {
+        final Optional<LoanStatistics> maybeStatistics = LoanRequestPhaseEvent.time(LoanRequestPhaseEvent.GET_LOAN_STATISTICS,
+                LoanRequestPhaseEvent.CACHE_GET, customerId, null, () -> loanSumCache.getStatistics(customerId));
+        if (maybeStatistics.isEmpty()) {
+            throw new NoSuchElementException("Customer with id %s not found.".formatted(customerId));
+        }
+
+        return maybeStatistics.get();
+    }
+
+    /**
+     * @return The sum of all loan requests of the customer created within the given window.
+     * @throws NoSuchElementException If the customer does not have any loan requests at all.
+     */
+    @Nonnull
+    public BigDecimal getRollingLoanSumByCustomerId(final long customerId, @Nonnull final RollingLoanSumCache.Window window) throws NoSuchElementException {
+        throwIfCustomerHasNoLoanRequests(customerId);
+
+        return LoanRequestPhaseEvent.time(LoanRequestPhaseEvent.GET_LOAN_SUM, LoanRequestPhaseEvent.CACHE_GET,
+                customerId, null, () -> rollingLoanSumCache.get(customerId, window, Instant.now()));
+    }
+
+    /**
+     * @return The sum of all loan requests of the customer created at or before the given point in time.
+     * @throws NoSuchElementException     If the customer does not have any loan requests at all.
+     * @throws AdmissionRejectedException If the query was rejected by the read bulkhead.
+     */
+    @Nonnull
+    public BigDecimal getLoanSumByCustomerIdAsOf(final long customerId, @Nonnull final Instant asOf) throws NoSuchElementException, AdmissionRejectedException {
+        throwIfCustomerHasNoLoanRequests(customerId);
+
+        // only the query is admitted, as a cache miss of the check above takes a permit of its own
+        return admissionControl.reads().execute(() -> loanStore.findLoanSumByCustomerIdAsOf(customerId, asOf)).orElse(BigDecimal.ZERO);
+    }
+
+    private void throwIfCustomerHasNoLoanRequests(final long customerId) throws NoSuchElementException {
+        getLoanSumByCustomerId(customerId);
+    }
+
+    @Value
+    private static class CacheUpdate {
+        @Nonnull
+        LoanSumCache.Reservation reservation;
+        @Nonnull
+        RollingLoanSumCache.Addition addition;
+    }
 }
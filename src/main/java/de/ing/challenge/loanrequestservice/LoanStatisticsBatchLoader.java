@@ -0,0 +1,165 @@
+package de.ing.challenge.loanrequestservice;
+
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import de.ing.challenge.loanrequestservice.diagnostics.LoanSumLoadEvent;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Loads the {@link LoanStatistics} of customers missing from the {@link LoanSumCache} in batches, so that concurrent
+ * misses of different customers share one grouped query instead of taking a connection each.
+ * <p>
+ * The first miss of a batch waits for the {@link BatchLoadingProperties#getWindow() window} and then loads all misses
+ * that arrived meanwhile. If the batch fills up earlier, the miss that filled it loads the batch right away. Hence,
+ * batches are always loaded by one of the waiting callers and no additional threads are needed.
+ * <p>
+ * Only the query is admitted to the read bulkhead, i.e. a batch takes a single permit. Like single misses, batches may
+ * be loaded from a read replica.
+ */
+@Component
+@EnableConfigurationProperties(BatchLoadingProperties.class)
+public class LoanStatisticsBatchLoader {
+    @Nonnull
+    private final BatchLoadingProperties properties;
+    @Nonnull
+    private final LoanStore loanStore;
+    @Nonnull
+    private final AdmissionControl admissionControl;
+
+    // guarded by this, the batch new misses are added to
+    @Nullable
+    private Batch openBatch;
+
+    public LoanStatisticsBatchLoader(@Autowired @Nonnull final BatchLoadingProperties properties,
+                                     @Autowired @Nonnull final LoanStore loanStore,
+                                     @Autowired @Nonnull final AdmissionControl admissionControl) {
+        this.properties = properties;
+        this.loanStore = loanStore;
+        this.admissionControl = admissionControl;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @return The statistics of the customer, or an empty {@link Optional} if it does not have any loan requests.
+     * @throws AdmissionRejectedException If the batch was rejected by the read bulkhead.
+     */
+    @Nonnull
+    public Optional<LoanStatistics> load(final long customerId) throws AdmissionRejectedException {
+        final Batch batch;
+        final CompletableFuture<LoanStatistics> future;
+        final boolean first;
+        final boolean full;
+        synchronized (this) {
+            first = openBatch == null;
+            if (first) {
+                openBatch = new Batch(Thread.currentThread());
+            }
+
+            batch = openBatch;
+            future = batch.futures.computeIfAbsent(customerId, k -> new CompletableFuture<>());
+            full = batch.futures.size() >= properties.getMaxBatchSize();
+            if (full) {
+                openBatch = null;
+            }
+        }
+
+        if (full) {
+            batch.load();
+        } else if (first) {
+            // woken up early if the batch fills up
+            LockSupport.parkNanos(properties.getWindow().toNanos());
+            if (close(batch)) {
+                batch.load();
+            }
+        }
+
+        return Optional.ofNullable(await(future));
+    }
+
+    /**
+     * @return Whether the batch was still open, otherwise it filled up and has been loaded already.
+     */
+    private synchronized boolean close(@Nonnull final Batch batch) {
+        if (openBatch != batch) {
+            return false;
+        }
+
+        openBatch = null;
+        return true;
+    }
+
+    @Nullable
+    private static LoanStatistics await(@Nonnull final CompletableFuture<LoanStatistics> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private class Batch {
+        /**
+         * The caller that opened the batch and waits for the window to pass.
+         */
+        @Nonnull
+        private final Thread leader;
+        // only modified while the batch is open
+        @Nonnull
+        private final Map<Long, CompletableFuture<LoanStatistics>> futures = new HashMap<>();
+
+        private Batch(@Nonnull final Thread leader) {
+            this.leader = leader;
+        }
+
+        private void load() {
+            try {
+                loadAndComplete();
+            } finally {
+                if (leader != Thread.currentThread()) {
+                    LockSupport.unpark(leader);
+                }
+            }
+        }
+
+        private void loadAndComplete() {
+            final List<LoanSumLoadEvent> events = futures.keySet().stream()
+                    .map(customerId -> new LoanSumLoadEvent(customerId, futures.size()))
+                    .toList();
+            events.forEach(LoanSumLoadEvent::begin);
+
+            final Map<Long, LoanStatistics> loadedStatistics;
+            try {
+                loadedStatistics = admissionControl.reads().execute(() -> loanStore.findLoanStatisticsByCustomerIds(futures.keySet()));
+            } catch (final RuntimeException | Error e) {
+                futures.values().forEach(future -> future.completeExceptionally(e));
+                return;
+            }
+
+            events.forEach(event -> event.commit(loadedStatistics.containsKey(event.getCustomerId())));
+            futures.forEach((customerId, future) -> future.complete(loadedStatistics.get(customerId)));
+        }
+    }
+}
@@ -1,68 +1,268 @@
 package de.ing.challenge.loanrequestservice;
 
-import de.ing.challenge.loanrequestservice.dao.LoanRequest;
-import de.ing.challenge.loanrequestservice.dao.LoanRequestDao;
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import de.ing.challenge.loanrequestservice.config.ReplicaPool;
+import de.ing.challenge.loanrequestservice.config.ReplicaRoutingDataSource;
+import de.ing.challenge.loanrequestservice.diagnostics.LoanSumCacheEvent;
+import de.ing.challenge.loanrequestservice.diagnostics.LoanSumLoadEvent;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.util.Collection;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
 
+/**
+ * Keeps the {@link LoanStatistics} (and hence the loan sum) of every customer seen so far in memory.
+ * <p>
+ * The statistics of a customer are loaded with a single aggregate query on first access (batched with the misses of
+ * other customers by the {@link LoanStatisticsBatchLoader}) and updated incrementally by the write path afterwards.
+ * Writes {@link #tryReserve reserve} their loan request, which also enforces the exposure limit of the customer, and
+ * commit or release the reservation with their transaction. Commits, releases and repairs also update the
+ * {@link LoanSumRanking}, while holding the entry of the customer, so that the ranking sees the changes of a customer in
+ * the same order as the cache.
+ * <p>
+ * Misses of readers may be loaded from a read replica, which lags behind by at most its staleness bound. As such
+ * statistics may lack recent loan requests, they are reloaded from the primary before a write checks the exposure limit
+ * against them.
+ */
 @Component
 @Slf4j
-public class LoanSumCache {
+public class LoanSumCache implements CustomerScopedCache {
     @Nonnull
-    private final LoanRequestDao loanRequestDao;
+    private final LoanStore loanStore;
+    @Nonnull
+    private final AdmissionControl admissionControl;
+    @Nonnull
+    private final LoanSumRanking ranking;
+    @Nonnull
+    private final LoanStatisticsBatchLoader batchLoader;
     @Nonnull
     @Getter(AccessLevel.PACKAGE) // for testing
-    private final Map<Long, BigDecimal> summedLoans = new ConcurrentHashMap<>();
+    private final Map<Long, LoanStatistics> statistics = new ConcurrentHashMap<>();
+    /**
+     * Customers whose cached statistics may have been loaded from a read replica, only changed while holding their
+     * entry in {@link #statistics}.
+     */
+    @Nonnull
+    private final Set<Long> unconfirmedCustomerIds = ConcurrentHashMap.newKeySet();
+    private final boolean readsMayBeStale;
 
-    public LoanSumCache(@Autowired @Nonnull final LoanRequestDao loanRequestDao) {
-        this.loanRequestDao = loanRequestDao;
+    public LoanSumCache(@Autowired @Nonnull final LoanStore loanStore,
+                        @Autowired @Nonnull final AdmissionControl admissionControl,
+                        @Autowired @Nonnull final LoanSumRanking ranking,
+                        @Autowired @Nonnull final LoanStatisticsBatchLoader batchLoader,
+                        @Autowired @Nonnull final Optional<ReplicaPool> replicaPool) {
+        this.loanStore = loanStore;
+        this.admissionControl = admissionControl;
+        this.ranking = ranking;
+        this.batchLoader = batchLoader;
+        this.readsMayBeStale = replicaPool.isPresent();
     }
 
+    /**
+     * @throws AdmissionRejectedException If the sum is not cached and the read bulkhead is at its limit.
+     * @see #getStatistics(long)
+     */
     @Nonnull
-    public Optional<BigDecimal> get(final long customerId) {
-        final BigDecimal sum = summedLoans.computeIfAbsent(customerId, this::fetchSumFromDatabase);
+    public Optional<BigDecimal> get(final long customerId) throws AdmissionRejectedException {
+        return getStatistics(customerId).map(LoanStatistics::getSum);
+    }
 
-        return Optional.ofNullable(sum);
+    /**
+     * Cache hits are served without touching the database. Misses are loaded within the read bulkhead.
+     *
+     * @throws AdmissionRejectedException If the statistics are not cached and the read bulkhead is at its limit.
+     */
+    @Nonnull
+    public Optional<LoanStatistics> getStatistics(final long customerId) throws AdmissionRejectedException {
+        final LoanStatistics cachedStatistics = statistics.get(customerId);
+        new LoanSumCacheEvent("get", customerId, cachedStatistics != null).commit();
+        if (cachedStatistics != null) {
+            return Optional.of(cachedStatistics);
+        }
+
+        if (batchLoader.isEnabled()) {
+            // a concurrent write may have loaded the statistics meanwhile and already added its loan request
+            return batchLoader.load(customerId).map(loadedStatistics ->
+                    statistics.computeIfAbsent(customerId, k -> markUnconfirmed(k, loadedStatistics)));
+        }
+
+        final LoanStatistics loadedStatistics = admissionControl.reads().execute(
+                () -> statistics.computeIfAbsent(customerId, k -> markUnconfirmed(k, fetchStatisticsFromDatabase(k))));
+
+        return Optional.ofNullable(loadedStatistics);
     }
 
-    public BigDecimal insertOrAdd(final long customerId, @Nonnull final BigDecimal newLoan) {
-        return summedLoans.compute(customerId, (k, v) -> {
-            final BigDecimal existingSum;
-            if (v == null) {
-                existingSum = Objects.requireNonNullElse(fetchSumFromDatabase(customerId), BigDecimal.ZERO);
-            } else {
-                existingSum = v;
+    /**
+     * Atomically adds the new loan to the statistics of the customer, unless the loan sum would exceed the limit
+     * afterwards. The reservation is visible to readers right away and must either be {@link #commit(Reservation)
+     * committed} or {@link #release(Reservation) released} once the loan request has been stored or not.
+     * <p>
+     * Must only be called by writers that have already been admitted, hence misses are not limited separately.
+     *
+     * @param limit The maximum loan sum of the customer, {@code null} for no limit.
+     * @return The reservation, or nothing if the loan sum would exceed the limit.
+     */
+    @Nonnull
+    public Optional<Reservation> tryReserve(final long customerId, @Nonnull final BigDecimal newLoan, @Nullable final BigDecimal limit) {
+        final Reservation[] reservation = new Reservation[1];
+        statistics.compute(customerId, (k, v) -> {
+            new LoanSumCacheEvent("tryReserve", customerId, v != null).commit();
+
+            final boolean unconfirmed = unconfirmedCustomerIds.remove(customerId);
+            final LoanStatistics existingStatistics = v == null || unconfirmed
+                    ? ReplicaRoutingDataSource.onPrimary(() -> fetchStatisticsFromDatabase(customerId))
+                    : v;
+            final LoanStatistics reservedStatistics = existingStatistics == null ? LoanStatistics.of(newLoan) : existingStatistics.plus(newLoan);
+            if (limit != null && reservedStatistics.getSum().compareTo(limit) > 0) {
+                return existingStatistics;
             }
 
-            return existingSum.add(newLoan);
+            reservation[0] = new Reservation(customerId, existingStatistics, reservedStatistics);
+            return reservedStatistics;
         });
+
+        return Optional.ofNullable(reservation[0]);
     }
 
-    @Nullable
-    private BigDecimal fetchSumFromDatabase(final long customerId) {
-        final Collection<LoanRequest> loanRequests = loanRequestDao.findAllByCustomerId(customerId);
-        if (loanRequests.isEmpty()) {
+    /**
+     * To be called once the reserved loan request has been stored. Offers the cached sum to the ranking, which may also
+     * contain concurrent reservations; these lower it again if they are released.
+     */
+    public void commit(@Nonnull final Reservation reservation) {
+        statistics.compute(reservation.getCustomerId(), (customerId, v) -> {
+            ranking.offer(customerId, (v == null ? reservation.getReservedStatistics() : v).getSumCents());
+            return v;
+        });
+    }
+
+    /**
+     * To be called if the reserved loan request has not been stored. Restores the statistics from before the
+     * reservation; if they have been replaced meanwhile (e.g. {@link #repair(long, LoanStatistics) repaired}), they
+     * are evicted instead and reloaded on next access. The ranking is lowered accordingly, or forgets the customer
+     * until its next update if the statistics are evicted.
+     */
+    public void release(@Nonnull final Reservation reservation) {
+        statistics.compute(reservation.getCustomerId(), (customerId, v) -> {
+            final LoanStatistics previousStatistics = reservation.getPreviousStatistics();
+            if (reservation.getReservedStatistics().equals(v) && previousStatistics != null) {
+                ranking.offer(customerId, previousStatistics.getSumCents());
+                return previousStatistics;
+            }
+
+            if (!reservation.getReservedStatistics().equals(v)) {
+                log.info("Evicting the loan statistics of customer {}, because they changed while a loan request was reserved.", customerId);
+            }
+            ranking.remove(customerId);
+            unconfirmedCustomerIds.remove(customerId);
             return null;
+        });
+    }
+
+    /**
+     * @return The cached statistics of the customer, without loading them on a miss.
+     */
+    @Nonnull
+    public Optional<LoanStatistics> getCachedStatistics(final long customerId) {
+        return Optional.ofNullable(statistics.get(customerId));
+    }
+
+    /**
+     * Replaces the cached statistics of the customer with the stored ones if they differ. Must only be called while the
+     * writes of the customer are sequenced by the {@link CustomerWriteSequencer}, because the cache is updated before
+     * the transaction of a loan request commits.
+     *
+     * @param storedStatistics {@code null} if the customer does not have any loan requests.
+     * @return Whether the cached statistics had drifted and were repaired.
+     */
+    public boolean repair(final long customerId, @Nullable final LoanStatistics storedStatistics) {
+        final LoanStatistics cachedStatistics = statistics.get(customerId);
+        if (cachedStatistics == null || cachedStatistics.equals(storedStatistics)) {
+            return false;
         }
 
-        return loanRequests.stream()
-                .map(LoanRequest::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        final boolean[] repaired = new boolean[1];
+        statistics.computeIfPresent(customerId, (k, v) -> {
+            if (!v.equals(cachedStatistics)) {
+                return v;
+            }
+
+            repaired[0] = true;
+            unconfirmedCustomerIds.remove(customerId);
+            if (storedStatistics == null) {
+                ranking.remove(customerId);
+            } else {
+                ranking.offer(customerId, storedStatistics.getSumCents());
+            }
+            return storedStatistics;
+        });
+        if (repaired[0]) {
+            log.info("Repaired the drifted loan statistics of customer {} from {} to {}.", customerId, cachedStatistics, storedStatistics);
+        }
+
+        return repaired[0];
+    }
+
+    @Nullable
+    private LoanStatistics markUnconfirmed(final long customerId, @Nullable final LoanStatistics loadedStatistics) {
+        if (readsMayBeStale && loadedStatistics != null) {
+            unconfirmedCustomerIds.add(customerId);
+        }
+
+        return loadedStatistics;
+    }
+
+    @Nullable
+    private LoanStatistics fetchStatisticsFromDatabase(final long customerId) {
+        final LoanSumLoadEvent event = new LoanSumLoadEvent(customerId);
+        event.begin();
+        final LoanStatistics loadedStatistics = loanStore.findLoanStatisticsByCustomerId(customerId).orElse(null);
+        event.commit(loadedStatistics != null);
+
+        return loadedStatistics;
+    }
+
+    @Override
+    public void retainOnly(@Nonnull final LongPredicate isRetained) {
+        statistics.keySet().removeIf(customerId -> !isRetained.test(customerId));
+        unconfirmedCustomerIds.removeIf(customerId -> !isRetained.test(customerId));
     }
 
     void reset() {
-        summedLoans.clear();
+        statistics.clear();
+        unconfirmedCustomerIds.clear();
+    }
+
+    /**
+     * A loan request that has been added to the cached statistics, but not been stored yet.
+     */
+    @Value
+    public static class Reservation {
+        long customerId;
+        /**
+         * {@code null} if the customer did not have any loan requests before.
+         */
+        @Nullable
+        LoanStatistics previousStatistics;
+        @Nonnull
+        LoanStatistics reservedStatistics;
+
+        @Nonnull
+        public BigDecimal getSum() {
+            return reservedStatistics.getSum();
+        }
     }
 }
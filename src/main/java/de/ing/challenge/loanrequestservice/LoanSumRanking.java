@@ -0,0 +1,200 @@
+package de.ing.challenge.loanrequestservice;
+
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ranks the customers by their loan sum, so that the top customers are served in O(n) without touching the database.
+ * <p>
+ * Only the top {@link RankingProperties#getCapacity() capacity} customers are kept. Every change of a loan sum is
+ * {@link #offer(long, long) offered} with the full new sum, which replaces the known one, hence the offers of a customer
+ * must arrive in order. A customer that has been evicted re-enters the ranking through its next offer. Sums only
+ * decrease when a reservation is released or a drifted sum is repaired; until its next offer, a customer evicted
+ * earlier may then be missing although its sum is larger than a lowered one.
+ * <p>
+ * The ranking is built from the store on start-up. Reconciling it with the store periodically, which also picks up the
+ * loan requests created by other cluster members, is {@link RankingProperties#isResyncEnabled() opt-in}, as every
+ * resync aggregates all loan requests. The store may lag behind the offers of this instance, hence a resync only raises
+ * sums.
+ */
+@Component
+@EnableConfigurationProperties(RankingProperties.class)
+@Slf4j
+public class LoanSumRanking {
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::getSumCents).reversed()
+            .thenComparingLong(Entry::getCustomerId);
+
+    @Nonnull
+    private final RankingProperties properties;
+    @Nonnull
+    private final LoanStore loanStore;
+    @Nonnull
+    private final NavigableSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+    @Nonnull
+    private final Map<Long, Long> sumCentsByCustomer = new ConcurrentHashMap<>();
+    /**
+     * {@link ConcurrentSkipListSet#size()} traverses the whole set, hence the size is tracked separately.
+     */
+    @Nonnull
+    private final AtomicInteger size = new AtomicInteger();
+
+    public LoanSumRanking(@Autowired @Nonnull final RankingProperties properties,
+                          @Autowired @Nonnull final LoanStore loanStore) {
+        this.properties = properties;
+        this.loanStore = loanStore;
+    }
+
+    /**
+     * @param sumCents The current loan sum of the customer in cents, which may also be lower than the known one.
+     */
+    public void offer(final long customerId, final long sumCents) {
+        update(customerId, sumCents, false);
+    }
+
+    /**
+     * Removes the customer, e.g. because its loan sum is no longer known. It re-enters the ranking with its next offer.
+     */
+    public void remove(final long customerId) {
+        sumCentsByCustomer.computeIfPresent(customerId, (k, v) -> {
+            remove(new Entry(customerId, v));
+            return null;
+        });
+    }
+
+    private void update(final long customerId, final long sumCents, final boolean raiseOnly) {
+        final Entry entry = new Entry(customerId, sumCents);
+        if (isBelowThreshold(entry) && !sumCentsByCustomer.containsKey(customerId)) {
+            return;
+        }
+
+        sumCentsByCustomer.compute(customerId, (k, v) -> {
+            if (v != null && (v == sumCents || raiseOnly && v > sumCents)) {
+                return v;
+            }
+
+            // added before the previous entry is removed, so that concurrent readers see the customer at least once
+            add(entry);
+            if (v != null) {
+                remove(new Entry(customerId, v));
+            }
+
+            return sumCents;
+        });
+
+        evictExcess();
+    }
+
+    /**
+     * @return The top {@code n} customers by loan sum, in descending order.
+     */
+    @Nonnull
+    public List<CustomerLoanSum> top(final int n) {
+        final List<CustomerLoanSum> top = new ArrayList<>(Math.min(n, properties.getCapacity()));
+        final Set<Long> seenCustomers = new HashSet<>();
+        for (final Entry entry : ranking) {
+            if (top.size() >= n) {
+                break;
+            }
+
+            // a customer whose sum is being updated concurrently may show up twice, only the larger sum is returned
+            if (seenCustomers.add(entry.getCustomerId())) {
+                top.add(new CustomerLoanSum(entry.getCustomerId(), LoanStatistics.fromCents(entry.getSumCents())));
+            }
+        }
+
+        return top;
+    }
+
+    public int getCapacity() {
+        return properties.getCapacity();
+    }
+
+    @Scheduled(initialDelayString = "${loan-request-service.ranking.resync-interval:PT10M}",
+            fixedDelayString = "${loan-request-service.ranking.resync-interval:PT10M}")
+    public void tick() {
+        if (!properties.isResyncEnabled()) {
+            return;
+        }
+
+        resync();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resync() {
+        try {
+            final List<CustomerLoanSum> topCustomers = loanStore.findTopCustomersByLoanSum(properties.getCapacity());
+            topCustomers.forEach(customer -> update(customer.getCustomerId(), LoanStatistics.toCents(customer.getSum()), true));
+            log.debug("Synchronized the loan sum ranking with the top {} customers of the store.", topCustomers.size());
+        } catch (final RuntimeException e) {
+            log.error("Unable to synchronize the loan sum ranking with the store.", e);
+        }
+    }
+
+    void reset() {
+        ranking.clear();
+        sumCentsByCustomer.clear();
+        size.set(0);
+    }
+
+    private boolean isBelowThreshold(@Nonnull final Entry entry) {
+        if (size.get() < properties.getCapacity()) {
+            return false;
+        }
+
+        final Iterator<Entry> descending = ranking.descendingIterator();
+        return descending.hasNext() && ORDER.compare(entry, descending.next()) > 0;
+    }
+
+    private void add(@Nonnull final Entry entry) {
+        if (ranking.add(entry)) {
+            size.incrementAndGet();
+        }
+    }
+
+    private void remove(@Nonnull final Entry entry) {
+        if (ranking.remove(entry)) {
+            size.decrementAndGet();
+        }
+    }
+
+    private void evictExcess() {
+        while (size.get() > properties.getCapacity()) {
+            final Entry evicted = ranking.pollLast();
+            if (evicted == null) {
+                return;
+            }
+
+            size.decrementAndGet();
+            // fails if the customer has been offered a larger sum meanwhile, whose entry is still ranked
+            sumCentsByCustomer.remove(evicted.getCustomerId(), evicted.getSumCents());
+        }
+    }
+
+    @Value
+    private static class Entry {
+        long customerId;
+        long sumCents;
+    }
+}
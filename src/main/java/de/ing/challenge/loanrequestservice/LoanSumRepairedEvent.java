@@ -0,0 +1,20 @@
+package de.ing.challenge.loanrequestservice;
+
+import jakarta.annotation.Nonnull;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Published whenever a drifted loan sum in the {@link LoanSumCache} has been repaired from the store, outside of any
+ * transaction.
+ */
+@Value
+public class LoanSumRepairedEvent {
+    long customerId;
+    /**
+     * The repaired sum of all loan requests of the customer, zero if it does not have any.
+     */
+    @Nonnull
+    BigDecimal loanSum;
+}
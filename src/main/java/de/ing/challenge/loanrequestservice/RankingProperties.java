@@ -0,0 +1,29 @@
+package de.ing.challenge.loanrequestservice;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-request-service.ranking")
+@Data
+public class RankingProperties {
+    /**
+     * The number of customers kept in the ranking, which is also the largest supported {@code n}.
+     */
+    private int capacity = 1_000;
+
+    /**
+     * Whether the ranking is reconciled with the store periodically, which picks up loan requests created by other
+     * instances. Every resync aggregates all loan requests, hence it is disabled by default and the ranking is only
+     * built on start-up.
+     */
+    private boolean resyncEnabled = false;
+
+    /**
+     * How often the ranking is reconciled with the store, if {@link #isResyncEnabled() enabled}.
+     */
+    @Nonnull
+    private Duration resyncInterval = Duration.ofMinutes(10);
+}
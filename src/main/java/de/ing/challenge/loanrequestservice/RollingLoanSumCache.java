@@ -0,0 +1,172 @@
+package de.ing.challenge.loanrequestservice;
+
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Keeps the loan sums of the {@link Window}s per customer in memory, so that they are answered in O(buckets).
+ * <p>
+ * Like the {@link LoanSumCache}, the windows of a customer are loaded from the store on first access and updated by
+ * the write path afterwards.
+ */
+@Component
+public class RollingLoanSumCache implements CustomerScopedCache {
+
+    @Getter
+    public enum Window {
+        LAST_24_HOURS("24h", Duration.ofHours(1), 24),
+        LAST_30_DAYS("30d", Duration.ofDays(1), 30);
+
+        /**
+         * How the window is referred to in the API.
+         */
+        @Nonnull
+        private final String name;
+        @Nonnull
+        private final Duration bucketWidth;
+        private final int buckets;
+
+        Window(@Nonnull final String name, @Nonnull final Duration bucketWidth, final int buckets) {
+            this.name = name;
+            this.bucketWidth = bucketWidth;
+            this.buckets = buckets;
+        }
+
+        @Nonnull
+        public static Optional<Window> fromName(@Nonnull final String name) {
+            return Arrays.stream(values()).filter(window -> window.name.equals(name)).findFirst();
+        }
+
+        @Nonnull
+        private Duration getLength() {
+            return bucketWidth.multipliedBy(buckets);
+        }
+
+        @Nonnull
+        public static Duration getLongest() {
+            return Arrays.stream(values()).map(Window::getLength).max(Duration::compareTo).orElseThrow();
+        }
+    }
+
+    @Nonnull
+    private final LoanStore loanStore;
+    @Nonnull
+    private final AdmissionControl admissionControl;
+    @Nonnull
+    @Getter(AccessLevel.PACKAGE) // for testing
+    private final Map<Long, Map<Window, TimeBucketRing>> windowsByCustomer = new ConcurrentHashMap<>();
+
+    public RollingLoanSumCache(@Autowired @Nonnull final LoanStore loanStore,
+                               @Autowired @Nonnull final AdmissionControl admissionControl) {
+        this.loanStore = loanStore;
+        this.admissionControl = admissionControl;
+    }
+
+    /**
+     * @throws AdmissionRejectedException If the windows are not cached and the read bulkhead is at its limit.
+     */
+    @Nonnull
+    public BigDecimal get(final long customerId, @Nonnull final Window window, @Nonnull final Instant now) throws AdmissionRejectedException {
+        Map<Window, TimeBucketRing> windows = windowsByCustomer.get(customerId);
+        if (windows == null) {
+            windows = admissionControl.reads().execute(
+                    () -> windowsByCustomer.computeIfAbsent(customerId, k -> load(customerId, now)));
+        }
+
+        synchronized (windows) {
+            return LoanStatistics.fromCents(windows.get(window).sum(now));
+        }
+    }
+
+    /**
+     * Must only be called by writers that have already been admitted, hence misses are not limited separately.
+     *
+     * @return The addition, which must be {@link #undo(Addition) undone} if the loan request is not committed.
+     */
+    @Nonnull
+    public Addition add(final long customerId, @Nonnull final Instant createdAt, @Nonnull final BigDecimal amount) {
+        final Map<Window, TimeBucketRing> updatedWindows = windowsByCustomer.compute(customerId, (k, v) -> {
+            final Map<Window, TimeBucketRing> windows = v == null ? load(customerId, createdAt) : v;
+            synchronized (windows) {
+                windows.values().forEach(ring -> ring.add(createdAt, LoanStatistics.toCents(amount)));
+            }
+
+            return windows;
+        });
+
+        return new Addition(customerId, createdAt, amount, updatedWindows);
+    }
+
+    /**
+     * Subtracts the amount again. Windows that have been reloaded from the store since do not contain it anyway.
+     */
+    public void undo(@Nonnull final Addition addition) {
+        windowsByCustomer.computeIfPresent(addition.getCustomerId(), (k, windows) -> {
+            if (windows == addition.windows) {
+                synchronized (windows) {
+                    windows.values().forEach(ring -> ring.add(addition.getCreatedAt(), -LoanStatistics.toCents(addition.getAmount())));
+                }
+            }
+
+            return windows;
+        });
+    }
+
+    @Override
+    public void retainOnly(@Nonnull final LongPredicate isRetained) {
+        windowsByCustomer.keySet().removeIf(customerId -> !isRetained.test(customerId));
+    }
+
+    void reset() {
+        windowsByCustomer.clear();
+    }
+
+    @Nonnull
+    private Map<Window, TimeBucketRing> load(final long customerId, @Nonnull final Instant now) {
+        final Map<Window, TimeBucketRing> windows = new EnumMap<>(Window.class);
+        for (final Window window : Window.values()) {
+            windows.put(window, new TimeBucketRing(window.getBucketWidth(), window.getBuckets()));
+        }
+
+        // rings ignore whatever is outside their window, so it is enough to load the longest one
+        for (final LoanRequest loanRequest : loanStore.findLoanRequestsByCustomerIdCreatedAfter(customerId, now.minus(Window.getLongest()))) {
+            final Instant createdAt = loanRequest.getCreatedAt();
+            if (createdAt != null) {
+                windows.values().forEach(ring -> ring.add(createdAt, LoanStatistics.toCents(loanRequest.getAmount())));
+            }
+        }
+
+        return windows;
+    }
+
+    @Value
+    public static class Addition {
+        long customerId;
+        @Nonnull
+        Instant createdAt;
+        @Nonnull
+        BigDecimal amount;
+        @Nonnull
+        @Getter(AccessLevel.NONE)
+        Map<Window, TimeBucketRing> windows;
+    }
+}
@@ -0,0 +1,25 @@
+package de.ing.challenge.loanrequestservice;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-request-service.sequencer")
+@Data
+public class SequencerProperties {
+    /**
+     * The number of locks the customers are spread over. Customers sharing a lock are serialized as well.
+     */
+    private int stripes = 1_024;
+
+    /**
+     * How long a write waits for the previous write of the same customer before it is rejected.
+     */
+    @Nonnull
+    private Duration maxWait = Duration.ofSeconds(5);
+
+    @Nonnull
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
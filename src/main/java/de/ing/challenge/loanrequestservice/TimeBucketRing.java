@@ -0,0 +1,59 @@
+package de.ing.challenge.loanrequestservice;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Sums of cents in fixed-width time buckets covering a rolling window, e.g. 24 buckets of one hour.
+ * <p>
+ * Each slot remembers which bucket it currently holds, so that buckets that fell out of the window are neither
+ * counted nor need to be cleared eagerly: they are simply overwritten once their slot is reused. The window is aligned
+ * to the bucket boundaries, i.e. it covers the current (partial) bucket and the preceding full ones.
+ * <p>
+ * Not thread-safe.
+ */
+class TimeBucketRing {
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final long bucketWidthMillis;
+    private final long[] bucketIndexes;
+    private final long[] cents;
+
+    TimeBucketRing(final Duration bucketWidth, final int buckets) {
+        this.bucketWidthMillis = bucketWidth.toMillis();
+        this.bucketIndexes = new long[buckets];
+        this.cents = new long[buckets];
+        Arrays.fill(bucketIndexes, UNUSED);
+    }
+
+    void add(final Instant timestamp, final long amountInCents) {
+        final long bucketIndex = Math.floorDiv(timestamp.toEpochMilli(), bucketWidthMillis);
+        final int slot = (int) Math.floorMod(bucketIndex, (long) cents.length);
+
+        if (bucketIndexes[slot] == bucketIndex) {
+            cents[slot] += amountInCents;
+        } else if (bucketIndexes[slot] < bucketIndex) {
+            bucketIndexes[slot] = bucketIndex;
+            cents[slot] = amountInCents;
+        }
+        // otherwise the bucket has already been superseded by a newer one and is outside the window anyway
+    }
+
+    /**
+     * O(buckets).
+     */
+    long sum(final Instant now) {
+        final long currentBucketIndex = Math.floorDiv(now.toEpochMilli(), bucketWidthMillis);
+        final long oldestBucketIndex = currentBucketIndex - cents.length + 1;
+
+        long sum = 0;
+        for (int slot = 0; slot < cents.length; slot++) {
+            if (bucketIndexes[slot] >= oldestBucketIndex && bucketIndexes[slot] <= currentBucketIndex) {
+                sum += cents[slot];
+            }
+        }
+
+        return sum;
+    }
+}
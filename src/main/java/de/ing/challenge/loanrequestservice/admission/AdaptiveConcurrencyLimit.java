@@ -0,0 +1,72 @@
+package de.ing.challenge.loanrequestservice.admission;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to the observed latency using additive increase / multiplicative decrease (AIMD).
+ * <p>
+ * Every call that completes within the latency threshold while the limit is actually used grows the limit by
+ * {@code 1 / limit}, i.e. by one per "round" of calls. Every slow or dropped call shrinks the limit by the backoff
+ * ratio. Calls exceeding the current limit are rejected immediately instead of being queued.
+ */
+public class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    @Nonnull
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // guarded by this
+    private double limit;
+
+    public AdaptiveConcurrencyLimit(@Nonnull final AdmissionProperties.Limit properties) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.limit = Math.min(Math.max(properties.getInitialLimit(), minLimit), maxLimit);
+    }
+
+    /**
+     * @return Whether the call may proceed. If so, {@link #release(long, boolean)} must be called once it completed.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param latencyNanos The time the call took.
+     * @param dropped      Whether the call failed because of overload (e.g. a timeout while waiting for a connection).
+     */
+    public void release(final long latencyNanos, final boolean dropped) {
+        final int inFlightBeforeRelease = inFlight.getAndDecrement();
+
+        synchronized (this) {
+            if (dropped || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlightBeforeRelease * 2 >= limit) {
+                // only grow if the limit is actually in use, otherwise it would grow without bounds while idle
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,46 @@
+package de.ing.challenge.loanrequestservice.admission;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provides separate {@link Bulkhead}s for the database-bound reads (cache-miss loads) and writes (loan request
+ * creations), so that excess work is rejected quickly instead of queueing for database connections.
+ */
+@Component
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionControl {
+    @Nonnull
+    private final Bulkhead reads;
+    @Nonnull
+    private final Bulkhead writes;
+
+    public AdmissionControl(@Autowired @Nonnull final AdmissionProperties properties) {
+        this.reads = createBulkhead("reads", properties.isEnabled(), properties.getReads());
+        this.writes = createBulkhead("writes", properties.isEnabled(), properties.getWrites());
+    }
+
+    @Nonnull
+    public static AdmissionControl unlimited() {
+        final AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(false);
+        return new AdmissionControl(properties);
+    }
+
+    @Nonnull
+    public Bulkhead reads() {
+        return reads;
+    }
+
+    @Nonnull
+    public Bulkhead writes() {
+        return writes;
+    }
+
+    @Nonnull
+    private static Bulkhead createBulkhead(@Nonnull final String name, final boolean enabled, @Nonnull final AdmissionProperties.Limit properties) {
+        return new Bulkhead(name, enabled ? new AdaptiveConcurrencyLimit(properties) : null, properties.getRetryAfter());
+    }
+}
@@ -0,0 +1,49 @@
+package de.ing.challenge.loanrequestservice.admission;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-request-service.admission")
+@Data
+public class AdmissionProperties {
+    private boolean enabled = true;
+
+    /**
+     * Limits the concurrency of cache-miss loads.
+     */
+    @Nonnull
+    private Limit reads = new Limit();
+
+    /**
+     * Limits the concurrency of loan request creations.
+     */
+    @Nonnull
+    private Limit writes = new Limit();
+
+    @Data
+    public static class Limit {
+        private int initialLimit = 10;
+        private int minLimit = 1;
+        private int maxLimit = 100;
+
+        /**
+         * Calls taking longer than this are considered a sign of overload and decrease the limit.
+         */
+        @Nonnull
+        private Duration latencyThreshold = Duration.ofMillis(200);
+
+        /**
+         * The factor the limit is multiplied with on overload.
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * The value of the {@code Retry-After} header sent with rejected requests.
+         */
+        @Nonnull
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,20 @@
+package de.ing.challenge.loanrequestservice.admission;
+
+import jakarta.annotation.Nonnull;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown if a call is rejected because its {@link Bulkhead} is at its concurrency limit.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+    @Nonnull
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(@Nonnull final String message, @Nonnull final Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
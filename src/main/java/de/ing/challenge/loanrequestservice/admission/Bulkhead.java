@@ -0,0 +1,66 @@
+package de.ing.challenge.loanrequestservice.admission;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Isolates one kind of database-bound work behind its own {@link AdaptiveConcurrencyLimit}.
+ */
+@Slf4j
+public class Bulkhead {
+    @Nonnull
+    private final String name;
+    @Nullable
+    private final AdaptiveConcurrencyLimit limit;
+    @Nonnull
+    private final Duration retryAfter;
+
+    public Bulkhead(@Nonnull final String name, @Nullable final AdaptiveConcurrencyLimit limit, @Nonnull final Duration retryAfter) {
+        this.name = name;
+        this.limit = limit;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @throws AdmissionRejectedException If the bulkhead is at its concurrency limit.
+     */
+    public <T> T execute(@Nonnull final Supplier<T> call) throws AdmissionRejectedException {
+        if (limit == null) {
+            return call.get();
+        }
+
+        if (!limit.tryAcquire()) {
+            log.debug("Rejecting call, the {} bulkhead is at its limit of {}.", name, limit.getLimit());
+            throw new AdmissionRejectedException("The %s bulkhead is at its limit.".formatted(name), retryAfter);
+        }
+
+        final long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return call.get();
+        } catch (final CannotCreateTransactionException | DataAccessResourceFailureException | TransientDataAccessException e) {
+            // e.g. timeouts while waiting for a connection from the pool
+            dropped = true;
+            throw e;
+        } finally {
+            limit.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    @Nonnull
+    public String getName() {
+        return name;
+    }
+
+    @Nullable
+    AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+}
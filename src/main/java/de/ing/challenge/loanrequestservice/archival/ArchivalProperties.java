@@ -0,0 +1,30 @@
+package de.ing.challenge.loanrequestservice.archival;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-request-service.archival")
+@Data
+public class ArchivalProperties {
+    private boolean enabled = false;
+
+    /**
+     * Loan requests older than this are archived. Must be longer than the longest rolling window.
+     */
+    @Nonnull
+    private Duration retention = Duration.ofDays(365);
+
+    /**
+     * The number of loan requests moved by a single transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * The delay between two batches, which limits the archival to one batch per interval.
+     */
+    @Nonnull
+    private Duration interval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,157 @@
+package de.ing.challenge.loanrequestservice.archival;
+
+import de.ing.challenge.loanrequestservice.RollingLoanSumCache;
+import de.ing.challenge.loanrequestservice.config.CustomerShards;
+import de.ing.challenge.loanrequestservice.dao.ArchivedLoanRequestDao;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanBase;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanBaseDao;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestDao;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves loan requests older than the {@link ArchivalProperties#getRetention() retention} from {@code LOAN_REQUEST} to
+ * {@code ARCHIVED_LOAN_REQUEST} in the background, so that the table (and its indexes) only hold recent loan requests.
+ * <p>
+ * The amounts of the archived loan requests are folded into the {@link CustomerLoanBase} of their customer, which the
+ * loan aggregates add within the same statement. Hence, the loan statistics of a customer (and the loan sum cache) do
+ * not change when its loan requests are archived. Loan request ids are still checked against the archive.
+ * <p>
+ * Each batch is moved by a short transaction that locks only the moved loan requests and the bases of their customers.
+ * At most one batch (per shard, if sharding is enabled) is moved per {@link ArchivalProperties#getInterval() interval}.
+ * Only available with JPA storage.
+ */
+@Component
+@ConditionalOnProperty(prefix = "loan-request-service.storage", name = "type", havingValue = "jpa", matchIfMissing = true)
+@EnableConfigurationProperties(ArchivalProperties.class)
+@Slf4j
+public class LoanRequestArchiver {
+    @Nonnull
+    private final ArchivalProperties properties;
+    @Nonnull
+    private final LoanRequestDao loanRequestDao;
+    @Nonnull
+    private final ArchivedLoanRequestDao archivedLoanRequestDao;
+    @Nonnull
+    private final CustomerLoanBaseDao customerLoanBaseDao;
+    @Nonnull
+    private final TransactionTemplate transactionTemplate;
+    @Nullable
+    private final CustomerShards customerShards;
+
+    public LoanRequestArchiver(@Autowired @Nonnull final ArchivalProperties properties,
+                               @Autowired @Nonnull final LoanRequestDao loanRequestDao,
+                               @Autowired @Nonnull final ArchivedLoanRequestDao archivedLoanRequestDao,
+                               @Autowired @Nonnull final CustomerLoanBaseDao customerLoanBaseDao,
+                               @Autowired @Nonnull final PlatformTransactionManager transactionManager,
+                               @Autowired @Nonnull final Optional<CustomerShards> customerShards) {
+        if (properties.getRetention().compareTo(RollingLoanSumCache.Window.getLongest()) <= 0) {
+            throw new IllegalArgumentException("The archival retention must be longer than %s.".formatted(RollingLoanSumCache.Window.getLongest()));
+        }
+        if (properties.getBatchSize() < 1) {
+            throw new IllegalArgumentException("The archival batch size must be positive.");
+        }
+
+        this.properties = properties;
+        this.loanRequestDao = loanRequestDao;
+        this.archivedLoanRequestDao = archivedLoanRequestDao;
+        this.customerLoanBaseDao = customerLoanBaseDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.customerShards = customerShards.orElse(null);
+    }
+
+    @Scheduled(fixedDelayString = "${loan-request-service.archival.interval:PT1S}")
+    public void tick() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        final Instant cutoff = Instant.now().minus(properties.getRetention());
+        if (customerShards == null) {
+            archiveBatchAndLog(cutoff);
+            return;
+        }
+        for (int shard = 0; shard < customerShards.getCount(); shard++) {
+            customerShards.callOnShard(shard, () -> {
+                archiveBatchAndLog(cutoff);
+                return null;
+            });
+        }
+    }
+
+    private void archiveBatchAndLog(@Nonnull final Instant cutoff) {
+        try {
+            final int archived = archiveBatch(cutoff, properties.getBatchSize());
+            if (archived > 0) {
+                log.debug("Archived {} loan requests.", archived);
+            }
+        } catch (final RuntimeException e) {
+            // e.g. another instance created the base of the same customer concurrently, the batch is retried next time
+            log.warn("Unable to archive loan requests.", e);
+        }
+    }
+
+    /**
+     * Moves up to {@code limit} loan requests created before the cutoff within a single transaction. The newest loan
+     * request of every customer is kept. With sharding, only the {@link CustomerShards selected} shard is archived.
+     *
+     * @return The number of archived loan requests.
+     */
+    public int archiveBatch(@Nonnull final Instant cutoff, final int limit) {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> {
+            final List<LoanRequest> loanRequests = loanRequestDao.findArchivableForUpdate(cutoff, PageRequest.of(0, limit));
+            if (loanRequests.isEmpty()) {
+                return 0;
+            }
+
+            final Map<Long, LoanStatistics> archivedStatistics = new HashMap<>();
+            for (final LoanRequest loanRequest : loanRequests) {
+                archivedStatistics.merge(loanRequest.getCustomer().getId(), LoanStatistics.of(loanRequest.getAmount()), LoanStatistics::plus);
+            }
+            foldIntoBases(archivedStatistics);
+
+            final List<Long> ids = loanRequests.stream().map(LoanRequest::getId).toList();
+            archivedLoanRequestDao.copyFromLoanRequests(ids);
+            loanRequestDao.deleteAllByIdInBatch(ids);
+
+            return loanRequests.size();
+        }));
+    }
+
+    private void foldIntoBases(@Nonnull final Map<Long, LoanStatistics> archivedStatistics) {
+        final Map<Long, CustomerLoanBase> bases = customerLoanBaseDao.findAllByCustomerIdInForUpdate(archivedStatistics.keySet()).stream()
+                .collect(Collectors.toMap(CustomerLoanBase::getCustomerId, Function.identity()));
+
+        archivedStatistics.forEach((customerId, statistics) -> {
+            final CustomerLoanBase base = bases.get(customerId);
+            final LoanStatistics folded = base == null ? statistics : toStatistics(base).plus(statistics);
+            customerLoanBaseDao.save(new CustomerLoanBase(customerId, folded.getCount(), folded.getSum(), folded.getMin(), folded.getMax()));
+        });
+    }
+
+    @Nonnull
+    private static LoanStatistics toStatistics(@Nonnull final CustomerLoanBase base) {
+        return new LoanStatistics(base.getLoanCount(), LoanStatistics.toCents(base.getAmountSum()),
+                LoanStatistics.toCents(base.getMinAmount()), LoanStatistics.toCents(base.getMaxAmount()));
+    }
+}
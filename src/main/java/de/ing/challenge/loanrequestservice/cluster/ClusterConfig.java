@@ -0,0 +1,21 @@
+package de.ing.challenge.loanrequestservice.cluster;
+
+import de.ing.challenge.loanrequestservice.CustomerScopedCache;
+import jakarta.annotation.Nonnull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "loan-request-service.cluster", name = "enabled", havingValue = "true")
+    ClusterMembership clusterMembership(@Nonnull final ClusterProperties properties, @Nonnull final List<CustomerScopedCache> caches) {
+        return new ClusterMembership(properties, caches);
+    }
+}
@@ -0,0 +1,102 @@
+package de.ing.challenge.loanrequestservice.cluster;
+
+import de.ing.challenge.loanrequestservice.CustomerScopedCache;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keeps track of the cluster members and the resulting {@link ConsistentHashRing}.
+ * <p>
+ * Whenever the membership changes, all {@link CustomerScopedCache}s drop the customers whose owner changed, so that
+ * each instance only caches its own shard. This includes customers taken over by this instance, as it might have cached
+ * them while they were owned by another member, without seeing the writes of that member since.
+ */
+@Slf4j
+public class ClusterMembership {
+    @Nonnull
+    private final ClusterProperties properties;
+    @Nonnull
+    private final String self;
+    @Nonnull
+    private final Collection<CustomerScopedCache> caches;
+    @Nonnull
+    private volatile ConsistentHashRing ring;
+
+    public ClusterMembership(@Nonnull final ClusterProperties properties, @Nonnull final Collection<CustomerScopedCache> caches) {
+        this.properties = properties;
+        this.self = Objects.requireNonNull(properties.getSelf(), "loan-request-service.cluster.self must be set.");
+        this.caches = List.copyOf(caches);
+        this.ring = new ConsistentHashRing(loadMembers(), properties.getVirtualNodesPerMember());
+
+        log.info("Joined cluster as {} with members {}.", self, ring.getMembers());
+    }
+
+    @Nonnull
+    public String getSelf() {
+        return self;
+    }
+
+    @Nonnull
+    public String ownerOf(final long customerId) {
+        return ring.ownerOf(customerId);
+    }
+
+    public boolean isOwnedLocally(final long customerId) {
+        return self.equals(ownerOf(customerId));
+    }
+
+    @Scheduled(fixedDelayString = "${loan-request-service.cluster.membership-refresh-interval:PT5S}")
+    public void refresh() {
+        final Set<String> members;
+        try {
+            members = Set.copyOf(loadMembers());
+        } catch (final RuntimeException e) {
+            log.warn("Unable to refresh the cluster membership, keeping the current one.", e);
+            return;
+        }
+
+        if (members.isEmpty() || members.equals(ring.getMembers())) {
+            return;
+        }
+
+        log.info("Cluster membership changed from {} to {}, rebalancing.", ring.getMembers(), members);
+        final ConsistentHashRing previousRing = ring;
+        ring = new ConsistentHashRing(members, properties.getVirtualNodesPerMember());
+        caches.forEach(cache -> cache.retainOnly(customerId -> isOwnedLocally(customerId) && self.equals(previousRing.ownerOf(customerId))));
+    }
+
+    @Nonnull
+    private Collection<String> loadMembers() {
+        if (properties.getMembershipFile() == null) {
+            return withSelf(properties.getPeers());
+        }
+
+        try {
+            return withSelf(Files.readAllLines(properties.getMembershipFile()).stream()
+                    .map(line -> line.replaceFirst("#.*", "").strip())
+                    .filter(line -> !line.isEmpty())
+                    .toList());
+        } catch (final IOException e) {
+            throw new IllegalStateException("Unable to read the cluster membership file %s.".formatted(properties.getMembershipFile()), e);
+        }
+    }
+
+    @Nonnull
+    private Collection<String> withSelf(@Nonnull final List<String> members) {
+        if (members.contains(self)) {
+            return members;
+        }
+
+        log.warn("The cluster membership {} does not contain this instance ({}), adding it.", members, self);
+        return Stream.concat(members.stream(), Stream.of(self)).toList();
+    }
+}
@@ -0,0 +1,63 @@
+package de.ing.challenge.loanrequestservice.cluster;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "loan-request-service.cluster")
+@Data
+public class ClusterProperties {
+    private boolean enabled = false;
+
+    /**
+     * The base URL under which this instance is reachable by its peers, e.g. {@code http://10.0.0.1:8080}.
+     * Must be contained in the membership.
+     */
+    @Nullable
+    private String self;
+
+    /**
+     * Static list of the base URLs of all cluster members (including this instance).
+     * Ignored if a {@link #membershipFile} is configured.
+     */
+    @Nonnull
+    private List<String> peers = new ArrayList<>();
+
+    /**
+     * File containing the base URLs of all cluster members (one per line, {@code #} starts a comment).
+     * The file is re-read periodically, so that the ring rebalances when members join or leave.
+     */
+    @Nullable
+    private Path membershipFile;
+
+    private int virtualNodesPerMember = 128;
+
+    @Nonnull
+    private Mode mode = Mode.FORWARD;
+
+    @Nonnull
+    private Duration forwardTimeout = Duration.ofSeconds(5);
+
+    /**
+     * The value of the {@code Retry-After} header sent with requests that could not be forwarded to their owner.
+     */
+    @Nonnull
+    private Duration forwardRetryAfter = Duration.ofSeconds(1);
+
+    public enum Mode {
+        /**
+         * Requests for customers owned by another member are proxied to that member.
+         */
+        FORWARD,
+        /**
+         * Requests for customers owned by another member are answered with a redirect to that member.
+         */
+        REDIRECT
+    }
+}
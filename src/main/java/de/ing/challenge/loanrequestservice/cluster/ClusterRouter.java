@@ -0,0 +1,147 @@
+package de.ing.challenge.loanrequestservice.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+/**
+ * Decides whether a request for a given customer is handled by this instance or by another cluster member.
+ * <p>
+ * If the cluster mode is disabled, every request is handled locally. A request that cannot be forwarded to the owner of
+ * its customer, or that has already been forwarded to an instance not owning its customer (e.g. while members disagree
+ * about the membership), is answered with {@code 503 Service Unavailable}, as handling it locally would cache a
+ * customer owned by another member.
+ */
+@Component
+@Slf4j
+public class ClusterRouter {
+    static final String FORWARDED_HEADER = "X-Loan-Request-Service-Forwarded-By";
+    static final String OWNER_HEADER = "X-Loan-Request-Service-Owner";
+
+    @Nonnull
+    private final ClusterProperties properties;
+    @Nullable
+    private final ClusterMembership membership;
+    @Nonnull
+    private final ObjectMapper objectMapper;
+    @Nonnull
+    private final HttpClient httpClient;
+
+    public ClusterRouter(@Autowired @Nonnull final ClusterProperties properties,
+                         @Autowired @Nonnull final Optional<ClusterMembership> membership,
+                         @Autowired @Nonnull final ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.membership = membership.orElse(null);
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(properties.getForwardTimeout()).build();
+    }
+
+    /**
+     * @param customerId The customer the current request is about.
+     * @param body       The request body to forward, if any.
+     * @return The response to send back to the caller if the customer is owned by another member, or an empty
+     * {@link Optional} if the request should be handled locally.
+     */
+    @Nonnull
+    public Optional<ResponseEntity<?>> route(@Nullable final Long customerId, @Nullable final Object body) {
+        if (membership == null || customerId == null || membership.isOwnedLocally(customerId)) {
+            return Optional.empty();
+        }
+
+        final Optional<HttpServletRequest> maybeRequest = currentRequest();
+        if (maybeRequest.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final String owner = membership.ownerOf(customerId);
+        final String forwardedBy = maybeRequest.get().getHeader(FORWARDED_HEADER);
+        if (forwardedBy != null) {
+            // never forward a request twice, the members will agree about the membership after their next refresh
+            log.debug("Request for customer {} forwarded by {} is owned by {}, rejecting it.", customerId, forwardedBy, owner);
+            return Optional.of(serviceUnavailable(owner));
+        }
+
+        final URI target = URI.create(owner + pathAndQuery(maybeRequest.get()));
+        if (properties.getMode() == ClusterProperties.Mode.REDIRECT) {
+            return Optional.of(ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                    .location(target)
+                    .header(OWNER_HEADER, owner)
+                    .build());
+        }
+
+        return Optional.of(forward(maybeRequest.get().getMethod(), owner, target, body));
+    }
+
+    @Nonnull
+    private ResponseEntity<?> forward(@Nonnull final String method, @Nonnull final String owner, @Nonnull final URI target, @Nullable final Object body) {
+        try {
+            final HttpRequest.BodyPublisher bodyPublisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+            final HttpRequest request = HttpRequest.newBuilder(target)
+                    .timeout(properties.getForwardTimeout())
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(FORWARDED_HEADER, membership.getSelf())
+                    .method(method, bodyPublisher)
+                    .build();
+
+            final HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+            final ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.statusCode());
+            response.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(contentType -> builder.header(HttpHeaders.CONTENT_TYPE, contentType));
+            response.headers().firstValue(HttpHeaders.RETRY_AFTER).ifPresent(retryAfter -> builder.header(HttpHeaders.RETRY_AFTER, retryAfter));
+            return response.body().length == 0 ? builder.build() : builder.body(response.body());
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize the request body.", e);
+        } catch (final IOException e) {
+            log.warn("Unable to forward request to {}.", target, e);
+            return serviceUnavailable(owner);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while forwarding request to {}.", target);
+            return serviceUnavailable(owner);
+        }
+    }
+
+    @Nonnull
+    private ResponseEntity<?> serviceUnavailable(@Nonnull final String owner) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, properties.getForwardRetryAfter().toSeconds())))
+                .header(OWNER_HEADER, owner)
+                .build();
+    }
+
+    @Nonnull
+    private static Optional<HttpServletRequest> currentRequest() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return Optional.of(attributes.getRequest());
+        }
+
+        return Optional.empty();
+    }
+
+    @Nonnull
+    private static String pathAndQuery(@Nonnull final HttpServletRequest request) {
+        return request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+    }
+}
@@ -0,0 +1,53 @@
+package de.ing.challenge.loanrequestservice.cluster;
+
+import de.ing.challenge.loanrequestservice.Hashing;
+import jakarta.annotation.Nonnull;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring that maps customer ids to cluster members.
+ * <p>
+ * Each member is placed on the ring multiple times (virtual nodes), so that customers are spread evenly and only
+ * about {@code 1 / members} of them move to a different member when the membership changes.
+ */
+public class ConsistentHashRing {
+    @Nonnull
+    private final Set<String> members;
+    @Nonnull
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(@Nonnull final Collection<String> members, final int virtualNodesPerMember) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("A consistent-hash ring needs at least one member.");
+        }
+
+        this.members = Set.copyOf(new TreeSet<>(members));
+        for (final String member : this.members) {
+            for (int i = 0; i < virtualNodesPerMember; i++) {
+                ring.put(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    @Nonnull
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    @Nonnull
+    public String ownerOf(final long customerId) {
+        final Map.Entry<Long, String> entry = ring.ceilingEntry(Hashing.mix(customerId));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static long hash(@Nonnull final String value) {
+        // FNV-1a, which (unlike String#hashCode) spreads similar member names over the whole 64-bit range
+        return Hashing.mix(Hashing.fnv1a(value));
+    }
+}
@@ -0,0 +1,95 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Fails the startup of an application built with Spring AOT (see the {@code fast-startup} Maven profile) if the
+ * properties deciding which configurations are active differ from the ones it was built with. The conditions of these
+ * configurations are evaluated at build time only, hence the application would otherwise silently keep the beans of
+ * the build-time configuration.
+ * <p>
+ * Registered in {@code META-INF/spring/aot.factories} to record the properties at build time, and in
+ * {@code META-INF/spring.factories} to compare them at runtime.
+ */
+public class AotBuildPropertiesCheck implements BeanFactoryInitializationAotProcessor, EnvironmentPostProcessor {
+    static final String RESOURCE = "META-INF/loan-request-service/aot-build.properties";
+    /**
+     * The properties of the {@code @ConditionalOnProperty} configurations, with the values they have when missing.
+     */
+    static final Map<String, String> CONDITION_PROPERTIES = Map.of(
+            "loan-request-service.storage.type", "jpa",
+            "loan-request-service.datasource.read-replicas.enabled", "false",
+            "loan-request-service.datasource.sharding.enabled", "false",
+            "loan-request-service.cluster.enabled", "false");
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(@Nonnull final ConfigurableListableBeanFactory beanFactory) {
+        final Map<String, String> buildProperties = valuesOf(beanFactory.getBean(Environment.class));
+        return (generationContext, beanFactoryInitializationCode) -> generationContext.getGeneratedFiles()
+                .addResourceFile(RESOURCE, buildProperties.entrySet().stream()
+                        .map(property -> property.getKey() + "=" + property.getValue() + "\n")
+                        .collect(Collectors.joining()));
+    }
+
+    @Override
+    public void postProcessEnvironment(@Nonnull final ConfigurableEnvironment environment, @Nonnull final SpringApplication application)
+            throws IllegalStateException {
+        final ClassPathResource resource = new ClassPathResource(RESOURCE, application.getClassLoader());
+        if (!AotDetector.useGeneratedArtifacts() || !resource.exists()) {
+            return;
+        }
+
+        final Properties buildProperties = new Properties();
+        try (final InputStream input = resource.getInputStream()) {
+            buildProperties.load(input);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        check(environment, buildProperties);
+    }
+
+    /**
+     * @throws IllegalStateException If any of the properties has a value other than the one at build time.
+     */
+    static void check(@Nonnull final Environment environment, @Nonnull final Properties buildProperties) throws IllegalStateException {
+        final List<String> differences = new ArrayList<>();
+        valuesOf(environment).forEach((name, value) -> {
+            final String buildValue = buildProperties.getProperty(name, CONDITION_PROPERTIES.get(name));
+            if (!Objects.equals(value, buildValue)) {
+                differences.add("%s is %s, but was %s at build time".formatted(name, value, buildValue));
+            }
+        });
+
+        if (!differences.isEmpty()) {
+            throw new IllegalStateException("The application was built with Spring AOT for other properties, "
+                    + "rebuild it or start it without -Dspring.aot.enabled=true: " + String.join("; ", differences));
+        }
+    }
+
+    @Nonnull
+    private static Map<String, String> valuesOf(@Nonnull final Environment environment) {
+        final Map<String, String> values = new LinkedHashMap<>();
+        CONDITION_PROPERTIES.forEach((name, defaultValue) -> values.put(name, environment.getProperty(name, defaultValue)));
+        return values;
+    }
+}
@@ -0,0 +1,172 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import de.ing.challenge.loanrequestservice.Hashing;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Assigns every customer to one of several databases (shards) by a stable hash of its id, and selects the shard used
+ * by the connections of the current thread.
+ * <p>
+ * A customer and all its loan requests live on the same shard, hence everything about a single customer, including the
+ * transaction creating a loan request, is handled by one shard. Reads across all customers are
+ * {@link #callOnEachShard(IntFunction) fanned out} to all shards in parallel.
+ */
+public class CustomerShards implements AutoCloseable {
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    @Nonnull
+    private final List<DataSource> dataSources;
+    @Nonnull
+    private final ExecutorService fanOutExecutor;
+
+    /**
+     * @param maxFanOutThreads The maximum number of threads running fanned out calls. Calls exceeding it are queued,
+     *                         e.g. the sum of the pool sizes of the shards, as more calls could not get a connection.
+     */
+    public CustomerShards(@Nonnull final List<DataSource> dataSources, final int maxFanOutThreads) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required.");
+        }
+
+        this.dataSources = List.copyOf(dataSources);
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(maxFanOutThreads, maxFanOutThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "shard-fan-out-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        this.fanOutExecutor = executor;
+    }
+
+    @Nonnull
+    List<DataSource> getDataSources() {
+        return dataSources;
+    }
+
+    public int getCount() {
+        return dataSources.size();
+    }
+
+    public int shardOf(final long customerId) {
+        // mixed, so that customer ids sharing a common stride are still spread evenly
+        return (int) Math.floorMod(Hashing.mix(customerId), (long) dataSources.size());
+    }
+
+    /**
+     * @return The shard selected for the current thread, or {@code null} if there is none.
+     */
+    @Nullable
+    static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public boolean isShardSelected() {
+        return CURRENT_SHARD.get() != null;
+    }
+
+    /**
+     * @return The shard selected for the current thread, or {@code null} if there is none.
+     */
+    @Nullable
+    public Integer getSelectedShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Runs the call with the given shard selected. Transactions started by the call use this shard.
+     *
+     * @throws IllegalStateException If another shard is already selected by the current thread.
+     */
+    public <T> T callOnShard(final int shard, @Nonnull final Supplier<T> call) throws IllegalStateException {
+        final Integer previous = CURRENT_SHARD.get();
+        throwIfOtherShardIsSelected(previous, shard);
+
+        CURRENT_SHARD.set(shard);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            }
+        }
+    }
+
+    /**
+     * Selects the shard until the current transaction completes. The connection of a transaction is only fetched by
+     * its first statement, hence this must be called before.
+     *
+     * @throws IllegalStateException If the transaction already uses another shard, i.e. it would span several shards.
+     */
+    public void bindTransaction(final int shard) throws IllegalStateException {
+        final Integer previous = CURRENT_SHARD.get();
+        throwIfOtherShardIsSelected(previous, shard);
+        if (previous != null) {
+            return;
+        }
+
+        CURRENT_SHARD.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(final int status) {
+                CURRENT_SHARD.remove();
+            }
+        });
+    }
+
+    private static void throwIfOtherShardIsSelected(@Nullable final Integer selected, final int shard) throws IllegalStateException {
+        if (selected != null && selected != shard) {
+            throw new IllegalStateException("Shard %d cannot be used while shard %d is selected.".formatted(shard, selected));
+        }
+    }
+
+    /**
+     * Runs the call for every shard in parallel, each with its shard selected.
+     *
+     * @return The results, in the order of the shards.
+     */
+    @Nonnull
+    public <T> List<T> callOnEachShard(@Nonnull final IntFunction<T> call) {
+        final List<CompletableFuture<T>> futures = new ArrayList<>(dataSources.size());
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            final int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> callOnShard(target, () -> call.apply(target)), fanOutExecutor));
+        }
+
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        fanOutExecutor.shutdown();
+        for (final DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class ReplicaPool {
+    @Nonnull
+    private final List<Replica> replicas;
+    @Nonnull
+    private final Duration maxStaleness;
+    @Nonnull
+    private final Duration validationTimeout;
+    @Nonnull
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaPool(@Nonnull final List<Replica> replicas,
+                       @Nonnull final Duration maxStaleness,
+                       @Nonnull final Duration validationTimeout) {
+        this.replicas = List.copyOf(replicas);
+        this.maxStaleness = maxStaleness;
+        this.validationTimeout = validationTimeout;
+    }
+
+    @Nonnull
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Picks the next replica (round-robin) that is reachable and within the staleness bound.
+     */
+    @Nonnull
+    public Optional<Replica> select() {
+        final int size = replicas.size();
+        final int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            final Replica replica = replicas.get((start + i) % size);
+            if (replica.isAvailable()) {
+                return Optional.of(replica);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    public void markUnavailable(@Nonnull final Replica replica) {
+        log.warn("Marking replica {} as unavailable until the next health check.", replica.getName());
+        replica.available = false;
+    }
+
+    @Scheduled(fixedDelayString = "${loan-request-service.datasource.read-replicas.health-check-interval:PT5S}")
+    public void checkHealth() {
+        replicas.forEach(this::checkHealth);
+    }
+
+    private void checkHealth(@Nonnull final Replica replica) {
+        final boolean wasAvailable = replica.available;
+        try (final Connection connection = replica.getDataSource().getConnection()) {
+            if (!connection.isValid((int) Math.max(1, validationTimeout.toSeconds()))) {
+                replica.available = false;
+            } else {
+                final Duration lag = fetchLag(connection, replica.getLagQuery());
+                replica.lag = lag;
+                replica.available = lag.compareTo(maxStaleness) <= 0;
+            }
+        } catch (final SQLException e) {
+            log.debug("Health check of replica {} failed.", replica.getName(), e);
+            replica.available = false;
+        }
+
+        if (wasAvailable != replica.available) {
+            log.info("Replica {} is now {} (lag: {}).",
+                    replica.getName(), replica.available ? "available" : "unavailable", replica.lag);
+        }
+    }
+
+    @Nonnull
+    private static Duration fetchLag(@Nonnull final Connection connection, @Nullable final String lagQuery) throws SQLException {
+        if (lagQuery == null) {
+            return Duration.ZERO;
+        }
+
+        try (final Statement statement = connection.createStatement();
+             final ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return Duration.ZERO;
+            }
+
+            // a NULL lag means that the replica has not replayed anything yet, i.e. it is not usable
+            final double lagInSeconds = resultSet.getDouble(1);
+            if (resultSet.wasNull()) {
+                return Duration.ofSeconds(Long.MAX_VALUE);
+            }
+
+            return Duration.ofMillis((long) (Math.max(lagInSeconds, 0) * 1_000));
+        }
+    }
+
+    @Getter
+    public static class Replica {
+        @Nonnull
+        private final String name;
+        @Nonnull
+        private final DataSource dataSource;
+        @Nullable
+        private final String lagQuery;
+        private volatile boolean available = false;
+        @Nonnull
+        private volatile Duration lag = Duration.ZERO;
+
+        public Replica(@Nonnull final String name, @Nonnull final DataSource dataSource, @Nullable final String lagQuery) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.lagQuery = lagQuery;
+        }
+    }
+}
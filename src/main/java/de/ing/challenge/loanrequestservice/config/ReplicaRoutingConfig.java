@@ -0,0 +1,66 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.Nonnull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions (e.g. the cache-miss loads of the
+ * {@link de.ing.challenge.loanrequestservice.LoanSumCache}) to read replicas, while all writes and reads run
+ * {@link ReplicaRoutingDataSource#onPrimary on the primary} stay on the primary configured via
+ * {@code spring.datasource}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "loan-request-service.datasource.read-replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    HikariDataSource primaryDataSource(@Nonnull final DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    ReplicaPool replicaPool(@Nonnull final ReplicaRoutingProperties properties) {
+        final List<ReplicaPool.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            final ReplicaRoutingProperties.Replica replica = properties.getReplicas().get(i);
+            final HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .driverClassName(replica.getDriverClassName())
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setReadOnly(true);
+            // do not fail the application start-up if a replica is unreachable
+            dataSource.setInitializationFailTimeout(-1);
+
+            replicas.add(new ReplicaPool.Replica("replica-" + i, dataSource, replica.getLagQuery()));
+        }
+
+        final ReplicaPool pool = new ReplicaPool(replicas, properties.getMaxStaleness(), properties.getValidationTimeout());
+        pool.checkHealth();
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Nonnull final HikariDataSource primaryDataSource, @Nonnull final ReplicaPool replicaPool) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaPool));
+    }
+}
@@ -0,0 +1,117 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Routes connections of read-only transactions to one of the available replicas and everything else to the primary.
+ * <p>
+ * The routing decision is based on the transaction state at the time the connection is fetched. Hence, this data
+ * source needs to be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that
+ * the connection is only fetched once the transaction (and its read-only flag) has been set up.
+ * <p>
+ * Reads that must reflect every committed write, e.g. because their results are checked against limits, explicitly
+ * ask for the primary via {@link #onPrimary(Supplier)}, regardless of whether they run in a read-only transaction.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    @Nonnull
+    private final DataSource primary;
+    @Nonnull
+    private final ReplicaPool replicaPool;
+
+    public ReplicaRoutingDataSource(@Nonnull final DataSource primary, @Nonnull final ReplicaPool replicaPool) {
+        this.primary = primary;
+        this.replicaPool = replicaPool;
+
+        final Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaPool.getReplicas().forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs the call with every connection it fetches taken from the primary. Has no effect if read replicas are
+     * disabled.
+     *
+     * @throws IllegalStateException If called within a read-only transaction, which may already hold a connection to a
+     *                               replica.
+     */
+    public static <T> T onPrimary(@Nonnull final Supplier<T> call) throws IllegalStateException {
+        if (Boolean.TRUE.equals(PRIMARY_REQUIRED.get())) {
+            return call.get();
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("Reads from the primary must not join a read-only transaction.");
+        }
+
+        PRIMARY_REQUIRED.set(true);
+        try {
+            return call.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return selectReplica().map(ReplicaPool.Replica::getName).orElse(PRIMARY);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    @Nonnull
+    private Connection getConnection(@Nonnull final ConnectionFactory connectionFactory) throws SQLException {
+        final Optional<ReplicaPool.Replica> maybeReplica = selectReplica();
+        if (maybeReplica.isEmpty()) {
+            return connectionFactory.getConnection(primary);
+        }
+
+        try {
+            return connectionFactory.getConnection(maybeReplica.get().getDataSource());
+        } catch (final SQLException e) {
+            log.warn("Unable to get a connection from replica {}, falling back to the primary.", maybeReplica.get().getName(), e);
+            replicaPool.markUnavailable(maybeReplica.get());
+            return connectionFactory.getConnection(primary);
+        }
+    }
+
+    @Nonnull
+    private Optional<ReplicaPool.Replica> selectReplica() {
+        if (Boolean.TRUE.equals(PRIMARY_REQUIRED.get()) || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Optional.empty();
+        }
+
+        return replicaPool.select();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionFactory {
+        @Nonnull
+        Connection getConnection(@Nonnull final DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,54 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "loan-request-service.datasource.read-replicas")
+@Data
+public class ReplicaRoutingProperties {
+    private boolean enabled = false;
+
+    /**
+     * Replicas lagging behind the primary for longer than this are not used for reads.
+     */
+    @Nonnull
+    private Duration maxStaleness = Duration.ofSeconds(5);
+
+    /**
+     * How often the reachability and lag of the replicas are checked.
+     */
+    @Nonnull
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    @Nonnull
+    private Duration validationTimeout = Duration.ofSeconds(1);
+
+    @Nonnull
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        @Nonnull
+        private String url;
+        @Nullable
+        private String username;
+        @Nullable
+        private String password;
+        @Nullable
+        private String driverClassName;
+
+        /**
+         * Query returning the replication lag of this replica in seconds, e.g.
+         * {@code SELECT EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())} for PostgreSQL.
+         * If absent, the replica is assumed to be up-to-date as long as it is reachable.
+         */
+        @Nullable
+        private String lagQuery;
+    }
+}
@@ -0,0 +1,58 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes connections to the shard {@link CustomerShards selected} by the current thread.
+ * <p>
+ * Only Hibernate fetches connections without a selected shard, while it starts up and shuts down, and those go to the
+ * first shard. Once all beans are created and until the application context closes, fetching a connection without a
+ * selected shard leads to an {@link IllegalStateException}, instead of silently using the first shard.
+ * <p>
+ * Like the {@link ReplicaRoutingDataSource}, this data source needs to be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that the connection of a transaction is
+ * only fetched once its shard has been selected.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource
+        implements SmartInitializingSingleton, ApplicationListener<ContextClosedEvent> {
+    private volatile boolean shardRequired;
+
+    public ShardRoutingDataSource(@Nonnull final CustomerShards customerShards) {
+        final Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < customerShards.getCount(); shard++) {
+            targets.put(shard, customerShards.getDataSources().get(shard));
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(customerShards.getDataSources().get(0));
+        afterPropertiesSet();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        shardRequired = true;
+    }
+
+    @Override
+    public void onApplicationEvent(@Nonnull final ContextClosedEvent event) {
+        // e.g. the schema is dropped by Hibernate once the entity manager factory is closed
+        shardRequired = false;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() throws IllegalStateException {
+        final Integer shard = CustomerShards.currentShard();
+        if (shard == null && shardRequired) {
+            throw new IllegalStateException("A connection was requested without a selected shard.");
+        }
+
+        return shard;
+    }
+}
@@ -0,0 +1,45 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import jakarta.annotation.Nonnull;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import java.util.Map;
+
+/**
+ * Hibernate only manages the schema (see {@code spring.jpa.hibernate.ddl-auto}) of the database it is connected to at
+ * start-up, which is the first shard. This applies the same schema action to all other shards. Schemas created this
+ * way are not dropped on shutdown.
+ */
+class ShardSchemaIntegrator implements Integrator {
+    @Nonnull
+    private final CustomerShards customerShards;
+
+    ShardSchemaIntegrator(@Nonnull final CustomerShards customerShards) {
+        this.customerShards = customerShards;
+    }
+
+    @Override
+    public void integrate(@Nonnull final Metadata metadata,
+                          @Nonnull final BootstrapContext bootstrapContext,
+                          @Nonnull final SessionFactoryImplementor sessionFactory) {
+        final Map<String, Object> settings = bootstrapContext.getServiceRegistry().requireService(ConfigurationService.class).getSettings();
+        for (int shard = 1; shard < customerShards.getCount(); shard++) {
+            customerShards.callOnShard(shard, () -> {
+                SchemaManagementToolCoordinator.process(metadata, bootstrapContext.getServiceRegistry(), settings, action -> {
+                });
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void disintegrate(@Nonnull final SessionFactoryImplementor sessionFactory,
+                             @Nonnull final SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
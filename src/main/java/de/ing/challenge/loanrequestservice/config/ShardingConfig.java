@@ -0,0 +1,77 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.Nonnull;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads the customers (and their loan requests) over several databases, which replace the one configured via
+ * {@code spring.datasource}. See {@link CustomerShards}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "loan-request-service.datasource.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    CustomerShards customerShards(@Nonnull final ShardingProperties properties, @Nonnull final Environment environment) {
+        if (environment.getProperty("loan-request-service.datasource.read-replicas.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("Read replicas cannot be combined with sharding.");
+        }
+        // the entity manager of a web request would otherwise keep the connection of the first shard it used
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("Sharding requires spring.jpa.open-in-view to be disabled.");
+        }
+
+        final List<DataSource> dataSources = new ArrayList<>();
+        int maxFanOutThreads = 0;
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            final ShardingProperties.Shard shard = properties.getShards().get(i);
+            final HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+
+            dataSources.add(dataSource);
+            maxFanOutThreads += shard.getMaximumPoolSize();
+        }
+
+        return new CustomerShards(dataSources, maxFanOutThreads);
+    }
+
+    @Bean
+    ShardRoutingDataSource shardRoutingDataSource(@Nonnull final CustomerShards customerShards) {
+        return new ShardRoutingDataSource(customerShards);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Nonnull final ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer shardSchemaCustomizer(@Nonnull final CustomerShards customerShards) {
+        return hibernateProperties -> hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(new ShardSchemaIntegrator(customerShards)));
+    }
+}
@@ -0,0 +1,42 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "loan-request-service.datasource.sharding")
+@Data
+public class ShardingProperties {
+    private boolean enabled = false;
+
+    /**
+     * Whether loan request ids are also looked up on the other shards when creating a loan request, so that an id
+     * already used for a customer of another shard is rejected. This costs every loan request a query on every shard,
+     * hence by default loan request ids only need to be unique within the shard of their customer.
+     */
+    private boolean checkLoanRequestIdsOnAllShards = false;
+
+    /**
+     * The databases the customers are spread over. Customers are assigned to a shard by its position in this list,
+     * hence shards must neither be removed nor reordered once they contain data.
+     */
+    @Nonnull
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        @Nonnull
+        private String url;
+        @Nullable
+        private String username;
+        @Nullable
+        private String password;
+        @Nullable
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,43 @@
+package de.ing.challenge.loanrequestservice.dao;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A loan request that has been moved out of {@code LOAN_REQUEST} because it is older than the retention window. Its
+ * amount is part of the {@link CustomerLoanBase} of its customer.
+ */
+@Entity(name = "ARCHIVED_LOAN_REQUEST")
+@Table(indexes = {
+        @Index(name = "IDX_ARCHIVED_LOAN_REQUEST_CUSTOMER_ID", columnList = "CUSTOMER_ID, ID")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ArchivedLoanRequest {
+    @Id
+    @Column(name = "ID", nullable = false)
+    private long id;
+
+    @Column(name = "CUSTOMER_ID", nullable = false)
+    private long customerId;
+
+    @Column(name = "AMOUNT", nullable = false)
+    @Nonnull
+    private BigDecimal amount;
+
+    @Column(name = "CREATED_AT")
+    @Nullable
+    private Instant createdAt;
+}
@@ -0,0 +1,31 @@
+package de.ing.challenge.loanrequestservice.dao;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedLoanRequestDao extends JpaRepository<ArchivedLoanRequest, Long> {
+
+    /**
+     * Copies the given loan requests with a single statement. Must be called within the transaction that deletes them.
+     */
+    @Modifying
+    @Query("INSERT INTO ARCHIVED_LOAN_REQUEST (id, customerId, amount, createdAt) " +
+            "SELECT l.id, l.customer.id, l.amount, l.createdAt FROM LOAN_REQUEST l WHERE l.id IN :ids")
+    int copyFromLoanRequests(@Param("ids") @Nonnull final Collection<Long> ids);
+
+    @Nonnull
+    @Transactional(readOnly = true)
+    @Query("SELECT new de.ing.challenge.loanrequestservice.dao.LoanRequestSummary(a.id, a.amount, a.createdAt) " +
+            "FROM ARCHIVED_LOAN_REQUEST a WHERE a.customerId = :customerId AND a.id > :afterId ORDER BY a.id")
+    List<LoanRequestSummary> findSummariesByCustomerIdAfter(@Param("customerId") final long customerId,
+                                                            @Param("afterId") final long afterId,
+                                                            @Nonnull final Pageable pageable);
+}
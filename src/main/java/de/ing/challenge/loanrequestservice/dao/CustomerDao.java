@@ -1,6 +1,22 @@
 package de.ing.challenge.loanrequestservice.dao;
 
+import jakarta.annotation.Nonnull;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 public interface CustomerDao extends JpaRepository<Customer, Long> {
+
+    /**
+     * Seeks to the first customer after the given id in the primary key index. Not read-only, so that it is always
+     * served by the primary and includes every committed customer.
+     */
+    @Nonnull
+    @Transactional
+    @Query("SELECT c FROM CUSTOMER c WHERE c.id > :afterId ORDER BY c.id")
+    List<Customer> findAllByIdAfter(@Param("afterId") final long afterId, @Nonnull final Pageable pageable);
 }
@@ -0,0 +1,21 @@
+package de.ing.challenge.loanrequestservice.dao;
+
+import jakarta.annotation.Nonnull;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * The aggregated amounts of the loan requests of one customer that has at least one.
+ */
+@Value
+public class CustomerLoanAmountAggregate {
+    long customerId;
+    long count;
+    @Nonnull
+    BigDecimal sum;
+    @Nonnull
+    BigDecimal min;
+    @Nonnull
+    BigDecimal max;
+}
@@ -0,0 +1,40 @@
+package de.ing.challenge.loanrequestservice.dao;
+
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * The carried-forward count, sum, minimum and maximum of the archived loan requests of one customer, which the loan
+ * aggregates add to those of the remaining loan requests.
+ */
+@Entity(name = "CUSTOMER_LOAN_BASE")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CustomerLoanBase {
+    @Id
+    @Column(name = "CUSTOMER_ID", nullable = false)
+    private long customerId;
+
+    @Column(name = "LOAN_COUNT", nullable = false)
+    private long loanCount;
+
+    @Column(name = "AMOUNT_SUM", nullable = false)
+    @Nonnull
+    private BigDecimal amountSum;
+
+    @Column(name = "MIN_AMOUNT", nullable = false)
+    @Nonnull
+    private BigDecimal minAmount;
+
+    @Column(name = "MAX_AMOUNT", nullable = false)
+    @Nonnull
+    private BigDecimal maxAmount;
+}
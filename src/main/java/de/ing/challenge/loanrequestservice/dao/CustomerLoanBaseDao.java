@@ -0,0 +1,19 @@
+package de.ing.challenge.loanrequestservice.dao;
+
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CustomerLoanBaseDao extends JpaRepository<CustomerLoanBase, Long> {
+
+    @Nonnull
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM CUSTOMER_LOAN_BASE b WHERE b.customerId IN :customerIds")
+    List<CustomerLoanBase> findAllByCustomerIdInForUpdate(@Param("customerIds") @Nonnull final Collection<Long> customerIds);
+}
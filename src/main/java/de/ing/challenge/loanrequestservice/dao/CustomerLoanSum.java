@@ -0,0 +1,13 @@
+package de.ing.challenge.loanrequestservice.dao;
+
+import jakarta.annotation.Nonnull;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class CustomerLoanSum {
+    long customerId;
+    @Nonnull
+    BigDecimal sum;
+}
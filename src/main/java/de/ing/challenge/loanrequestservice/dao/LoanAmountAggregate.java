@@ -0,0 +1,20 @@
+package de.ing.challenge.loanrequestservice.dao;
+
+import jakarta.annotation.Nullable;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * The aggregated amounts of the loan requests of one customer, all {@code null} if there are none.
+ */
+@Value
+public class LoanAmountAggregate {
+    long count;
+    @Nullable
+    BigDecimal sum;
+    @Nullable
+    BigDecimal min;
+    @Nullable
+    BigDecimal max;
+}
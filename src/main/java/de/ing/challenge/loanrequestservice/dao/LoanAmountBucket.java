@@ -0,0 +1,18 @@
+package de.ing.challenge.loanrequestservice.dao;
+
+import jakarta.annotation.Nonnull;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * The loan requests whose amount rounds down to the same whole number.
+ */
+@Value
+public class LoanAmountBucket {
+    @Nonnull
+    BigDecimal wholeAmount;
+    long count;
+    @Nonnull
+    BigDecimal sum;
+}
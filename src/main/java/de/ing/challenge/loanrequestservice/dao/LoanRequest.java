@@ -1,20 +1,29 @@
 package de.ing.challenge.loanrequestservice.dao;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity(name = "LOAN_REQUEST")
+@Table(indexes = {
+        @Index(name = "IDX_LOAN_REQUEST_CUSTOMER_CREATED_AT", columnList = "CUSTOMER_ID, CREATED_AT"),
+        @Index(name = "IDX_LOAN_REQUEST_CUSTOMER_ID", columnList = "CUSTOMER_ID, ID"),
+        @Index(name = "IDX_LOAN_REQUEST_CREATED_AT", columnList = "CREATED_AT")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -31,4 +40,15 @@ public class LoanRequest {
     @JoinColumn(name = "CUSTOMER_ID")
     @Nonnull
     private Customer customer;
+
+    /**
+     * {@code null} for loan requests created before this column existed.
+     */
+    @Column(name = "CREATED_AT")
+    @Nullable
+    private Instant createdAt;
+
+    public LoanRequest(final long id, @Nonnull final BigDecimal amount, @Nonnull final Customer customer) {
+        this(id, amount, customer, Instant.now());
+    }
 }
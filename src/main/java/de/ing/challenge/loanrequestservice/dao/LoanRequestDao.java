@@ -1,12 +1,114 @@
 package de.ing.challenge.loanrequestservice.dao;
 
 import jakarta.annotation.Nonnull;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface LoanRequestDao extends JpaRepository<LoanRequest, Long> {
+    /**
+     * Adds the {@link CustomerLoanBase} of archived loan requests within the same statement, so that a concurrent
+     * archival is either fully visible or not at all.
+     */
+    String JOIN_LOAN_BASE = "LEFT JOIN CUSTOMER_LOAN_BASE b ON b.customerId = l.customer.id ";
+    String COUNT_SUM_MIN_MAX = "COUNT(l) + COALESCE(MAX(b.loanCount), 0), " +
+            "SUM(l.amount) + COALESCE(MAX(b.amountSum), 0), " +
+            "CASE WHEN MAX(b.minAmount) IS NULL OR MIN(l.amount) < MAX(b.minAmount) THEN MIN(l.amount) ELSE MAX(b.minAmount) END, " +
+            "CASE WHEN MAX(b.maxAmount) IS NULL OR MAX(l.amount) > MAX(b.maxAmount) THEN MAX(l.amount) ELSE MAX(b.maxAmount) END";
 
     @Nonnull
-    Collection<LoanRequest> findAllByCustomerId(final long customerId);
+    @Transactional(readOnly = true)
+    @Query("SELECT new de.ing.challenge.loanrequestservice.dao.LoanAmountAggregate(" + COUNT_SUM_MIN_MAX + ") " +
+            "FROM LOAN_REQUEST l " + JOIN_LOAN_BASE + "WHERE l.customer.id = :customerId")
+    LoanAmountAggregate aggregateAmountsByCustomerId(@Param("customerId") final long customerId);
+
+    @Nonnull
+    @Transactional(readOnly = true)
+    @Query("SELECT new de.ing.challenge.loanrequestservice.dao.CustomerLoanAmountAggregate(l.customer.id, " + COUNT_SUM_MIN_MAX + ") " +
+            "FROM LOAN_REQUEST l " + JOIN_LOAN_BASE + "WHERE l.customer.id IN :customerIds GROUP BY l.customer.id")
+    List<CustomerLoanAmountAggregate> aggregateAmountsByCustomerIdIn(@Param("customerIds") @Nonnull final Collection<Long> customerIds);
+
+    /**
+     * Seeks to the first customer after the given id in the {@code (CUSTOMER_ID, ID)} index and aggregates the loan
+     * requests of the following customers.
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    @Query("SELECT new de.ing.challenge.loanrequestservice.dao.CustomerLoanAmountAggregate(l.customer.id, " + COUNT_SUM_MIN_MAX + ") " +
+            "FROM LOAN_REQUEST l " + JOIN_LOAN_BASE + "WHERE l.customer.id > :afterCustomerId GROUP BY l.customer.id ORDER BY l.customer.id")
+    List<CustomerLoanAmountAggregate> aggregateAmountsByCustomerIdAfter(@Param("afterCustomerId") final long afterCustomerId,
+                                                                        @Nonnull final Pageable pageable);
+
+    /**
+     * Scans all loan requests, hence it must not be used to serve requests.
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    @Query("SELECT new de.ing.challenge.loanrequestservice.dao.CustomerLoanSum(l.customer.id, SUM(l.amount) + COALESCE(MAX(b.amountSum), 0)) " +
+            "FROM LOAN_REQUEST l " + JOIN_LOAN_BASE + "GROUP BY l.customer.id ORDER BY SUM(l.amount) + COALESCE(MAX(b.amountSum), 0) DESC, l.customer.id")
+    List<CustomerLoanSum> findTopCustomersByLoanSum(@Nonnull final Pageable pageable);
+
+    /**
+     * Scans all loan requests including the archived ones, hence it must not be used to serve requests.
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    @Query("SELECT new de.ing.challenge.loanrequestservice.dao.LoanAmountBucket(FLOOR(u.amount), COUNT(*), SUM(u.amount)) FROM (" +
+            "SELECT l.amount AS amount FROM LOAN_REQUEST l " +
+            "UNION ALL " +
+            "SELECT a.amount AS amount FROM ARCHIVED_LOAN_REQUEST a) u " +
+            "GROUP BY FLOOR(u.amount)")
+    List<LoanAmountBucket> countByWholeAmount();
+
+    /**
+     * Seeks to the first loan request after the given id in the {@code (CUSTOMER_ID, ID)} index, so that the cost does
+     * not depend on how many loan requests precede it.
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    @Query("SELECT new de.ing.challenge.loanrequestservice.dao.LoanRequestSummary(l.id, l.amount, l.createdAt) " +
+            "FROM LOAN_REQUEST l WHERE l.customer.id = :customerId AND l.id > :afterId ORDER BY l.id")
+    List<LoanRequestSummary> findSummariesByCustomerIdAfter(@Param("customerId") final long customerId,
+                                                            @Param("afterId") final long afterId,
+                                                            @Nonnull final Pageable pageable);
+
+    @Nonnull
+    @Transactional(readOnly = true)
+    Collection<LoanRequest> findAllByCustomerIdAndCreatedAtAfter(final long customerId, @Nonnull final Instant createdAfter);
+
+    /**
+     * Includes the archived loan requests within the same statement. Loan requests without a creation timestamp predate
+     * it and hence count as created before any given point in time.
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    @Query("SELECT SUM(u.amount) FROM (" +
+            "SELECT l.amount AS amount FROM LOAN_REQUEST l " +
+            "WHERE l.customer.id = :customerId AND (l.createdAt IS NULL OR l.createdAt <= :asOf) " +
+            "UNION ALL " +
+            "SELECT a.amount AS amount FROM ARCHIVED_LOAN_REQUEST a " +
+            "WHERE a.customerId = :customerId AND (a.createdAt IS NULL OR a.createdAt <= :asOf)) u")
+    Optional<BigDecimal> sumAmountByCustomerIdAsOf(@Param("customerId") final long customerId, @Param("asOf") @Nonnull final Instant asOf);
+
+    /**
+     * Locks up to a page of loan requests created before the cutoff (or before creation timestamps existed). The loan
+     * request with the highest id of every customer is never returned, so that every customer with loan requests keeps
+     * at least one row and is still found by the grouped aggregates.
+     */
+    @Nonnull
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM LOAN_REQUEST l WHERE (l.createdAt IS NULL OR l.createdAt < :cutoff) " +
+            "AND EXISTS (SELECT n.id FROM LOAN_REQUEST n WHERE n.customer.id = l.customer.id AND n.id > l.id)")
+    List<LoanRequest> findArchivableForUpdate(@Param("cutoff") @Nonnull final Instant cutoff, @Nonnull final Pageable pageable);
 }
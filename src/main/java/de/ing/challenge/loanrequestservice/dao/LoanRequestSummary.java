@@ -0,0 +1,20 @@
+package de.ing.challenge.loanrequestservice.dao;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A loan request without its customer, read without loading the entity.
+ */
+@Value
+public class LoanRequestSummary {
+    long id;
+    @Nonnull
+    BigDecimal amount;
+    @Nullable
+    Instant createdAt;
+}
@@ -0,0 +1,24 @@
+package de.ing.challenge.loanrequestservice.deduplication;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-request-service.deduplication")
+@Data
+public class DeduplicationProperties {
+    private boolean enabled = true;
+
+    /**
+     * How long accepted loan requests are remembered. Duplicates arriving later are checked against the database.
+     */
+    @Nonnull
+    private Duration ttl = Duration.ofSeconds(10);
+
+    /**
+     * Loan requests arriving while this many are remembered are not deduplicated.
+     */
+    private int maxEntries = 100_000;
+}
@@ -0,0 +1,184 @@
+package de.ing.challenge.loanrequestservice.deduplication;
+
+import de.ing.challenge.loanrequestservice.Hashing;
+import de.ing.challenge.loanrequestservice.dto.LoanRequestDto;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Absorbs retry storms of clients resending the same loan request.
+ * <p>
+ * Loan requests are remembered by id together with a fingerprint of their payload (amount, customer id and name) for
+ * a short time after they have been accepted. Exact duplicates of a remembered loan request are accepted immediately,
+ * and duplicates arriving while the original one is still being processed wait for its outcome rather than racing it
+ * to the database. Loan requests that reuse an id with a different payload take the regular path, so that they are
+ * rejected with the same error as without deduplication.
+ * <p>
+ * Failed loan requests are forgotten immediately, so that retries after a failure are processed again.
+ */
+@Component
+@EnableConfigurationProperties(DeduplicationProperties.class)
+@Slf4j
+public class LoanRequestDeduplicator {
+    @Nonnull
+    private final DeduplicationProperties properties;
+    @Nonnull
+    private final LongSupplier nanoTime;
+    @Nonnull
+    private final Map<Long, Attempt> attempts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LoanRequestDeduplicator(@Nonnull final DeduplicationProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    LoanRequestDeduplicator(@Nonnull final DeduplicationProperties properties, @Nonnull final LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+    }
+
+    @Nonnull
+    public static LoanRequestDeduplicator disabled() {
+        final DeduplicationProperties properties = new DeduplicationProperties();
+        properties.setEnabled(false);
+        return new LoanRequestDeduplicator(properties);
+    }
+
+    /**
+     * Runs the given call to create the loan request, unless it is a duplicate of a recently accepted one.
+     * <p>
+     * Exceptions of the call are rethrown, also to the duplicates that waited for it.
+     */
+    public void execute(@Nonnull final LoanRequestDto dto, @Nonnull final Runnable call) {
+        if (!properties.isEnabled() || !isComplete(dto)) {
+            call.run();
+            return;
+        }
+
+        final long fingerprint = fingerprint(dto);
+        while (true) {
+            if (attempts.size() >= properties.getMaxEntries()) {
+                call.run();
+                return;
+            }
+
+            final Attempt attempt = new Attempt(fingerprint);
+            final Attempt existingAttempt = attempts.putIfAbsent(dto.getId(), attempt);
+            if (existingAttempt == null) {
+                run(dto.getId(), attempt, call);
+                return;
+            }
+
+            if (existingAttempt.isExpired(nanoTime.getAsLong())) {
+                attempts.remove(dto.getId(), existingAttempt);
+                continue;
+            }
+
+            if (existingAttempt.fingerprint != fingerprint) {
+                // let the original one settle, so that the regular path rejects this one against its committed state
+                awaitQuietly(existingAttempt);
+                call.run();
+                return;
+            }
+
+            log.debug("Loan request with id {} is a duplicate, awaiting the outcome of the original one.", dto.getId());
+            await(existingAttempt);
+            return;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${loan-request-service.deduplication.ttl:PT10S}")
+    public void evictExpired() {
+        final long now = nanoTime.getAsLong();
+        attempts.values().removeIf(attempt -> attempt.isExpired(now));
+    }
+
+    /**
+     * Forgets all loan requests, e.g. after they have been deleted from the database.
+     */
+    public void clear() {
+        attempts.clear();
+    }
+
+    int size() {
+        return attempts.size();
+    }
+
+    private void run(final long loanRequestId, @Nonnull final Attempt attempt, @Nonnull final Runnable call) {
+        try {
+            call.run();
+        } catch (final RuntimeException | Error e) {
+            attempts.remove(loanRequestId, attempt);
+            attempt.outcome.completeExceptionally(e);
+            throw e;
+        }
+
+        attempt.expiresAt = nanoTime.getAsLong() + properties.getTtl().toNanos();
+        attempt.outcome.complete(null);
+    }
+
+    private static void await(@Nonnull final Attempt attempt) {
+        try {
+            attempt.outcome.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void awaitQuietly(@Nonnull final Attempt attempt) {
+        try {
+            attempt.outcome.join();
+        } catch (final CompletionException e) {
+            // the outcome of the original loan request does not matter for this one
+        }
+    }
+
+    private static boolean isComplete(@Nonnull final LoanRequestDto dto) {
+        return dto.getId() != null && dto.getAmount() != null && dto.getCustomerId() != null && dto.getCustomerFullName() != null;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the payload. Amounts that only differ in trailing zeros are considered equal.
+     */
+    static long fingerprint(@Nonnull final LoanRequestDto dto) {
+        final String payload = dto.getAmount().stripTrailingZeros().toPlainString()
+                + '\0' + dto.getCustomerId()
+                + '\0' + dto.getCustomerFullName();
+
+        return Hashing.fnv1a(payload);
+    }
+
+    private static class Attempt {
+        private final long fingerprint;
+        @Nonnull
+        private final CompletableFuture<Void> outcome = new CompletableFuture<>();
+        /**
+         * {@link Long#MAX_VALUE} while the loan request is in flight.
+         */
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private Attempt(final long fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean isExpired(final long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
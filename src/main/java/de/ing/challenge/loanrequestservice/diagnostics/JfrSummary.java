@@ -0,0 +1,134 @@
+package de.ing.challenge.loanrequestservice.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes a flight recording into latency histograms per phase of the
+ * {@link de.ing.challenge.loanrequestservice.LoanService} and the hit rate of the loan sum cache.
+ * <p>
+ * Only depends on the JDK, so that it can be run straight from the sources:
+ * {@code java src/main/java/de/ing/challenge/loanrequestservice/diagnostics/JfrSummary.java recording.jfr}
+ */
+public final class JfrSummary {
+    // duplicated from the event classes, which are not available when running from the sources
+    static final String PHASE_EVENT = "de.ing.challenge.loanrequestservice.LoanRequestPhase";
+    static final String CACHE_EVENT = "de.ing.challenge.loanrequestservice.LoanSumCacheAccess";
+    static final String LOAD_EVENT = "de.ing.challenge.loanrequestservice.LoanSumLoad";
+
+    private static final int HISTOGRAM_WIDTH = 40;
+
+    private final Map<String, List<Duration>> durationsByPhase = new TreeMap<>();
+    private final Map<String, long[]> hitsAndMissesByOperation = new TreeMap<>();
+
+    private JfrSummary() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrSummary <recording.jfr>");
+            System.exit(1);
+        }
+
+        summarize(Path.of(args[0]), System.out);
+    }
+
+    public static void summarize(final Path recording, final PrintStream out) throws IOException {
+        final JfrSummary summary = new JfrSummary();
+        try (final RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                summary.add(file.readEvent());
+            }
+        }
+
+        summary.print(out);
+    }
+
+    private void add(final RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case PHASE_EVENT -> {
+                final String outcome = event.getBoolean("succeeded") ? "" : " (failed)";
+                record(event.getString("operation") + " / " + event.getString("phase") + outcome, event.getDuration());
+            }
+            case LOAD_EVENT -> record("LoanSumCache / load", event.getDuration());
+            case CACHE_EVENT -> hitsAndMissesByOperation
+                    .computeIfAbsent(event.getString("operation"), k -> new long[2])[event.getBoolean("hit") ? 0 : 1]++;
+            default -> {
+                // not summarized
+            }
+        }
+    }
+
+    private void record(final String phase, final Duration duration) {
+        durationsByPhase.computeIfAbsent(phase, k -> new ArrayList<>()).add(duration);
+    }
+
+    private void print(final PrintStream out) {
+        if (durationsByPhase.isEmpty() && hitsAndMissesByOperation.isEmpty()) {
+            out.println("The recording does not contain any loan request service events.");
+            return;
+        }
+
+        durationsByPhase.forEach((phase, durations) -> printHistogram(out, phase, durations));
+
+        hitsAndMissesByOperation.forEach((operation, hitsAndMisses) -> {
+            final long total = hitsAndMisses[0] + hitsAndMisses[1];
+            out.printf("LoanSumCache / %s: %d hits, %d misses (hit rate %.1f%%)%n",
+                    operation, hitsAndMisses[0], hitsAndMisses[1], 100.0 * hitsAndMisses[0] / total);
+        });
+    }
+
+    /**
+     * Prints percentiles and a histogram with power-of-two microsecond buckets.
+     */
+    private static void printHistogram(final PrintStream out, final String phase, final List<Duration> durations) {
+        final long[] micros = durations.stream().mapToLong(d -> d.toNanos() / 1_000).sorted().toArray();
+
+        out.printf("%s: count=%d p50=%s p90=%s p99=%s max=%s%n", phase, micros.length,
+                format(percentile(micros, 0.5)), format(percentile(micros, 0.9)),
+                format(percentile(micros, 0.99)), format(micros[micros.length - 1]));
+
+        final long[] buckets = new long[64];
+        for (final long value : micros) {
+            buckets[bucketOf(value)]++;
+        }
+
+        final int first = bucketOf(micros[0]);
+        final int last = bucketOf(micros[micros.length - 1]);
+        final long largest = Arrays.stream(buckets).max().orElse(1);
+        for (int bucket = first; bucket <= last; bucket++) {
+            final int width = (int) Math.ceil((double) HISTOGRAM_WIDTH * buckets[bucket] / largest);
+            out.printf("  < %10s | %-" + HISTOGRAM_WIDTH + "s %d%n", format(1L << bucket), "#".repeat(width), buckets[bucket]);
+        }
+        out.println();
+    }
+
+    private static int bucketOf(final long micros) {
+        return 64 - Long.numberOfLeadingZeros(micros);
+    }
+
+    private static long percentile(final long[] sortedValues, final double percentile) {
+        final int index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, index)];
+    }
+
+    private static String format(final long micros) {
+        if (micros < 1_000) {
+            return micros + "us";
+        }
+        if (micros < 1_000_000) {
+            return "%.1fms".formatted(micros / 1_000.0);
+        }
+        return "%.2fs".formatted(micros / 1_000_000.0);
+    }
+}
@@ -0,0 +1,93 @@
+package de.ing.challenge.loanrequestservice.diagnostics;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+/**
+ * Times one phase of a call to the {@link de.ing.challenge.loanrequestservice.LoanService}.
+ * <p>
+ * As long as the event is not enabled in a running recording, creating, beginning and committing it is effectively
+ * free.
+ */
+@Name(LoanRequestPhaseEvent.NAME)
+@Label("Loan Request Phase")
+@Description("The duration of one phase of creating a loan request or getting a loan sum.")
+@Category({"Loan Request Service", "Phases"})
+@StackTrace(false)
+public class LoanRequestPhaseEvent extends Event {
+    public static final String NAME = "de.ing.challenge.loanrequestservice.LoanRequestPhase";
+
+    public static final String CREATE_LOAN_REQUEST = "createLoanRequest";
+    public static final String GET_LOAN_SUM = "getLoanSumByCustomerId";
+    public static final String GET_LOAN_STATISTICS = "getLoanStatisticsByCustomerId";
+
+    public static final String VALIDATION = "validation";
+    public static final String CUSTOMER_LOOKUP = "customer-lookup";
+    public static final String LOAN_REQUEST_LOOKUP = "loan-request-lookup";
+    public static final String CACHE_UPDATE = "cache-update";
+    public static final String PERSIST = "persist";
+    public static final String COMMIT = "commit";
+    public static final String CACHE_GET = "cache-get";
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Customer Id")
+    private long customerId;
+
+    @Label("Loan Request Id")
+    @Description("-1 for operations without a loan request.")
+    private long loanRequestId;
+
+    @Label("Succeeded")
+    private boolean succeeded;
+
+    @Nonnull
+    public static LoanRequestPhaseEvent begin(@Nonnull final String operation,
+                                              @Nonnull final String phase,
+                                              @Nullable final Long customerId,
+                                              @Nullable final Long loanRequestId) {
+        final LoanRequestPhaseEvent event = new LoanRequestPhaseEvent();
+        event.operation = operation;
+        event.phase = phase;
+        event.customerId = customerId == null ? -1 : customerId;
+        event.loanRequestId = loanRequestId == null ? -1 : loanRequestId;
+        event.begin();
+
+        return event;
+    }
+
+    /**
+     * Runs the given phase and records its duration, also if it fails.
+     */
+    public static <T> T time(@Nonnull final String operation,
+                             @Nonnull final String phase,
+                             @Nullable final Long customerId,
+                             @Nullable final Long loanRequestId,
+                             @Nonnull final Supplier<T> call) {
+        final LoanRequestPhaseEvent event = begin(operation, phase, customerId, loanRequestId);
+        try {
+            final T result = call.get();
+            event.succeeded = true;
+            return result;
+        } finally {
+            event.commit();
+        }
+    }
+
+    public void commit(final boolean succeeded) {
+        this.succeeded = succeeded;
+        commit();
+    }
+}
@@ -0,0 +1,36 @@
+package de.ing.challenge.loanrequestservice.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Records whether an access to the {@link de.ing.challenge.loanrequestservice.LoanSumCache} was served from memory.
+ * Misses are followed by a {@link LoanSumLoadEvent}.
+ */
+@Name(LoanSumCacheEvent.NAME)
+@Label("Loan Sum Cache Access")
+@Category({"Loan Request Service", "Loan Sum Cache"})
+@StackTrace(false)
+public class LoanSumCacheEvent extends Event {
+    public static final String NAME = "de.ing.challenge.loanrequestservice.LoanSumCacheAccess";
+
+    @Label("Operation")
+    @Description("Either get or tryReserve.")
+    private final String operation;
+
+    @Label("Customer Id")
+    private final long customerId;
+
+    @Label("Hit")
+    private final boolean hit;
+
+    public LoanSumCacheEvent(final String operation, final long customerId, final boolean hit) {
+        this.operation = operation;
+        this.customerId = customerId;
+        this.hit = hit;
+    }
+}
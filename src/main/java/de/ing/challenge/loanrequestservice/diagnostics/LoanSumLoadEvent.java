@@ -0,0 +1,49 @@
+package de.ing.challenge.loanrequestservice.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Times loading a loan sum from the {@link de.ing.challenge.loanrequestservice.store.LoanStore} after a cache miss.
+ */
+@Name(LoanSumLoadEvent.NAME)
+@Label("Loan Sum Load")
+@Description("Loading a loan sum from the store after a cache miss.")
+@Category({"Loan Request Service", "Loan Sum Cache"})
+@StackTrace(false)
+public class LoanSumLoadEvent extends Event {
+    public static final String NAME = "de.ing.challenge.loanrequestservice.LoanSumLoad";
+
+    @Label("Customer Id")
+    private final long customerId;
+
+    @Label("Batch Size")
+    @Description("The number of customers loaded by the same query.")
+    private final int batchSize;
+
+    @Label("Found")
+    @Description("Whether the customer has any loan requests.")
+    private boolean found;
+
+    public LoanSumLoadEvent(final long customerId) {
+        this(customerId, 1);
+    }
+
+    public LoanSumLoadEvent(final long customerId, final int batchSize) {
+        this.customerId = customerId;
+        this.batchSize = batchSize;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public void commit(final boolean found) {
+        this.found = found;
+        commit();
+    }
+}
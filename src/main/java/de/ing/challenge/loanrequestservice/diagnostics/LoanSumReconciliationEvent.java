@@ -0,0 +1,48 @@
+package de.ing.challenge.loanrequestservice.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Times reconciling one chunk of customers of the loan sum cache with the
+ * {@link de.ing.challenge.loanrequestservice.store.LoanStore}.
+ */
+@Name(LoanSumReconciliationEvent.NAME)
+@Label("Loan Sum Reconciliation")
+@Description("Comparing one chunk of cached loan sums with the store and repairing the drifted ones.")
+@Category({"Loan Request Service", "Loan Sum Cache"})
+@StackTrace(false)
+public class LoanSumReconciliationEvent extends Event {
+    public static final String NAME = "de.ing.challenge.loanrequestservice.LoanSumReconciliation";
+
+    @Label("After Customer Id")
+    @Description("The chunk starts with the first customer after this id.")
+    private final long afterCustomerId;
+
+    @Label("Rows")
+    @Description("The number of aggregated loan requests.")
+    private long rows;
+
+    @Label("Compared")
+    @Description("The number of customers of the chunk that were cached.")
+    private long compared;
+
+    @Label("Drifted")
+    @Description("The number of cached customers that had drifted and were repaired.")
+    private long drifted;
+
+    public LoanSumReconciliationEvent(final long afterCustomerId) {
+        this.afterCustomerId = afterCustomerId;
+    }
+
+    public void commit(final long rows, final long compared, final long drifted) {
+        this.rows = rows;
+        this.compared = compared;
+        this.drifted = drifted;
+        commit();
+    }
+}
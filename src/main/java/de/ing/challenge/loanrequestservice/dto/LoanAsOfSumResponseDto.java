@@ -0,0 +1,13 @@
+package de.ing.challenge.loanrequestservice.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Value
+public class LoanAsOfSumResponseDto {
+    long customerId;
+    Instant asOf;
+    BigDecimal sum;
+}
@@ -0,0 +1,24 @@
+package de.ing.challenge.loanrequestservice.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Value
+public class LoanRequestPageResponseDto {
+    long customerId;
+    List<LoanRequest> loanRequests;
+    /**
+     * {@code null} on the last page.
+     */
+    String nextCursor;
+
+    @Value
+    public static class LoanRequest {
+        long id;
+        BigDecimal amount;
+        Instant createdAt;
+    }
+}
@@ -0,0 +1,15 @@
+package de.ing.challenge.loanrequestservice.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class LoanStatisticsResponseDto {
+    long customerId;
+    long count;
+    BigDecimal sum;
+    BigDecimal min;
+    BigDecimal max;
+    BigDecimal average;
+}
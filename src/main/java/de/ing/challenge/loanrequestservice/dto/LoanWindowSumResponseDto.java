@@ -0,0 +1,12 @@
+package de.ing.challenge.loanrequestservice.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class LoanWindowSumResponseDto {
+    long customerId;
+    String window;
+    BigDecimal sum;
+}
@@ -0,0 +1,25 @@
+package de.ing.challenge.loanrequestservice.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Value
+public class PortfolioResponseDto {
+    long count;
+    BigDecimal volume;
+    /**
+     * Keyed by {@code p50}, {@code p90}, ...
+     */
+    Map<String, BigDecimal> percentiles;
+    List<Bucket> buckets;
+
+    @Value
+    public static class Bucket {
+        BigDecimal lowerBound;
+        BigDecimal upperBound;
+        long count;
+    }
+}
@@ -0,0 +1,14 @@
+package de.ing.challenge.loanrequestservice.dto;
+
+import lombok.Value;
+
+@Value
+public class ReconcilerStatusResponseDto {
+    boolean enabled;
+    boolean paused;
+    long passes;
+    long rows;
+    long compared;
+    long drifted;
+    double driftRate;
+}
@@ -0,0 +1,55 @@
+package de.ing.challenge.loanrequestservice.portfolio;
+
+import de.ing.challenge.loanrequestservice.dto.PortfolioResponseDto;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping(value = "/api/v1/loan-requests/portfolio", produces = MediaType.APPLICATION_JSON_VALUE)
+@Slf4j
+public class PortfolioController {
+    private static final double[] PERCENTILES = {50, 75, 90, 95, 99, 99.9};
+
+    @Nonnull
+    private final PortfolioDistribution portfolioDistribution;
+
+    public PortfolioController(@Autowired @Nonnull final PortfolioDistribution portfolioDistribution) {
+        this.portfolioDistribution = portfolioDistribution;
+    }
+
+    @GetMapping
+    ResponseEntity<?> getPortfolio() {
+        try {
+            final PortfolioDistribution.Snapshot snapshot = portfolioDistribution.snapshot(PERCENTILES);
+
+            final Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+            snapshot.getPercentiles().forEach(percentile -> percentiles.put(nameOf(percentile.getPercentile()), percentile.getValue()));
+
+            return ResponseEntity.ok().body(new PortfolioResponseDto(snapshot.getCount(), snapshot.getVolume(), percentiles,
+                    snapshot.getBuckets().stream()
+                            .map(bucket -> new PortfolioResponseDto.Bucket(bucket.getLowerBound(), bucket.getUpperBound(), bucket.getCount()))
+                            .toList()));
+        } catch (final Exception e) {
+            log.error("Caught {} while getting the portfolio distribution.", e.getClass(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * E.g. {@code p50} or {@code p99.9}.
+     */
+    @Nonnull
+    private static String nameOf(final double percentile) {
+        return percentile == Math.rint(percentile) ? "p" + (long) percentile : "p" + percentile;
+    }
+}
@@ -0,0 +1,205 @@
+package de.ing.challenge.loanrequestservice.portfolio;
+
+import de.ing.challenge.loanrequestservice.LoanRequestAcceptedEvent;
+import de.ing.challenge.loanrequestservice.dao.LoanAmountBucket;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The count, volume and amount histogram of all loan requests, served without touching the database.
+ * <p>
+ * Every bucket is a {@link LongAdder}, so that concurrent writers do not contend on the same counter. Loan requests are
+ * only counted once their transaction has committed.
+ * <p>
+ * The histogram is rebuilt from a single aggregate query when the application starts, before it accepts requests. In
+ * cluster mode, it only includes the loan requests accepted by this instance since then.
+ */
+@Component
+@EnableConfigurationProperties(PortfolioProperties.class)
+@Slf4j
+public class PortfolioDistribution implements SmartLifecycle {
+    @Nonnull
+    private final LoanStore loanStore;
+    private final long minCents;
+    private final long bucketWidthCents;
+    private final int bucketCount;
+
+    @Nonnull
+    private volatile Histogram histogram;
+    private volatile boolean running;
+
+    public PortfolioDistribution(@Autowired @Nonnull final PortfolioProperties properties,
+                                 @Autowired @Nonnull final LoanStore loanStore) {
+        if (properties.getBucketWidth() < 1 || properties.getMinAmount().stripTrailingZeros().scale() > 0) {
+            throw new IllegalArgumentException("The bucket width and minimum amount of the portfolio histogram must be whole numbers.");
+        }
+
+        this.loanStore = loanStore;
+        this.minCents = LoanStatistics.toCents(properties.getMinAmount());
+        this.bucketWidthCents = properties.getBucketWidth() * 100L;
+        this.bucketCount = (int) ((LoanStatistics.toCents(properties.getMaxAmount()) - minCents) / bucketWidthCents) + 1;
+        this.histogram = new Histogram(bucketCount);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoanRequestAccepted(@Nonnull final LoanRequestAcceptedEvent event) {
+        histogram.add(bucketOf(LoanStatistics.toCents(event.getAmount())), 1, LoanStatistics.toCents(event.getAmount()));
+    }
+
+    /**
+     * Rebuilds the histogram from the store. Loan requests committed concurrently may be lost, hence this must only be
+     * called while no loan requests are accepted.
+     */
+    @Override
+    public void start() {
+        final Histogram rebuilt = new Histogram(bucketCount);
+        long count = 0;
+        for (final LoanAmountBucket bucket : loanStore.findLoanAmountHistogram()) {
+            final long wholeAmountCents = LoanStatistics.toCents(bucket.getWholeAmount());
+            rebuilt.add(bucketOf(wholeAmountCents), bucket.getCount(), LoanStatistics.toCents(bucket.getSum()));
+            count += bucket.getCount();
+        }
+
+        histogram = rebuilt;
+        running = true;
+        log.info("Rebuilt the portfolio histogram of {} loan requests.", count);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before the web server, so that no loan requests are accepted while the histogram is rebuilt.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * @param percentiles Between 0 (exclusive) and 100 (inclusive).
+     */
+    @Nonnull
+    public Snapshot snapshot(@Nonnull final double... percentiles) {
+        final Histogram current = histogram;
+        final long[] counts = new long[bucketCount];
+        long count = 0;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            counts[bucket] = current.buckets[bucket].sum();
+            count += counts[bucket];
+        }
+
+        final List<Percentile> percentileValues = new ArrayList<>(percentiles.length);
+        for (final double percentile : percentiles) {
+            if (count > 0) {
+                percentileValues.add(new Percentile(percentile, lowerBoundOf(bucketOfRank(counts, (long) Math.ceil(percentile / 100 * count)))));
+            }
+        }
+
+        final List<Bucket> nonEmptyBuckets = new ArrayList<>();
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            if (counts[bucket] > 0) {
+                nonEmptyBuckets.add(new Bucket(lowerBoundOf(bucket), lowerBoundOf(bucket + 1), counts[bucket]));
+            }
+        }
+
+        // the buckets are read one by one, hence the count is derived from them rather than read separately
+        return new Snapshot(count, LoanStatistics.fromCents(current.volumeCents.sum()), percentileValues, nonEmptyBuckets);
+    }
+
+    private int bucketOf(final long cents) {
+        return (int) Math.max(0, Math.min(bucketCount - 1, (cents - minCents) / bucketWidthCents));
+    }
+
+    @Nonnull
+    private BigDecimal lowerBoundOf(final int bucket) {
+        return LoanStatistics.fromCents(minCents + bucket * bucketWidthCents);
+    }
+
+    private static int bucketOfRank(@Nonnull final long[] counts, final long rank) {
+        long cumulativeCount = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            cumulativeCount += counts[bucket];
+            if (cumulativeCount >= Math.max(1, rank)) {
+                return bucket;
+            }
+        }
+
+        return counts.length - 1;
+    }
+
+    private static class Histogram {
+        @Nonnull
+        private final LongAdder[] buckets;
+        @Nonnull
+        private final LongAdder volumeCents = new LongAdder();
+
+        private Histogram(final int bucketCount) {
+            buckets = new LongAdder[bucketCount];
+            for (int bucket = 0; bucket < bucketCount; bucket++) {
+                buckets[bucket] = new LongAdder();
+            }
+        }
+
+        private void add(final int bucket, final long count, final long volumeCents) {
+            buckets[bucket].add(count);
+            this.volumeCents.add(volumeCents);
+        }
+    }
+
+    @Value
+    public static class Snapshot {
+        long count;
+        @Nonnull
+        BigDecimal volume;
+        @Nonnull
+        List<Percentile> percentiles;
+        /**
+         * Only the non-empty ones.
+         */
+        @Nonnull
+        List<Bucket> buckets;
+    }
+
+    /**
+     * The lower bound of the bucket containing the percentile.
+     */
+    @Value
+    public static class Percentile {
+        double percentile;
+        @Nonnull
+        BigDecimal value;
+    }
+
+    @Value
+    public static class Bucket {
+        @Nonnull
+        BigDecimal lowerBound;
+        /**
+         * Exclusive.
+         */
+        @Nonnull
+        BigDecimal upperBound;
+        long count;
+    }
+}
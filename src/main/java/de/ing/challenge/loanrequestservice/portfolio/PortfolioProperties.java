@@ -0,0 +1,28 @@
+package de.ing.challenge.loanrequestservice.portfolio;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+
+@ConfigurationProperties(prefix = "loan-request-service.portfolio")
+@Data
+public class PortfolioProperties {
+    /**
+     * The lower bound of the first bucket, a whole number. Smaller amounts are counted in the first bucket.
+     */
+    @Nonnull
+    private BigDecimal minAmount = new BigDecimal("500");
+
+    /**
+     * Larger amounts are counted in the last bucket.
+     */
+    @Nonnull
+    private BigDecimal maxAmount = new BigDecimal("12000.50");
+
+    /**
+     * The width of every bucket in whole units, which is also the resolution of the percentiles.
+     */
+    private int bucketWidth = 1;
+}
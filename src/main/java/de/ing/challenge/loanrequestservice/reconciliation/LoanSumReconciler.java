@@ -0,0 +1,232 @@
+package de.ing.challenge.loanrequestservice.reconciliation;
+
+import de.ing.challenge.loanrequestservice.CustomerWriteSequencer;
+import de.ing.challenge.loanrequestservice.LoanSumCache;
+import de.ing.challenge.loanrequestservice.LoanSumRepairedEvent;
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import de.ing.challenge.loanrequestservice.config.ReplicaRoutingDataSource;
+import de.ing.challenge.loanrequestservice.diagnostics.LoanSumReconciliationEvent;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares the {@link LoanSumCache} with the {@link LoanStore} in the background and repairs the cached statistics that
+ * drifted, e.g. because the transaction of a loan request was rolled back after the cache had been updated.
+ * <p>
+ * Each pass walks all customers in ascending order of their id, with one grouped query per chunk of customers. Only
+ * customers that are cached are compared. Since the cache is updated before the transaction of a loan request commits,
+ * mismatches are confirmed against the store while the writes of the customer are sequenced, so that loan requests in
+ * flight are never mistaken for drift. Every repair is published as {@link LoanSumRepairedEvent}.
+ * <p>
+ * The scan is throttled to {@link ReconcilerProperties#getRowsPerSecond() rows per second}: every chunk is paid for with
+ * the number of loan requests it aggregated, and no further chunk is scanned until the budget has recovered. Customers
+ * cached without any stored loan request are not visited.
+ */
+@Component
+@EnableConfigurationProperties(ReconcilerProperties.class)
+@Slf4j
+public class LoanSumReconciler {
+    @Nonnull
+    private final ReconcilerProperties properties;
+    @Nonnull
+    private final LoanStore loanStore;
+    @Nonnull
+    private final LoanSumCache loanSumCache;
+    @Nonnull
+    private final CustomerWriteSequencer customerWriteSequencer;
+    @Nonnull
+    private final ApplicationEventPublisher eventPublisher;
+    @Nonnull
+    private final LongSupplier nanoTime;
+
+    private volatile boolean paused;
+
+    // only accessed by the scheduler, the current pass continues after this customer id (if any)
+    private boolean passInProgress;
+    private long afterCustomerId;
+    private long passStartedNanos;
+    private long passCompared;
+    private long passDrifted;
+    private long lastTickNanos;
+    private double budget;
+
+    @Nonnull
+    private final AtomicLong passes = new AtomicLong();
+    @Nonnull
+    private final AtomicLong rows = new AtomicLong();
+    @Nonnull
+    private final AtomicLong compared = new AtomicLong();
+    @Nonnull
+    private final AtomicLong drifted = new AtomicLong();
+
+    @Autowired
+    public LoanSumReconciler(@Autowired @Nonnull final ReconcilerProperties properties,
+                             @Autowired @Nonnull final LoanStore loanStore,
+                             @Autowired @Nonnull final LoanSumCache loanSumCache,
+                             @Autowired @Nonnull final CustomerWriteSequencer customerWriteSequencer,
+                             @Autowired @Nonnull final ApplicationEventPublisher eventPublisher) {
+        this(properties, loanStore, loanSumCache, customerWriteSequencer, eventPublisher, System::nanoTime);
+    }
+
+    LoanSumReconciler(@Nonnull final ReconcilerProperties properties,
+                      @Nonnull final LoanStore loanStore,
+                      @Nonnull final LoanSumCache loanSumCache,
+                      @Nonnull final CustomerWriteSequencer customerWriteSequencer,
+                      @Nonnull final ApplicationEventPublisher eventPublisher,
+                      @Nonnull final LongSupplier nanoTime) {
+        this.properties = properties;
+        this.loanStore = loanStore;
+        this.loanSumCache = loanSumCache;
+        this.customerWriteSequencer = customerWriteSequencer;
+        this.eventPublisher = eventPublisher;
+        this.nanoTime = nanoTime;
+        this.lastTickNanos = nanoTime.getAsLong();
+        // the first pass starts after one pass interval, when the cache has been populated
+        this.passStartedNanos = lastTickNanos;
+    }
+
+    public void pause() {
+        paused = true;
+        log.info("Paused the loan sum reconciliation.");
+    }
+
+    public void resume() {
+        paused = false;
+        log.info("Resumed the loan sum reconciliation.");
+    }
+
+    @Nonnull
+    public Status getStatus() {
+        final long comparedCustomers = compared.get();
+        final long driftedCustomers = drifted.get();
+        return new Status(properties.isEnabled(), paused, passes.get(), rows.get(), comparedCustomers, driftedCustomers,
+                comparedCustomers == 0 ? 0 : (double) driftedCustomers / comparedCustomers);
+    }
+
+    /**
+     * Scans the next chunk of customers, if the rate limit permits.
+     */
+    @Scheduled(fixedDelayString = "${loan-request-service.reconciler.interval:PT1S}")
+    public synchronized void tick() {
+        final long now = nanoTime.getAsLong();
+        budget = Math.min(budget + (now - lastTickNanos) * (properties.getRowsPerSecond() / 1e9), properties.getRowsPerSecond());
+        lastTickNanos = now;
+
+        if (!properties.isEnabled() || paused || budget < 0) {
+            return;
+        }
+
+        if (!passInProgress) {
+            if (now - passStartedNanos < properties.getPassInterval().toNanos()) {
+                return;
+            }
+
+            passInProgress = true;
+            afterCustomerId = -1;
+            passStartedNanos = now;
+            passCompared = 0;
+            passDrifted = 0;
+        }
+
+        try {
+            reconcileChunk();
+        } catch (final RuntimeException e) {
+            log.warn("Unable to reconcile the loan sums of the customers after {}.", afterCustomerId, e);
+        }
+    }
+
+    private void reconcileChunk() {
+        final LoanSumReconciliationEvent event = new LoanSumReconciliationEvent(afterCustomerId);
+        event.begin();
+
+        final NavigableMap<Long, LoanStatistics> storedStatistics = loanStore.findLoanStatisticsByCustomerIdAfter(afterCustomerId,
+                properties.getChunkSize());
+        long chunkRows = 0;
+        long chunkCompared = 0;
+        long chunkDrifted = 0;
+        for (final Map.Entry<Long, LoanStatistics> entry : storedStatistics.entrySet()) {
+            chunkRows += entry.getValue().getCount();
+
+            final Optional<LoanStatistics> cachedStatistics = loanSumCache.getCachedStatistics(entry.getKey());
+            if (cachedStatistics.isEmpty()) {
+                continue;
+            }
+
+            chunkCompared++;
+            if (!cachedStatistics.get().equals(entry.getValue()) && repair(entry.getKey())) {
+                chunkDrifted++;
+            }
+        }
+        event.commit(chunkRows, chunkCompared, chunkDrifted);
+
+        budget -= chunkRows;
+        rows.addAndGet(chunkRows);
+        compared.addAndGet(chunkCompared);
+        drifted.addAndGet(chunkDrifted);
+        passCompared += chunkCompared;
+        passDrifted += chunkDrifted;
+
+        if (storedStatistics.size() < properties.getChunkSize()) {
+            passInProgress = false;
+            passes.incrementAndGet();
+            log.info("Reconciled the loan sums of {} cached customers, {} of them had drifted.", passCompared, passDrifted);
+        } else {
+            afterCustomerId = storedStatistics.lastKey();
+        }
+    }
+
+    /**
+     * @return Whether the customer had drifted.
+     */
+    private boolean repair(final long customerId) {
+        try {
+            return customerWriteSequencer.execute(customerId, () -> repairSequenced(customerId));
+        } catch (final AdmissionRejectedException e) {
+            // checked again in the next pass
+            log.debug("Skipped reconciling the loan sum of customer {}, since its writes are congested.", customerId);
+            return false;
+        }
+    }
+
+    private boolean repairSequenced(final long customerId) {
+        // the drift is confirmed against the primary, a replica might not have caught up with the cache yet
+        final LoanStatistics storedStatistics = ReplicaRoutingDataSource.onPrimary(
+                () -> loanStore.findLoanStatisticsByCustomerId(customerId)).orElse(null);
+        if (!loanSumCache.repair(customerId, storedStatistics)) {
+            return false;
+        }
+
+        // published while the writes of the customer are still sequenced, so that it cannot overtake a newer loan sum
+        eventPublisher.publishEvent(new LoanSumRepairedEvent(customerId, storedStatistics == null ? BigDecimal.ZERO : storedStatistics.getSum()));
+        return true;
+    }
+
+    @Value
+    public static class Status {
+        boolean enabled;
+        boolean paused;
+        long passes;
+        long rows;
+        long compared;
+        long drifted;
+        /**
+         * The share of compared customers that had drifted.
+         */
+        double driftRate;
+    }
+}
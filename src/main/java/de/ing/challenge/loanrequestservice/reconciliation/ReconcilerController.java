@@ -0,0 +1,48 @@
+package de.ing.challenge.loanrequestservice.reconciliation;
+
+import de.ing.challenge.loanrequestservice.dto.ReconcilerStatusResponseDto;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controls the {@link LoanSumReconciler} of this instance, hence requests are not routed in cluster mode.
+ */
+@RestController
+@RequestMapping(value = "/api/v1/reconciler", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReconcilerController {
+    @Nonnull
+    private final LoanSumReconciler loanSumReconciler;
+
+    public ReconcilerController(@Autowired @Nonnull final LoanSumReconciler loanSumReconciler) {
+        this.loanSumReconciler = loanSumReconciler;
+    }
+
+    @GetMapping
+    ResponseEntity<ReconcilerStatusResponseDto> getStatus() {
+        return ResponseEntity.ok().body(toDto(loanSumReconciler.getStatus()));
+    }
+
+    @PostMapping("/pause")
+    ResponseEntity<ReconcilerStatusResponseDto> pause() {
+        loanSumReconciler.pause();
+        return getStatus();
+    }
+
+    @PostMapping("/resume")
+    ResponseEntity<ReconcilerStatusResponseDto> resume() {
+        loanSumReconciler.resume();
+        return getStatus();
+    }
+
+    @Nonnull
+    private static ReconcilerStatusResponseDto toDto(@Nonnull final LoanSumReconciler.Status status) {
+        return new ReconcilerStatusResponseDto(status.isEnabled(), status.isPaused(), status.getPasses(), status.getRows(),
+                status.getCompared(), status.getDrifted(), status.getDriftRate());
+    }
+}
@@ -0,0 +1,35 @@
+package de.ing.challenge.loanrequestservice.reconciliation;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-request-service.reconciler")
+@Data
+public class ReconcilerProperties {
+    private boolean enabled = true;
+
+    /**
+     * How often the next chunk is scanned, as long as the rate limit permits.
+     */
+    @Nonnull
+    private Duration interval = Duration.ofSeconds(1);
+
+    /**
+     * The number of customers aggregated by a single query.
+     */
+    private int chunkSize = 1_000;
+
+    /**
+     * The number of loan requests the scan may aggregate per second on average.
+     */
+    private int rowsPerSecond = 10_000;
+
+    /**
+     * The minimum time between the starts of two passes over all customers.
+     */
+    @Nonnull
+    private Duration passInterval = Duration.ofMinutes(10);
+}
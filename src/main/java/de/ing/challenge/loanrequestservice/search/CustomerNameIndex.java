@@ -0,0 +1,295 @@
+package de.ing.challenge.loanrequestservice.search;
+
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.regex.Pattern;
+
+/**
+ * Finds customers by any part of their full name without scanning all of them.
+ * <p>
+ * Every customer is assigned a dense document number in the order it is added. For every trigram of the normalized
+ * names, the document numbers containing it are kept in ascending order as variable-length encoded deltas, which takes
+ * about one byte per entry for common trigrams. A query walks the posting lists of all its trigrams in lockstep,
+ * starting with the shortest one, and confirms the remaining candidates against their names.
+ * <p>
+ * The index is rebuilt from the store when the application starts, before it accepts requests, and customers are added
+ * once their creation has committed. In cluster mode, it only includes the customers created by this instance since
+ * then.
+ */
+@Component
+@Slf4j
+public class CustomerNameIndex implements SmartLifecycle {
+    public static final int MIN_QUERY_LENGTH = 3;
+    private static final int REBUILD_CHUNK_SIZE = 10_000;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Nonnull
+    private final LoanStore loanStore;
+    @Nonnull
+    private final StampedLock lock = new StampedLock();
+
+    // guarded by lock
+    @Nonnull
+    private Index index = new Index();
+    private volatile boolean running;
+
+    public CustomerNameIndex(@Autowired @Nonnull final LoanStore loanStore) {
+        this.loanStore = loanStore;
+    }
+
+    /**
+     * Must only be called with committed customers, and only once per customer.
+     */
+    public void add(final long customerId, @Nonnull final String fullName) {
+        final long stamp = lock.writeLock();
+        try {
+            index.add(customerId, normalize(fullName));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return The ids of up to {@code limit} customers whose full name contains the query, ignoring case and repeated
+     * whitespace, in the order they were added to the index.
+     * @throws IllegalArgumentException If the query is shorter than {@value #MIN_QUERY_LENGTH} characters.
+     */
+    @Nonnull
+    public List<Long> search(@Nonnull final String query, final int limit) throws IllegalArgumentException {
+        final String normalizedQuery = normalize(query);
+        if (normalizedQuery.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must contain at least %d characters.".formatted(MIN_QUERY_LENGTH));
+        }
+
+        final long stamp = lock.readLock();
+        try {
+            return index.search(normalizedQuery, limit);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the store. Customers committed concurrently may be lost, hence this must only be called
+     * while no loan requests are accepted.
+     */
+    @Override
+    public void start() {
+        final Index rebuilt = new Index();
+        long afterCustomerId = -1;
+        List<Customer> chunk;
+        do {
+            chunk = loanStore.findCustomersByIdAfter(afterCustomerId, REBUILD_CHUNK_SIZE);
+            for (final Customer customer : chunk) {
+                rebuilt.add(customer.getId(), normalize(customer.getFullName()));
+                afterCustomerId = customer.getId();
+            }
+        } while (chunk.size() == REBUILD_CHUNK_SIZE);
+
+        final long stamp = lock.writeLock();
+        try {
+            index = rebuilt;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        running = true;
+        log.info("Rebuilt the customer name index of {} customers with {} trigrams.", rebuilt.size, rebuilt.postingLists.size());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before the web server, so that no customers are created while the index is rebuilt.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    public void clear() {
+        final long stamp = lock.writeLock();
+        try {
+            index = new Index();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Nonnull
+    static String normalize(@Nonnull final String fullName) {
+        return WHITESPACE.matcher(fullName.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return The distinct trigrams of the normalized name, each packed into a long.
+     */
+    @Nonnull
+    static Set<Long> trigramsOf(@Nonnull final String normalizedName) {
+        final Set<Long> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= normalizedName.length(); i++) {
+            trigrams.add((long) normalizedName.charAt(i) << 32 | (long) normalizedName.charAt(i + 1) << 16 | normalizedName.charAt(i + 2));
+        }
+
+        return trigrams;
+    }
+
+    private static class Index {
+        @Nonnull
+        private final Map<Long, PostingList> postingLists = new HashMap<>();
+        @Nonnull
+        private long[] customerIds = new long[1_024];
+        @Nonnull
+        private String[] names = new String[1_024];
+        private int size;
+
+        private void add(final long customerId, @Nonnull final String normalizedName) {
+            if (size == customerIds.length) {
+                customerIds = Arrays.copyOf(customerIds, size * 2);
+                names = Arrays.copyOf(names, size * 2);
+            }
+
+            final int document = size++;
+            customerIds[document] = customerId;
+            names[document] = normalizedName;
+            for (final long trigram : trigramsOf(normalizedName)) {
+                postingLists.computeIfAbsent(trigram, k -> new PostingList()).add(document);
+            }
+        }
+
+        @Nonnull
+        private List<Long> search(@Nonnull final String normalizedQuery, final int limit) {
+            final List<PostingList> queryPostingLists = new ArrayList<>();
+            for (final long trigram : trigramsOf(normalizedQuery)) {
+                final PostingList postingList = postingLists.get(trigram);
+                if (postingList == null) {
+                    return List.of();
+                }
+                queryPostingLists.add(postingList);
+            }
+            queryPostingLists.sort(Comparator.comparingInt(postingList -> postingList.count));
+
+            final PostingList.Cursor[] cursors = queryPostingLists.stream().map(PostingList::cursor).toArray(PostingList.Cursor[]::new);
+            final List<Long> matches = new ArrayList<>(Math.min(limit, queryPostingLists.get(0).count));
+            candidates:
+            for (int document = cursors[0].next(); document != PostingList.END && matches.size() < limit; document = cursors[0].next()) {
+                for (int i = 1; i < cursors.length; i++) {
+                    final int other = cursors[i].advanceTo(document);
+                    if (other == PostingList.END) {
+                        break candidates;
+                    }
+                    if (other != document) {
+                        continue candidates;
+                    }
+                }
+
+                // the trigrams may occur in a different order or far apart
+                if (names[document].contains(normalizedQuery)) {
+                    matches.add(customerIds[document]);
+                }
+            }
+
+            return matches;
+        }
+    }
+
+    /**
+     * Ascending document numbers, each encoded as the delta to its predecessor in 7 bit groups, least significant
+     * first, with the high bit set on all but the last group.
+     */
+    private static class PostingList {
+        private static final int END = -1;
+
+        @Nonnull
+        private byte[] bytes = new byte[4];
+        private int length;
+        private int count;
+        private int lastDocument = -1;
+
+        /**
+         * Documents must be added in ascending order.
+         */
+        private void add(final int document) {
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+            }
+
+            int delta = document - lastDocument;
+            while (delta >= 0x80) {
+                bytes[length++] = (byte) (delta | 0x80);
+                delta >>>= 7;
+            }
+            bytes[length++] = (byte) delta;
+
+            lastDocument = document;
+            count++;
+        }
+
+        @Nonnull
+        private Cursor cursor() {
+            return new Cursor();
+        }
+
+        private class Cursor {
+            private int position;
+            private int document = -1;
+
+            /**
+             * @return The next document, or {@link #END} if there is none.
+             */
+            private int next() {
+                if (position == length) {
+                    return END;
+                }
+
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+
+                document += delta;
+                return document;
+            }
+
+            /**
+             * @return The first document at or after the target, or {@link #END} if there is none.
+             */
+            private int advanceTo(final int target) {
+                while (document < target) {
+                    if (next() == END) {
+                        return END;
+                    }
+                }
+
+                return document;
+            }
+        }
+    }
+}
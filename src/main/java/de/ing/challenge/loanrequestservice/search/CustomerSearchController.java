@@ -0,0 +1,104 @@
+package de.ing.challenge.loanrequestservice.search;
+
+import de.ing.challenge.loanrequestservice.LoanSumCache;
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import de.ing.challenge.loanrequestservice.dto.BadRequestResponseDto;
+import de.ing.challenge.loanrequestservice.dto.LoanSumResponseDto;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Not routed in cluster mode, every instance answers from its own {@link CustomerNameIndex}. The sums of the hits are
+ * taken from the {@link LoanSumCache} if cached, and loaded with a single query otherwise, without filling the cache:
+ * the hits may be owned by other instances, whose writes would never reach a copy cached here.
+ */
+@RestController
+@RequestMapping(value = "/api/v1/customers", produces = MediaType.APPLICATION_JSON_VALUE)
+@Slf4j
+public class CustomerSearchController {
+    private static final int MAX_LIMIT = 100;
+
+    @Nonnull
+    private final CustomerNameIndex customerNameIndex;
+    @Nonnull
+    private final LoanSumCache loanSumCache;
+    @Nonnull
+    private final LoanStore loanStore;
+    @Nonnull
+    private final AdmissionControl admissionControl;
+
+    public CustomerSearchController(@Autowired @Nonnull final CustomerNameIndex customerNameIndex,
+                                    @Autowired @Nonnull final LoanSumCache loanSumCache,
+                                    @Autowired @Nonnull final LoanStore loanStore,
+                                    @Autowired @Nonnull final AdmissionControl admissionControl) {
+        this.customerNameIndex = customerNameIndex;
+        this.loanSumCache = loanSumCache;
+        this.loanStore = loanStore;
+        this.admissionControl = admissionControl;
+    }
+
+    @GetMapping("/search")
+    ResponseEntity<?> searchCustomers(@RequestParam("q") @Nonnull final String query,
+                                      @RequestParam(name = "limit", defaultValue = "10") final int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body(new BadRequestResponseDto("limit must be between 1 and %d.".formatted(MAX_LIMIT)));
+        }
+
+        try {
+            final List<Long> customerIds = customerNameIndex.search(query, limit);
+            final Map<Long, BigDecimal> loanSums = findLoanSums(customerIds);
+            // customers are only created together with their first loan request
+            final List<LoanSumResponseDto> customers = customerIds.stream()
+                    .map(customerId -> new LoanSumResponseDto(customerId, loanSums.getOrDefault(customerId, BigDecimal.ZERO)))
+                    .toList();
+            return ResponseEntity.ok().body(customers);
+        } catch (final IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new BadRequestResponseDto(e.getMessage()));
+        } catch (final AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                    .build();
+        } catch (final Exception e) {
+            log.error("Caught {} while searching customers.", e.getClass(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * @throws AdmissionRejectedException If any sum is not cached and the read bulkhead is at its limit.
+     */
+    @Nonnull
+    private Map<Long, BigDecimal> findLoanSums(@Nonnull final List<Long> customerIds) throws AdmissionRejectedException {
+        final Map<Long, BigDecimal> loanSums = new HashMap<>();
+        final List<Long> missingCustomerIds = new ArrayList<>();
+        for (final Long customerId : customerIds) {
+            loanSumCache.getCachedStatistics(customerId).ifPresentOrElse(
+                    statistics -> loanSums.put(customerId, statistics.getSum()),
+                    () -> missingCustomerIds.add(customerId));
+        }
+
+        if (!missingCustomerIds.isEmpty()) {
+            admissionControl.reads().execute(() -> loanStore.findLoanStatisticsByCustomerIds(missingCustomerIds))
+                    .forEach((customerId, statistics) -> loanSums.put(customerId, statistics.getSum()));
+        }
+
+        return loanSums;
+    }
+}
@@ -0,0 +1,455 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, checksummed journal of {@link JournalRecord}s, split into segment files.
+ * <p>
+ * Segment layout: an 8 byte magic number followed by records of the form
+ * {@code [int payload length][int CRC32C of payload][payload]}.
+ * <p>
+ * All appends are handed to a single writer thread, which writes them in batches using gathering
+ * {@link FileChannel} writes and syncs them according to the configured {@link JournalProperties.FsyncPolicy}.
+ * A new segment is started on every start-up and whenever the active segment exceeds its maximum size.
+ * Sealed segments are merged into one by {@link #compact()}.
+ * <p>
+ * If writing or syncing fails, the active segment is truncated back to the end of the last completed batch and the
+ * writer stops: the failed batch, all pending appends and all further appends fail, until the journal is reopened.
+ * Likewise, appends racing with {@link #close()} or an interrupted writer fail instead of waiting for a writer that is
+ * gone.
+ */
+@Slf4j
+class Journal implements Closeable {
+    private static final long MAGIC = 0x4c52534a524e4c31L; // "LRSJRNL1"
+    private static final int SEGMENT_HEADER_SIZE = Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_PAYLOAD_SIZE = 1 << 20;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{16})\\.journal");
+
+    @Nonnull
+    private final JournalProperties properties;
+    @Nonnull
+    private final BlockingQueue<PendingAppend> pendingAppends;
+    @Nonnull
+    private final Thread writer;
+    @Nonnull
+    private final Object segmentsLock = new Object();
+
+    // only accessed by the writer thread (and while holding the segments lock when rolling over)
+    @Nonnull
+    private FileChannel activeSegment;
+    private long activeSequence;
+    private long activeSize;
+    private long lastSyncNanos = System.nanoTime();
+    private boolean unsynced = false;
+
+    private volatile boolean closed = false;
+    private volatile boolean writerStopped = false;
+    @Nullable
+    private volatile IOException failure;
+
+    private Journal(@Nonnull final JournalProperties properties, final long activeSequence) throws IOException {
+        this.properties = properties;
+        this.pendingAppends = new ArrayBlockingQueue<>(properties.getMaxPendingRecords());
+        this.activeSequence = activeSequence;
+        this.activeSegment = createSegment(segmentPath(activeSequence));
+        this.activeSize = SEGMENT_HEADER_SIZE;
+        this.writer = new Thread(this::writeLoop, "journal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Replays all existing segments into the given consumer and opens the journal for appending.
+     */
+    @Nonnull
+    static Journal open(@Nonnull final JournalProperties properties, @Nonnull final Consumer<JournalRecord> replayConsumer) throws IOException {
+        Files.createDirectories(properties.getDirectory());
+        try (final Stream<Path> leftovers = Files.list(properties.getDirectory())) {
+            for (final Path leftover : leftovers.filter(path -> path.toString().endsWith(".compacting")).toList()) {
+                Files.delete(leftover);
+            }
+        }
+
+        final List<Path> segments = listSegments(properties.getDirectory());
+        long records = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            records += replaySegment(segments.get(i), replayConsumer, i == segments.size() - 1);
+        }
+        log.info("Replayed {} journal records from {} segment(s) in {}.", records, segments.size(), properties.getDirectory());
+
+        final long nextSequence = segments.isEmpty() ? 1 : sequenceOf(segments.get(segments.size() - 1)) + 1;
+        final Journal journal = new Journal(properties, nextSequence);
+        journal.writer.start();
+        return journal;
+    }
+
+    /**
+     * @return A future that completes once the record has been written (and synced, if required by the
+     * {@link JournalProperties.FsyncPolicy}).
+     */
+    @Nonnull
+    CompletableFuture<Void> append(@Nonnull final JournalRecord record) {
+        return append(encode(record));
+    }
+
+    /**
+     * Appends the records within the same batch, hence they are either all written or, if writing fails, none of them.
+     *
+     * @return A future that completes once all records have been written (and synced, if required by the
+     * {@link JournalProperties.FsyncPolicy}).
+     */
+    @Nonnull
+    CompletableFuture<Void> append(@Nonnull final List<JournalRecord> records) {
+        final List<ByteBuffer> buffers = records.stream().map(Journal::encode).toList();
+        final ByteBuffer buffer = ByteBuffer.allocate(buffers.stream().mapToInt(ByteBuffer::remaining).sum());
+        buffers.forEach(buffer::put);
+        return append(buffer.flip());
+    }
+
+    @Nonnull
+    private CompletableFuture<Void> append(@Nonnull final ByteBuffer encodedRecords) {
+        if (closed || writerStopped) {
+            return CompletableFuture.failedFuture(stoppedException());
+        }
+
+        final PendingAppend pendingAppend = new PendingAppend(encodedRecords, new CompletableFuture<>());
+        try {
+            pendingAppends.put(pendingAppend);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // the writer may have stopped and drained the pending appends in the meantime, before this one was added
+        if (writerStopped) {
+            failPendingAppends();
+        }
+        return pendingAppend.completion();
+    }
+
+    /**
+     * Merges all sealed segments into a single one that only contains the first record of each key.
+     */
+    void compact() throws IOException {
+        final List<Path> sealedSegments;
+        synchronized (segmentsLock) {
+            final long currentSequence = activeSequence;
+            sealedSegments = listSegments(properties.getDirectory()).stream()
+                    .filter(segment -> sequenceOf(segment) < currentSequence)
+                    .toList();
+        }
+
+        if (sealedSegments.size() < Math.max(properties.getCompactionThreshold(), 2)) {
+            return;
+        }
+
+        final Map<Object, JournalRecord> liveRecords = new LinkedHashMap<>();
+        for (final Path segment : sealedSegments) {
+            replaySegment(segment, record -> liveRecords.putIfAbsent(record.key(), record), false);
+        }
+
+        // the compacted segment replaces the newest sealed segment, so that the replay order is retained
+        final Path target = sealedSegments.get(sealedSegments.size() - 1);
+        final Path temporary = target.resolveSibling(target.getFileName() + ".compacting");
+        try (final FileChannel channel = createSegment(temporary)) {
+            final List<ByteBuffer> buffers = new ArrayList<>(properties.getMaxBatchSize());
+            for (final JournalRecord record : liveRecords.values()) {
+                buffers.add(encode(record));
+                if (buffers.size() == properties.getMaxBatchSize()) {
+                    writeFully(channel, buffers);
+                    buffers.clear();
+                }
+            }
+            writeFully(channel, buffers);
+            channel.force(true);
+        }
+
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // a crash before all old segments are deleted only leaves duplicates, which are ignored during replay
+        for (final Path segment : sealedSegments.subList(0, sealedSegments.size() - 1)) {
+            Files.delete(segment);
+        }
+
+        log.info("Compacted {} journal segments into {} with {} records.", sealedSegments.size(), target.getFileName(), liveRecords.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (segmentsLock) {
+            activeSegment.force(true);
+            activeSegment.close();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            writeUntilStopped();
+        } finally {
+            writerStopped = true;
+            failPendingAppends();
+        }
+    }
+
+    private void writeUntilStopped() {
+        final List<PendingAppend> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (!closed || !pendingAppends.isEmpty()) {
+            try {
+                final PendingAppend first = pendingAppends.poll(pollTimeoutNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    syncIfDue();
+                    continue;
+                }
+
+                batch.add(first);
+                pendingAppends.drainTo(batch, properties.getMaxBatchSize() - 1);
+                writeBatch(batch);
+                batch.forEach(pendingAppend -> pendingAppend.completion().complete(null));
+            } catch (final IOException e) {
+                log.error("Unable to write {} journal records, the journal no longer accepts records.", batch.size(), e);
+                failure = e;
+                batch.forEach(pendingAppend -> pendingAppend.completion().completeExceptionally(new UncheckedIOException(e)));
+                return;
+            } catch (final InterruptedException e) {
+                log.warn("The journal writer was interrupted, the journal no longer accepts records.");
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(@Nonnull final List<PendingAppend> batch) throws IOException {
+        final List<ByteBuffer> buffers = batch.stream().map(PendingAppend::records).toList();
+        final long batchSize = buffers.stream().mapToLong(ByteBuffer::remaining).sum();
+        if (activeSize > SEGMENT_HEADER_SIZE && activeSize + batchSize > properties.getMaxSegmentSize().toBytes()) {
+            rollOver();
+        }
+
+        final long validSize = activeSize;
+        try {
+            writeFully(activeSegment, buffers);
+            activeSize += batchSize;
+            unsynced = true;
+
+            switch (properties.getFsyncPolicy()) {
+                case ALWAYS -> sync();
+                case INTERVAL -> syncIfDue();
+                case NEVER -> {
+                }
+            }
+        } catch (final IOException e) {
+            // otherwise a partially written batch would be replayed, even though its appends failed
+            try {
+                activeSegment.truncate(validSize);
+            } catch (final IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private void rollOver() throws IOException {
+        synchronized (segmentsLock) {
+            activeSegment.force(true);
+            activeSegment.close();
+
+            activeSequence++;
+            activeSegment = createSegment(segmentPath(activeSequence));
+            activeSize = SEGMENT_HEADER_SIZE;
+        }
+    }
+
+    private void syncIfDue() throws IOException {
+        if (properties.getFsyncPolicy() == JournalProperties.FsyncPolicy.INTERVAL
+                && System.nanoTime() - lastSyncNanos >= properties.getFsyncInterval().toNanos()) {
+            sync();
+        }
+    }
+
+    private void sync() throws IOException {
+        if (unsynced) {
+            activeSegment.force(false);
+            unsynced = false;
+        }
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Fails all appends that are still pending, as they will never be written once the writer has stopped.
+     */
+    private void failPendingAppends() {
+        final List<PendingAppend> abandoned = new ArrayList<>();
+        pendingAppends.drainTo(abandoned);
+        abandoned.forEach(pendingAppend -> pendingAppend.completion().completeExceptionally(stoppedException()));
+    }
+
+    @Nonnull
+    private IllegalStateException stoppedException() {
+        if (failure != null) {
+            return new IllegalStateException("The journal failed and no longer accepts records.", failure);
+        }
+        return new IllegalStateException(closed ? "The journal is closed." : "The journal writer stopped.");
+    }
+
+    private long pollTimeoutNanos() {
+        if (properties.getFsyncPolicy() == JournalProperties.FsyncPolicy.INTERVAL && unsynced) {
+            return Math.max(properties.getFsyncInterval().toNanos() - (System.nanoTime() - lastSyncNanos), 0);
+        }
+        return TimeUnit.MILLISECONDS.toNanos(100);
+    }
+
+    private static long replaySegment(@Nonnull final Path segment,
+                                      @Nonnull final Consumer<JournalRecord> consumer,
+                                      final boolean truncateTornTail) throws IOException {
+        try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long size = channel.size();
+            if (size < SEGMENT_HEADER_SIZE) {
+                return handleCorruption(segment, channel, 0, truncateTornTail);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Journal segment %s is too large to be replayed.".formatted(segment));
+            }
+
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getLong() != MAGIC) {
+                throw new IllegalStateException("%s is not a journal segment.".formatted(segment));
+            }
+
+            long records = 0;
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                final int recordStart = buffer.position();
+                final int payloadSize = buffer.getInt();
+                final int checksum = buffer.getInt();
+                if (payloadSize <= 0 || payloadSize > MAX_PAYLOAD_SIZE || payloadSize > buffer.remaining()) {
+                    return records + handleCorruption(segment, channel, recordStart, truncateTornTail);
+                }
+
+                final ByteBuffer payload = buffer.slice(buffer.position(), payloadSize);
+                if (checksum(payload) != checksum) {
+                    return records + handleCorruption(segment, channel, recordStart, truncateTornTail);
+                }
+
+                consumer.accept(JournalRecord.readPayload(payload));
+                buffer.position(recordStart + RECORD_HEADER_SIZE + payloadSize);
+                records++;
+            }
+
+            if (buffer.hasRemaining()) {
+                return records + handleCorruption(segment, channel, buffer.position(), truncateTornTail);
+            }
+            return records;
+        }
+    }
+
+    private static long handleCorruption(@Nonnull final Path segment,
+                                         @Nonnull final FileChannel channel,
+                                         final long validSize,
+                                         final boolean truncateTornTail) throws IOException {
+        if (!truncateTornTail) {
+            throw new IllegalStateException("Journal segment %s is corrupted at offset %d.".formatted(segment, validSize));
+        }
+
+        // the last segment may end with a partially written batch if the process crashed while writing it
+        log.warn("Truncating torn tail of journal segment {} at offset {} (was {} bytes).", segment, validSize, channel.size());
+        if (validSize < SEGMENT_HEADER_SIZE) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putLong(0, MAGIC));
+        } else {
+            channel.truncate(validSize);
+        }
+        channel.force(true);
+        return 0;
+    }
+
+    @Nonnull
+    private static ByteBuffer encode(@Nonnull final JournalRecord record) {
+        final int payloadSize = record.payloadSize();
+        final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payloadSize);
+        buffer.position(RECORD_HEADER_SIZE);
+        record.writePayload(buffer);
+
+        buffer.putInt(0, payloadSize);
+        buffer.putInt(Integer.BYTES, checksum(buffer.slice(RECORD_HEADER_SIZE, payloadSize)));
+        return buffer.flip();
+    }
+
+    private static int checksum(@Nonnull final ByteBuffer payload) {
+        final CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(@Nonnull final FileChannel channel, @Nonnull final List<ByteBuffer> buffers) throws IOException {
+        final ByteBuffer[] array = buffers.toArray(ByteBuffer[]::new);
+        long remaining = buffers.stream().mapToLong(ByteBuffer::remaining).sum();
+        while (remaining > 0) {
+            remaining -= channel.write(array);
+        }
+    }
+
+    @Nonnull
+    private static FileChannel createSegment(@Nonnull final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        channel.write(ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putLong(0, MAGIC));
+        return channel;
+    }
+
+    @Nonnull
+    private Path segmentPath(final long sequence) {
+        return properties.getDirectory().resolve("segment-%016d.journal".formatted(sequence));
+    }
+
+    @Nonnull
+    private static List<Path> listSegments(@Nonnull final Path directory) throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(@Nonnull final Path segment) {
+        final Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("%s is not a journal segment.".formatted(segment));
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private record PendingAppend(@Nonnull ByteBuffer records, @Nonnull CompletableFuture<Void> completion) {
+    }
+}
@@ -0,0 +1,336 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
+import de.ing.challenge.loanrequestservice.dao.LoanAmountBucket;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestSummary;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link LoanStore} for deployments without a database server.
+ * <p>
+ * All customers and loan requests are written to an append-only {@link Journal} on the local disk and kept in memory.
+ * On start-up, the in-memory indexes (including the loan statistics) are rebuilt by replaying the journal.
+ * <p>
+ * Within a transaction, the records are only appended (as one batch) and become visible right before it commits, so
+ * that e.g. a customer created for a rejected loan request is discarded with it, like in the JPA store. Hence the
+ * transaction does not read its own writes. If appending fails, the transaction is rolled back.
+ */
+@Slf4j
+public class JournalLoanStore implements LoanStore {
+    @Nonnull
+    private final Journal journal;
+    @Nonnull
+    private final NavigableMap<Long, String> customerNames = new ConcurrentSkipListMap<>();
+    @Nonnull
+    private final Map<Long, StoredLoanRequest> loanRequests = new ConcurrentHashMap<>();
+    @Nonnull
+    private final NavigableMap<Long, LoanStatistics> loanStatistics = new ConcurrentSkipListMap<>();
+    @Nonnull
+    private final Map<Long, NavigableMap<Long, StoredLoanRequest>> loanRequestsByCustomer = new ConcurrentHashMap<>();
+    @Nonnull
+    private final Set<Long> loanRequestIdsBeingSaved = ConcurrentHashMap.newKeySet();
+
+    public JournalLoanStore(@Nonnull final JournalProperties properties) {
+        try {
+            this.journal = Journal.open(properties, this::apply);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to open the journal in %s.".formatted(properties.getDirectory()), e);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Optional<Customer> findCustomerById(final long customerId) {
+        return Optional.ofNullable(customerNames.get(customerId)).map(fullName -> new Customer(customerId, fullName));
+    }
+
+    @Nonnull
+    @Override
+    public Customer getExistingCustomer(final long customerId) {
+        return findCustomerById(customerId).orElseThrow();
+    }
+
+    @Nonnull
+    @Override
+    public Customer saveCustomer(@Nonnull final Customer customer) {
+        write(new JournalRecord.CustomerCreated(customer.getId(), customer.getFullName()));
+        return customer;
+    }
+
+    @Nonnull
+    @Override
+    public List<Customer> findCustomersByIdAfter(final long afterCustomerId, final int limit) {
+        return customerNames.tailMap(afterCustomerId, false).entrySet().stream()
+                .limit(limit)
+                .map(entry -> new Customer(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @Nonnull
+    @Override
+    public Optional<LoanRequest> findLoanRequestById(final long loanRequestId) {
+        final StoredLoanRequest loanRequest = loanRequests.get(loanRequestId);
+        if (loanRequest == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(toLoanRequest(loanRequest));
+    }
+
+    @Nonnull
+    private LoanRequest toLoanRequest(@Nonnull final StoredLoanRequest loanRequest) {
+        final Customer customer = findCustomerById(loanRequest.getCustomerId()).orElseThrow(() -> new IllegalStateException(
+                "The journal contains loan request %d of unknown customer %d.".formatted(loanRequest.getId(), loanRequest.getCustomerId())));
+        return new LoanRequest(loanRequest.getId(), loanRequest.getAmount(), customer, loanRequest.getCreatedAt());
+    }
+
+    /**
+     * @throws DataIntegrityViolationException If a loan request with the same id exists or is being saved concurrently,
+     *                                         like the primary key of the JPA store.
+     */
+    @Nonnull
+    @Override
+    public LoanRequest saveLoanRequest(@Nonnull final LoanRequest loanRequest) throws DataIntegrityViolationException {
+        final long id = loanRequest.getId();
+        // reserved before looking for an existing loan request, so that one saved concurrently is detected as well
+        if (!loanRequestIdsBeingSaved.add(id)) {
+            throw new DataIntegrityViolationException("Loan request %d is already being saved.".formatted(id));
+        }
+
+        try {
+            if (loanRequests.containsKey(id)) {
+                throw new DataIntegrityViolationException("Loan request %d already exists.".formatted(id));
+            }
+
+            write(new JournalRecord.LoanRequestCreated(
+                    id, loanRequest.getCustomer().getId(), loanRequest.getAmount(), loanRequest.getCreatedAt()));
+        } finally {
+            afterWrite(() -> loanRequestIdsBeingSaved.remove(id));
+        }
+
+        return loanRequest;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<LoanStatistics> findLoanStatisticsByCustomerId(final long customerId) {
+        return Optional.ofNullable(loanStatistics.get(customerId));
+    }
+
+    @Nonnull
+    @Override
+    public Map<Long, LoanStatistics> findLoanStatisticsByCustomerIds(@Nonnull final Collection<Long> customerIds) {
+        final Map<Long, LoanStatistics> statistics = new HashMap<>();
+        for (final long customerId : customerIds) {
+            final LoanStatistics statisticsOfCustomer = loanStatistics.get(customerId);
+            if (statisticsOfCustomer != null) {
+                statistics.put(customerId, statisticsOfCustomer);
+            }
+        }
+
+        return statistics;
+    }
+
+    @Nonnull
+    @Override
+    public NavigableMap<Long, LoanStatistics> findLoanStatisticsByCustomerIdAfter(final long afterCustomerId, final int limit) {
+        final NavigableMap<Long, LoanStatistics> statistics = new TreeMap<>();
+        for (final Map.Entry<Long, LoanStatistics> entry : loanStatistics.tailMap(afterCustomerId, false).entrySet()) {
+            if (statistics.size() == limit) {
+                break;
+            }
+            statistics.put(entry.getKey(), entry.getValue());
+        }
+
+        return statistics;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<BigDecimal> findLoanSumByCustomerIdAsOf(final long customerId, @Nonnull final Instant asOf) {
+        // loan requests without a creation timestamp predate it and hence count as created before any point in time
+        return loanRequestsOf(customerId)
+                .filter(loanRequest -> loanRequest.getCreatedAt() == null || !loanRequest.getCreatedAt().isAfter(asOf))
+                .map(StoredLoanRequest::getAmount)
+                .reduce(BigDecimal::add);
+    }
+
+    @Nonnull
+    @Override
+    public List<CustomerLoanSum> findTopCustomersByLoanSum(final int limit) {
+        return loanStatistics.entrySet().stream()
+                .map(entry -> new CustomerLoanSum(entry.getKey(), entry.getValue().getSum()))
+                .sorted(Comparator.comparing(CustomerLoanSum::getSum).reversed().thenComparingLong(CustomerLoanSum::getCustomerId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Nonnull
+    @Override
+    public List<LoanAmountBucket> findLoanAmountHistogram() {
+        final Map<BigDecimal, List<BigDecimal>> amountsByWholeAmount = loanRequests.values().stream()
+                .map(StoredLoanRequest::getAmount)
+                .collect(Collectors.groupingBy(amount -> amount.setScale(0, RoundingMode.FLOOR)));
+
+        return amountsByWholeAmount.entrySet().stream()
+                .map(entry -> new LoanAmountBucket(entry.getKey(), entry.getValue().size(),
+                        entry.getValue().stream().reduce(BigDecimal.ZERO, BigDecimal::add)))
+                .toList();
+    }
+
+    @Nonnull
+    @Override
+    public List<LoanRequestSummary> findLoanRequestSummariesByCustomerIdAfter(final long customerId, final long afterId, final int limit) {
+        final NavigableMap<Long, StoredLoanRequest> loanRequestsOfCustomer = loanRequestsByCustomer.get(customerId);
+        if (loanRequestsOfCustomer == null) {
+            return List.of();
+        }
+
+        return loanRequestsOfCustomer.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(loanRequest -> new LoanRequestSummary(loanRequest.getId(), loanRequest.getAmount(), loanRequest.getCreatedAt()))
+                .toList();
+    }
+
+    @Nonnull
+    @Override
+    public Collection<LoanRequest> findLoanRequestsByCustomerIdCreatedAfter(final long customerId, @Nonnull final Instant createdAfter) {
+        return loanRequestsOf(customerId)
+                .filter(loanRequest -> loanRequest.getCreatedAt() != null && loanRequest.getCreatedAt().isAfter(createdAfter))
+                .map(this::toLoanRequest)
+                .toList();
+    }
+
+    @Nonnull
+    private Stream<StoredLoanRequest> loanRequestsOf(final long customerId) {
+        final NavigableMap<Long, StoredLoanRequest> loanRequestsOfCustomer = loanRequestsByCustomer.get(customerId);
+        return loanRequestsOfCustomer == null ? Stream.empty() : loanRequestsOfCustomer.values().stream();
+    }
+
+    @Scheduled(fixedDelayString = "${loan-request-service.storage.journal.compaction-interval:PT10M}")
+    public void compact() {
+        try {
+            journal.compact();
+        } catch (final IOException | RuntimeException e) {
+            log.error("Unable to compact the journal.", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    private void write(@Nonnull final JournalRecord record) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(List.of(record));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<JournalRecord> stagedRecords = (List<JournalRecord>) TransactionSynchronizationManager.getResource(this);
+        if (stagedRecords == null) {
+            final List<JournalRecord> records = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, records);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(final boolean readOnly) {
+                    append(records);
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResource(JournalLoanStore.this);
+                }
+            });
+            stagedRecords = records;
+        }
+        stagedRecords.add(record);
+    }
+
+    /**
+     * Runs the action once the records written by the current transaction (if any) are visible.
+     */
+    private static void afterWrite(@Nonnull final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(final int status) {
+                action.run();
+            }
+        });
+    }
+
+    private void append(@Nonnull final List<JournalRecord> records) {
+        try {
+            journal.append(records).join();
+            records.forEach(this::apply);
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void apply(@Nonnull final JournalRecord record) {
+        // the first record of each entity wins, which also makes replaying duplicated records harmless
+        if (record instanceof JournalRecord.CustomerCreated customerCreated) {
+            customerNames.putIfAbsent(customerCreated.getCustomerId(), customerCreated.getFullName());
+        } else if (record instanceof JournalRecord.LoanRequestCreated loanRequestCreated) {
+            final StoredLoanRequest loanRequest = new StoredLoanRequest(loanRequestCreated.getLoanRequestId(),
+                    loanRequestCreated.getCustomerId(), loanRequestCreated.getAmount(), loanRequestCreated.getCreatedAt());
+            if (loanRequests.putIfAbsent(loanRequest.getId(), loanRequest) == null) {
+                loanStatistics.compute(loanRequest.getCustomerId(),
+                        (k, v) -> v == null ? LoanStatistics.of(loanRequest.getAmount()) : v.plus(loanRequest.getAmount()));
+                loanRequestsByCustomer.computeIfAbsent(loanRequest.getCustomerId(), k -> new ConcurrentSkipListMap<>())
+                        .put(loanRequest.getId(), loanRequest);
+            }
+        }
+    }
+
+    @Value
+    private static class StoredLoanRequest {
+        long id;
+        long customerId;
+        @Nonnull
+        BigDecimal amount;
+        @Nullable
+        Instant createdAt;
+    }
+}
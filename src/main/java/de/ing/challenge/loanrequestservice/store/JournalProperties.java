@@ -0,0 +1,58 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-request-service.storage.journal")
+@Data
+public class JournalProperties {
+    @Nonnull
+    private Path directory = Path.of("data", "journal");
+
+    @Nonnull
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+
+    /**
+     * Only used with {@link FsyncPolicy#INTERVAL}: The maximum time written records may stay in the page cache.
+     */
+    @Nonnull
+    private Duration fsyncInterval = Duration.ofMillis(10);
+
+    /**
+     * The maximum number of records written (and synced) together.
+     */
+    private int maxBatchSize = 256;
+
+    /**
+     * The maximum number of records waiting to be written before appending blocks.
+     */
+    private int maxPendingRecords = 16_384;
+
+    @Nonnull
+    private DataSize maxSegmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Sealed segments are compacted into one as soon as there are at least this many of them.
+     */
+    private int compactionThreshold = 4;
+
+    public enum FsyncPolicy {
+        /**
+         * Every batch is synced to disk before the corresponding appends complete.
+         */
+        ALWAYS,
+        /**
+         * Appends complete once written to the page cache, which is synced to disk every {@code fsync-interval}.
+         */
+        INTERVAL,
+        /**
+         * Syncing is left to the operating system.
+         */
+        NEVER
+    }
+}
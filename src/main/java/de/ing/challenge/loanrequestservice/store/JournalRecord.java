@@ -0,0 +1,120 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * An event stored in the {@link Journal}.
+ */
+interface JournalRecord {
+    byte CUSTOMER_CREATED = 1;
+    /**
+     * Written before loan requests had a creation timestamp, still read for compatibility.
+     */
+    byte LOAN_REQUEST_CREATED = 2;
+    byte TIMESTAMPED_LOAN_REQUEST_CREATED = 3;
+
+    /**
+     * Records with the same key describe the same entity; only the first one of them is effective.
+     */
+    @Nonnull
+    Object key();
+
+    int payloadSize();
+
+    void writePayload(@Nonnull final ByteBuffer buffer);
+
+    @Nonnull
+    static JournalRecord readPayload(@Nonnull final ByteBuffer buffer) {
+        final byte type = buffer.get();
+        return switch (type) {
+            case CUSTOMER_CREATED -> CustomerCreated.read(buffer);
+            case LOAN_REQUEST_CREATED -> LoanRequestCreated.read(buffer, false);
+            case TIMESTAMPED_LOAN_REQUEST_CREATED -> LoanRequestCreated.read(buffer, true);
+            default -> throw new IllegalStateException("Unknown journal record type %d.".formatted(type));
+        };
+    }
+
+    @Value
+    class CustomerCreated implements JournalRecord {
+        long customerId;
+        @Nonnull
+        String fullName;
+
+        @Nonnull
+        @Override
+        public Object key() {
+            return "customer:" + customerId;
+        }
+
+        @Override
+        public int payloadSize() {
+            return 1 + Long.BYTES + Integer.BYTES + fullName.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        @Override
+        public void writePayload(@Nonnull final ByteBuffer buffer) {
+            final byte[] name = fullName.getBytes(StandardCharsets.UTF_8);
+            buffer.put(CUSTOMER_CREATED).putLong(customerId).putInt(name.length).put(name);
+        }
+
+        @Nonnull
+        private static CustomerCreated read(@Nonnull final ByteBuffer buffer) {
+            final long customerId = buffer.getLong();
+            final byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            return new CustomerCreated(customerId, new String(name, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Value
+    class LoanRequestCreated implements JournalRecord {
+        long loanRequestId;
+        long customerId;
+        @Nonnull
+        BigDecimal amount;
+        @Nullable
+        Instant createdAt;
+
+        @Nonnull
+        @Override
+        public Object key() {
+            return "loan-request:" + loanRequestId;
+        }
+
+        @Override
+        public int payloadSize() {
+            final int timestampSize = createdAt == null ? 0 : Long.BYTES + Integer.BYTES;
+            return 1 + 3 * Long.BYTES + Integer.BYTES + timestampSize;
+        }
+
+        @Override
+        public void writePayload(@Nonnull final ByteBuffer buffer) {
+            buffer.put(createdAt == null ? LOAN_REQUEST_CREATED : TIMESTAMPED_LOAN_REQUEST_CREATED)
+                    .putLong(loanRequestId)
+                    .putLong(customerId)
+                    .putLong(amount.unscaledValue().longValueExact())
+                    .putInt(amount.scale());
+            if (createdAt != null) {
+                buffer.putLong(createdAt.getEpochSecond()).putInt(createdAt.getNano());
+            }
+        }
+
+        @Nonnull
+        private static LoanRequestCreated read(@Nonnull final ByteBuffer buffer, final boolean timestamped) {
+            final long loanRequestId = buffer.getLong();
+            final long customerId = buffer.getLong();
+            final long unscaledAmount = buffer.getLong();
+            final int scale = buffer.getInt();
+            final Instant createdAt = timestamped ? Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()) : null;
+            return new LoanRequestCreated(loanRequestId, customerId, new BigDecimal(BigInteger.valueOf(unscaledAmount), scale), createdAt);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import de.ing.challenge.loanrequestservice.config.ReplicaRoutingDataSource;
+import de.ing.challenge.loanrequestservice.dao.ArchivedLoanRequestDao;
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.dao.CustomerDao;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanAmountAggregate;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
+import de.ing.challenge.loanrequestservice.dao.LoanAmountAggregate;
+import de.ing.challenge.loanrequestservice.dao.LoanAmountBucket;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestDao;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestSummary;
+import jakarta.annotation.Nonnull;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Reads documented to reflect every committed loan request are explicitly run {@link ReplicaRoutingDataSource#onPrimary
+ * on the primary}, all others may be served by a read replica.
+ */
+public class JpaLoanStore implements LoanStore {
+    @Nonnull
+    private final CustomerDao customerDao;
+    @Nonnull
+    private final LoanRequestDao loanRequestDao;
+    @Nonnull
+    private final ArchivedLoanRequestDao archivedLoanRequestDao;
+
+    public JpaLoanStore(@Nonnull final CustomerDao customerDao,
+                        @Nonnull final LoanRequestDao loanRequestDao,
+                        @Nonnull final ArchivedLoanRequestDao archivedLoanRequestDao) {
+        this.customerDao = customerDao;
+        this.loanRequestDao = loanRequestDao;
+        this.archivedLoanRequestDao = archivedLoanRequestDao;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<Customer> findCustomerById(final long customerId) {
+        return customerDao.findById(customerId);
+    }
+
+    @Nonnull
+    @Override
+    public Customer getExistingCustomer(final long customerId) {
+        // an uninitialized proxy, which is not loaded as long as only its id is accessed
+        return customerDao.getReferenceById(customerId);
+    }
+
+    @Nonnull
+    @Override
+    public Customer saveCustomer(@Nonnull final Customer customer) {
+        return customerDao.save(customer);
+    }
+
+    @Nonnull
+    @Override
+    public List<Customer> findCustomersByIdAfter(final long afterCustomerId, final int limit) {
+        return customerDao.findAllByIdAfter(afterCustomerId, PageRequest.of(0, limit));
+    }
+
+    @Nonnull
+    @Override
+    public Optional<LoanRequest> findLoanRequestById(final long loanRequestId) {
+        // a loan request is moved to the archive within a single transaction, hence it is visible in the archive if it
+        // has just disappeared from the loan requests, as long as they are read first
+        return loanRequestDao.findById(loanRequestId).or(() -> archivedLoanRequestDao.findById(loanRequestId)
+                .map(archived -> new LoanRequest(archived.getId(), archived.getAmount(),
+                        customerDao.getReferenceById(archived.getCustomerId()), archived.getCreatedAt())));
+    }
+
+    @Nonnull
+    @Override
+    public LoanRequest saveLoanRequest(@Nonnull final LoanRequest loanRequest) {
+        return loanRequestDao.save(loanRequest);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<LoanStatistics> findLoanStatisticsByCustomerId(final long customerId) {
+        final LoanAmountAggregate aggregate = loanRequestDao.aggregateAmountsByCustomerId(customerId);
+        if (aggregate.getCount() == 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new LoanStatistics(aggregate.getCount(),
+                LoanStatistics.toCents(Objects.requireNonNull(aggregate.getSum())),
+                LoanStatistics.toCents(Objects.requireNonNull(aggregate.getMin())),
+                LoanStatistics.toCents(Objects.requireNonNull(aggregate.getMax()))));
+    }
+
+    @Nonnull
+    @Override
+    public Map<Long, LoanStatistics> findLoanStatisticsByCustomerIds(@Nonnull final Collection<Long> customerIds) {
+        final Map<Long, LoanStatistics> statistics = new HashMap<>();
+        for (final CustomerLoanAmountAggregate aggregate : loanRequestDao.aggregateAmountsByCustomerIdIn(customerIds)) {
+            statistics.put(aggregate.getCustomerId(), toStatistics(aggregate));
+        }
+
+        return statistics;
+    }
+
+    @Nonnull
+    @Override
+    public NavigableMap<Long, LoanStatistics> findLoanStatisticsByCustomerIdAfter(final long afterCustomerId, final int limit) {
+        final NavigableMap<Long, LoanStatistics> statistics = new TreeMap<>();
+        for (final CustomerLoanAmountAggregate aggregate : ReplicaRoutingDataSource.onPrimary(
+                () -> loanRequestDao.aggregateAmountsByCustomerIdAfter(afterCustomerId, PageRequest.of(0, limit)))) {
+            statistics.put(aggregate.getCustomerId(), toStatistics(aggregate));
+        }
+
+        return statistics;
+    }
+
+    @Nonnull
+    private static LoanStatistics toStatistics(@Nonnull final CustomerLoanAmountAggregate aggregate) {
+        return new LoanStatistics(aggregate.getCount(), LoanStatistics.toCents(aggregate.getSum()),
+                LoanStatistics.toCents(aggregate.getMin()), LoanStatistics.toCents(aggregate.getMax()));
+    }
+
+    @Nonnull
+    @Override
+    public Optional<BigDecimal> findLoanSumByCustomerIdAsOf(final long customerId, @Nonnull final Instant asOf) {
+        return loanRequestDao.sumAmountByCustomerIdAsOf(customerId, asOf);
+    }
+
+    @Nonnull
+    @Override
+    public List<CustomerLoanSum> findTopCustomersByLoanSum(final int limit) {
+        return ReplicaRoutingDataSource.onPrimary(() -> loanRequestDao.findTopCustomersByLoanSum(PageRequest.of(0, limit)));
+    }
+
+    @Nonnull
+    @Override
+    public List<LoanAmountBucket> findLoanAmountHistogram() {
+        return ReplicaRoutingDataSource.onPrimary(loanRequestDao::countByWholeAmount);
+    }
+
+    @Nonnull
+    @Override
+    public List<LoanRequestSummary> findLoanRequestSummariesByCustomerIdAfter(final long customerId, final long afterId, final int limit) {
+        final List<LoanRequestSummary> loanRequests = loanRequestDao.findSummariesByCustomerIdAfter(customerId, afterId, PageRequest.of(0, limit));
+        final List<LoanRequestSummary> archivedLoanRequests = archivedLoanRequestDao.findSummariesByCustomerIdAfter(customerId, afterId, PageRequest.of(0, limit));
+        if (archivedLoanRequests.isEmpty()) {
+            return loanRequests;
+        }
+
+        // both pages are ordered by id, so the first ones of their union are the first ones overall
+        return Stream.concat(loanRequests.stream(), archivedLoanRequests.stream())
+                .sorted(Comparator.comparingLong(LoanRequestSummary::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Nonnull
+    @Override
+    public Collection<LoanRequest> findLoanRequestsByCustomerIdCreatedAfter(final long customerId, @Nonnull final Instant createdAfter) {
+        // the archival retention is longer than any rolling window, hence recent loan requests are never archived
+        return ReplicaRoutingDataSource.onPrimary(() -> loanRequestDao.findAllByCustomerIdAndCreatedAtAfter(customerId, createdAfter));
+    }
+}
@@ -0,0 +1,74 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import jakarta.annotation.Nonnull;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The count, sum, minimum and maximum of the loan requests of one customer.
+ * <p>
+ * Amounts are kept as primitive cents, so that one instance takes about as much memory as a single {@link BigDecimal}
+ * and adding a loan request does not allocate anything but the new instance.
+ */
+@Value
+public class LoanStatistics {
+    long count;
+    long sumCents;
+    long minCents;
+    long maxCents;
+
+    @Nonnull
+    public static LoanStatistics of(@Nonnull final BigDecimal amount) {
+        final long cents = toCents(amount);
+        return new LoanStatistics(1, cents, cents, cents);
+    }
+
+    @Nonnull
+    public LoanStatistics plus(@Nonnull final BigDecimal amount) {
+        final long cents = toCents(amount);
+        return new LoanStatistics(count + 1, Math.addExact(sumCents, cents), Math.min(minCents, cents), Math.max(maxCents, cents));
+    }
+
+    @Nonnull
+    public LoanStatistics plus(@Nonnull final LoanStatistics other) {
+        return new LoanStatistics(count + other.count, Math.addExact(sumCents, other.sumCents),
+                Math.min(minCents, other.minCents), Math.max(maxCents, other.maxCents));
+    }
+
+    @Nonnull
+    public BigDecimal getSum() {
+        return fromCents(sumCents);
+    }
+
+    @Nonnull
+    public BigDecimal getMin() {
+        return fromCents(minCents);
+    }
+
+    @Nonnull
+    public BigDecimal getMax() {
+        return fromCents(maxCents);
+    }
+
+    /**
+     * Rounded half-even to cents.
+     */
+    @Nonnull
+    public BigDecimal getAverage() {
+        return getSum().divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * @throws ArithmeticException If the amount has more than two fraction digits or does not fit into a long.
+     */
+    public static long toCents(@Nonnull final BigDecimal amount) throws ArithmeticException {
+        return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    @Nonnull
+    public static BigDecimal fromCents(final long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,117 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
+import de.ing.challenge.loanrequestservice.dao.LoanAmountBucket;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestSummary;
+import jakarta.annotation.Nonnull;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+
+/**
+ * The storage backend used by the {@link de.ing.challenge.loanrequestservice.LoanService}.
+ * <p>
+ * Which implementation is used is configured via {@code loan-request-service.storage.type}.
+ */
+public interface LoanStore {
+
+    @Nonnull
+    Optional<Customer> findCustomerById(final long customerId);
+
+    /**
+     * @return The customer with the given id, which is known to exist. Implementations may avoid loading it.
+     */
+    @Nonnull
+    Customer getExistingCustomer(final long customerId);
+
+    @Nonnull
+    Customer saveCustomer(@Nonnull final Customer customer);
+
+    /**
+     * @return Up to {@code limit} customers with an id greater than {@code afterCustomerId}, ordered by id. Meant for
+     * rebuilding in-memory structures chunk by chunk.
+     */
+    @Nonnull
+    List<Customer> findCustomersByIdAfter(final long afterCustomerId, final int limit);
+
+    @Nonnull
+    Optional<LoanRequest> findLoanRequestById(final long loanRequestId);
+
+    @Nonnull
+    LoanRequest saveLoanRequest(@Nonnull final LoanRequest loanRequest);
+
+    /**
+     * @return The statistics of all loan requests of the customer, or an empty {@link Optional} if there are none. May
+     * be served by a read replica within its staleness bound, unless called
+     * {@link de.ing.challenge.loanrequestservice.config.ReplicaRoutingDataSource#onPrimary on the primary}.
+     */
+    @Nonnull
+    Optional<LoanStatistics> findLoanStatisticsByCustomerId(final long customerId);
+
+    /**
+     * @return The statistics of the given customers, customers without any loan requests are missing. May be served by
+     * a read replica within its staleness bound, unless called
+     * {@link de.ing.challenge.loanrequestservice.config.ReplicaRoutingDataSource#onPrimary on the primary}.
+     */
+    @Nonnull
+    Map<Long, LoanStatistics> findLoanStatisticsByCustomerIds(@Nonnull final Collection<Long> customerIds);
+
+    /**
+     * @return The statistics of up to {@code limit} customers with an id greater than {@code afterCustomerId} that have
+     * any loan requests, keyed and ordered by customer id. Always reflects every committed loan request, i.e. it is not
+     * served by a read replica.
+     */
+    @Nonnull
+    NavigableMap<Long, LoanStatistics> findLoanStatisticsByCustomerIdAfter(final long afterCustomerId, final int limit);
+
+    /**
+     * @return The sum of all loan requests of the customer, or an empty {@link Optional} if there are none.
+     */
+    @Nonnull
+    default Optional<BigDecimal> findLoanSumByCustomerId(final long customerId) {
+        return findLoanStatisticsByCustomerId(customerId).map(LoanStatistics::getSum);
+    }
+
+    /**
+     * @return The sum of all loan requests of the customer created at or before the given point in time, or an empty
+     * {@link Optional} if there are none. May be served by a read replica.
+     */
+    @Nonnull
+    Optional<BigDecimal> findLoanSumByCustomerIdAsOf(final long customerId, @Nonnull final Instant asOf);
+
+    /**
+     * @return The customers with the largest loan sums in descending order, ties broken by customer id. This scans all
+     * loan requests and is therefore only meant for rebuilding in-memory structures. Always reflects every committed
+     * loan request.
+     */
+    @Nonnull
+    List<CustomerLoanSum> findTopCustomersByLoanSum(final int limit);
+
+    /**
+     * @return The count and sum of all loan requests grouped by their amount rounded down to a whole number. This scans
+     * all loan requests and is therefore only meant for rebuilding in-memory structures.
+     */
+    @Nonnull
+    List<LoanAmountBucket> findLoanAmountHistogram();
+
+    /**
+     * @return Up to {@code limit} loan requests of the customer with an id greater than {@code afterId}, ordered by id.
+     * May be served by a read replica.
+     */
+    @Nonnull
+    List<LoanRequestSummary> findLoanRequestSummariesByCustomerIdAfter(final long customerId, final long afterId, final int limit);
+
+    /**
+     * @return The loan requests of the customer created after the given point in time. Always reflects every committed
+     * loan request, as it is cached.
+     */
+    @Nonnull
+    Collection<LoanRequest> findLoanRequestsByCustomerIdCreatedAfter(final long customerId, @Nonnull final Instant createdAfter);
+}
@@ -0,0 +1,194 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import de.ing.challenge.loanrequestservice.config.CustomerShards;
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
+import de.ing.challenge.loanrequestservice.dao.LoanAmountBucket;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestSummary;
+import jakarta.annotation.Nonnull;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link LoanStore} spreading the customers over several {@link CustomerShards shards}, all accessed by the same
+ * delegate.
+ * <p>
+ * Everything about a single customer is read from and written to the shard of the customer. Within a transaction, the
+ * first access to a customer binds the whole transaction to its shard, so that e.g. creating a customer and its loan
+ * request still commit atomically. Reads across all customers query all shards in parallel and merge the results.
+ * <p>
+ * Loan request ids only need to be unique within the shard of their customer: while creating a loan request, its id is
+ * only looked up on that shard. Optionally, it is also looked up on the other shards. Even then, two loan requests with
+ * the same id, created concurrently for customers of different shards, are both accepted, as no database constraint
+ * spans the shards.
+ */
+public class ShardedLoanStore implements LoanStore {
+    @Nonnull
+    private final LoanStore delegate;
+    @Nonnull
+    private final CustomerShards customerShards;
+    private final boolean checkLoanRequestIdsOnAllShards;
+
+    public ShardedLoanStore(@Nonnull final LoanStore delegate, @Nonnull final CustomerShards customerShards,
+                            final boolean checkLoanRequestIdsOnAllShards) {
+        this.delegate = delegate;
+        this.customerShards = customerShards;
+        this.checkLoanRequestIdsOnAllShards = checkLoanRequestIdsOnAllShards;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<Customer> findCustomerById(final long customerId) {
+        return onShardOf(customerId, () -> delegate.findCustomerById(customerId));
+    }
+
+    @Nonnull
+    @Override
+    public Customer getExistingCustomer(final long customerId) {
+        return onShardOf(customerId, () -> delegate.getExistingCustomer(customerId));
+    }
+
+    @Nonnull
+    @Override
+    public Customer saveCustomer(@Nonnull final Customer customer) {
+        return onShardOf(customer.getId(), () -> delegate.saveCustomer(customer));
+    }
+
+    @Nonnull
+    @Override
+    public List<Customer> findCustomersByIdAfter(final long afterCustomerId, final int limit) {
+        // every shard returns its first customers, hence the first ones overall are among them
+        return customerShards.callOnEachShard(shard -> delegate.findCustomersByIdAfter(afterCustomerId, limit)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingLong(Customer::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Nonnull
+    @Override
+    public Optional<LoanRequest> findLoanRequestById(final long loanRequestId) {
+        // within a transaction bound to the shard of a customer, e.g. while creating a loan request, that shard is
+        // searched by the transaction itself, and the other shards separately only if requested
+        final Integer selectedShard = customerShards.getSelectedShard();
+        if (selectedShard != null) {
+            final Optional<LoanRequest> loanRequest = delegate.findLoanRequestById(loanRequestId);
+            if (loanRequest.isPresent() || !checkLoanRequestIdsOnAllShards) {
+                return loanRequest;
+            }
+        }
+
+        return customerShards.callOnEachShard(shard -> Objects.equals(shard, selectedShard)
+                        ? Optional.<LoanRequest>empty()
+                        : delegate.findLoanRequestById(loanRequestId)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    @Nonnull
+    @Override
+    public LoanRequest saveLoanRequest(@Nonnull final LoanRequest loanRequest) {
+        return onShardOf(loanRequest.getCustomer().getId(), () -> delegate.saveLoanRequest(loanRequest));
+    }
+
+    @Nonnull
+    @Override
+    public Optional<LoanStatistics> findLoanStatisticsByCustomerId(final long customerId) {
+        return onShardOf(customerId, () -> delegate.findLoanStatisticsByCustomerId(customerId));
+    }
+
+    @Nonnull
+    @Override
+    public Map<Long, LoanStatistics> findLoanStatisticsByCustomerIds(@Nonnull final Collection<Long> customerIds) {
+        final Map<Integer, List<Long>> customerIdsByShard = new HashMap<>();
+        for (final long customerId : customerIds) {
+            customerIdsByShard.computeIfAbsent(customerShards.shardOf(customerId), k -> new ArrayList<>()).add(customerId);
+        }
+
+        final Map<Long, LoanStatistics> statistics = new HashMap<>();
+        customerShards.callOnEachShard(shard -> customerIdsByShard.containsKey(shard)
+                        ? delegate.findLoanStatisticsByCustomerIds(customerIdsByShard.get(shard))
+                        : Map.<Long, LoanStatistics>of())
+                .forEach(statistics::putAll);
+        return statistics;
+    }
+
+    @Nonnull
+    @Override
+    public NavigableMap<Long, LoanStatistics> findLoanStatisticsByCustomerIdAfter(final long afterCustomerId, final int limit) {
+        final NavigableMap<Long, LoanStatistics> statistics = new TreeMap<>();
+        customerShards.callOnEachShard(shard -> delegate.findLoanStatisticsByCustomerIdAfter(afterCustomerId, limit))
+                .forEach(statistics::putAll);
+        while (statistics.size() > limit) {
+            statistics.pollLastEntry();
+        }
+
+        return statistics;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<BigDecimal> findLoanSumByCustomerIdAsOf(final long customerId, @Nonnull final Instant asOf) {
+        return onShardOf(customerId, () -> delegate.findLoanSumByCustomerIdAsOf(customerId, asOf));
+    }
+
+    @Nonnull
+    @Override
+    public List<CustomerLoanSum> findTopCustomersByLoanSum(final int limit) {
+        return customerShards.callOnEachShard(shard -> delegate.findTopCustomersByLoanSum(limit)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(CustomerLoanSum::getSum).reversed().thenComparingLong(CustomerLoanSum::getCustomerId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Nonnull
+    @Override
+    public List<LoanAmountBucket> findLoanAmountHistogram() {
+        final Map<BigDecimal, LoanAmountBucket> buckets = new HashMap<>();
+        for (final List<LoanAmountBucket> bucketsOfShard : customerShards.callOnEachShard(shard -> delegate.findLoanAmountHistogram())) {
+            for (final LoanAmountBucket bucket : bucketsOfShard) {
+                buckets.merge(bucket.getWholeAmount(), bucket, (a, b) ->
+                        new LoanAmountBucket(a.getWholeAmount(), a.getCount() + b.getCount(), a.getSum().add(b.getSum())));
+            }
+        }
+
+        return List.copyOf(buckets.values());
+    }
+
+    @Nonnull
+    @Override
+    public List<LoanRequestSummary> findLoanRequestSummariesByCustomerIdAfter(final long customerId, final long afterId, final int limit) {
+        return onShardOf(customerId, () -> delegate.findLoanRequestSummariesByCustomerIdAfter(customerId, afterId, limit));
+    }
+
+    @Nonnull
+    @Override
+    public Collection<LoanRequest> findLoanRequestsByCustomerIdCreatedAfter(final long customerId, @Nonnull final Instant createdAfter) {
+        return onShardOf(customerId, () -> delegate.findLoanRequestsByCustomerIdCreatedAfter(customerId, createdAfter));
+    }
+
+    private <T> T onShardOf(final long customerId, @Nonnull final Supplier<T> call) {
+        final int shard = customerShards.shardOf(customerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            customerShards.bindTransaction(shard);
+            return call.get();
+        }
+
+        return customerShards.callOnShard(shard, call);
+    }
+}
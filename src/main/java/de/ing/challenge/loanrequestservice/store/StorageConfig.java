@@ -0,0 +1,38 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import de.ing.challenge.loanrequestservice.config.CustomerShards;
+import de.ing.challenge.loanrequestservice.config.ShardingProperties;
+import de.ing.challenge.loanrequestservice.dao.ArchivedLoanRequestDao;
+import de.ing.challenge.loanrequestservice.dao.CustomerDao;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestDao;
+import jakarta.annotation.Nonnull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+
+@Configuration
+@EnableConfigurationProperties(JournalProperties.class)
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "loan-request-service.storage", name = "type", havingValue = "jpa", matchIfMissing = true)
+    LoanStore jpaLoanStore(@Nonnull final CustomerDao customerDao,
+                           @Nonnull final LoanRequestDao loanRequestDao,
+                           @Nonnull final ArchivedLoanRequestDao archivedLoanRequestDao,
+                           @Nonnull final Optional<CustomerShards> customerShards,
+                           @Nonnull final Optional<ShardingProperties> shardingProperties) {
+        final LoanStore jpaLoanStore = new JpaLoanStore(customerDao, loanRequestDao, archivedLoanRequestDao);
+        final boolean checkLoanRequestIdsOnAllShards = shardingProperties.map(ShardingProperties::isCheckLoanRequestIdsOnAllShards).orElse(false);
+        return customerShards.<LoanStore>map(shards -> new ShardedLoanStore(jpaLoanStore, shards, checkLoanRequestIdsOnAllShards))
+                .orElse(jpaLoanStore);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "loan-request-service.storage", name = "type", havingValue = "journal")
+    LoanStore journalLoanStore(@Nonnull final JournalProperties properties) {
+        return new JournalLoanStore(properties);
+    }
+}
@@ -0,0 +1,35 @@
+package de.ing.challenge.loanrequestservice.subscription;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Objects;
+import java.util.Set;
+
+@RestController
+@RequestMapping(value = "/api/v1/loan-requests/sum")
+public class LoanSumSubscriptionController {
+    @Nonnull
+    private final LoanSumSubscriptions loanSumSubscriptions;
+
+    public LoanSumSubscriptionController(@Autowired @Nonnull final LoanSumSubscriptions loanSumSubscriptions) {
+        this.loanSumSubscriptions = loanSumSubscriptions;
+    }
+
+    @GetMapping(value = "/subscriptions", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter subscribe(@RequestParam(value = "customerId", required = false) @Nullable final Set<Long> customerIds,
+                         @RequestParam(value = "resumeToken", required = false) @Nullable final Long resumeToken,
+                         @RequestHeader(value = "Last-Event-ID", required = false) @Nullable final Long lastEventId) {
+        return loanSumSubscriptions.subscribe(
+                Objects.requireNonNullElse(customerIds, Set.of()),
+                resumeToken != null ? resumeToken : lastEventId);
+    }
+}
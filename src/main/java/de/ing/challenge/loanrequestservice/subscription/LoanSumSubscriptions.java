@@ -0,0 +1,261 @@
+package de.ing.challenge.loanrequestservice.subscription;
+
+import de.ing.challenge.loanrequestservice.LoanRequestAcceptedEvent;
+import de.ing.challenge.loanrequestservice.LoanSumRepairedEvent;
+import de.ing.challenge.loanrequestservice.dto.LoanSumResponseDto;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed loan sum changes, including repairs of drifted sums, to Server-Sent Events subscribers.
+ * <p>
+ * Changes are coalesced per customer and flushed once per coalescing window. Each flushed update gets a sequence
+ * number, which is sent as SSE event id and serves as resume token: A client reconnecting with the id of the last
+ * event it has seen receives all updates it missed, as long as they are still contained in the bounded history.
+ * <p>
+ * Clients that cannot be brought up to date (because their buffer overflowed or their resume token is too old) receive
+ * a {@value #RESYNC_EVENT} event, upon which they should re-fetch the sums they are interested in.
+ */
+@Component
+@EnableConfigurationProperties(SubscriptionProperties.class)
+@Slf4j
+public class LoanSumSubscriptions {
+    static final String SUBSCRIBED_EVENT = "subscribed";
+    static final String UPDATE_EVENT = "loan-sum";
+    static final String RESYNC_EVENT = "resync";
+
+    @Nonnull
+    private final SubscriptionProperties properties;
+    @Nonnull
+    private final Executor sender;
+    @Nonnull
+    private final Map<Long, BigDecimal> pendingUpdates = new ConcurrentHashMap<>();
+    @Nonnull
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // guarded by itself
+    @Nonnull
+    private final Update[] history;
+    private long lastSequence = 0;
+
+    @Nullable
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public LoanSumSubscriptions(@Nonnull final SubscriptionProperties properties) {
+        this(properties, Executors.newFixedThreadPool(properties.getSenderThreads(), daemonThreadFactory("loan-sum-subscriptions-")));
+
+        final long window = properties.getCoalescingWindow().toNanos();
+        flusher = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("loan-sum-subscriptions-flush-"));
+        flusher.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.NANOSECONDS);
+    }
+
+    LoanSumSubscriptions(@Nonnull final SubscriptionProperties properties, @Nonnull final Executor sender) {
+        this.properties = properties;
+        this.sender = sender;
+        this.history = new Update[properties.getHistorySize()];
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoanRequestAccepted(@Nonnull final LoanRequestAcceptedEvent event) {
+        // events are published after commit, so the last one received carries the latest sum, even if it is lower
+        pendingUpdates.put(event.getCustomerId(), event.getLoanSum());
+    }
+
+    @EventListener
+    public void onLoanSumRepaired(@Nonnull final LoanSumRepairedEvent event) {
+        pendingUpdates.put(event.getCustomerId(), event.getLoanSum());
+    }
+
+    /**
+     * @param customerIds The customers to receive updates for; all customers if empty.
+     * @param resumeToken The id of the last event received by a previous subscription, if any.
+     */
+    @Nonnull
+    public SseEmitter subscribe(@Nonnull final Set<Long> customerIds, @Nullable final Long resumeToken) {
+        final SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        subscribe(emitter, customerIds, resumeToken);
+        return emitter;
+    }
+
+    void subscribe(@Nonnull final SseEmitter emitter, @Nonnull final Set<Long> customerIds, @Nullable final Long resumeToken) {
+        final Subscriber subscriber = new Subscriber(emitter, Set.copyOf(customerIds));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        try {
+            synchronized (history) {
+                final long oldestAvailable = Math.max(1, lastSequence - history.length + 1);
+                if (resumeToken == null) {
+                    emitter.send(SseEmitter.event().id(Long.toString(lastSequence)).name(SUBSCRIBED_EVENT).data(""));
+                } else if (resumeToken + 1 < oldestAvailable || resumeToken > lastSequence) {
+                    log.debug("Resume token {} is no longer available (oldest available: {}), requesting resync.", resumeToken, oldestAvailable);
+                    emitter.send(SseEmitter.event().id(Long.toString(lastSequence)).name(RESYNC_EVENT).data(""));
+                } else {
+                    emitter.send(SseEmitter.event().id(Long.toString(resumeToken)).name(SUBSCRIBED_EVENT).data(""));
+                    for (long sequence = resumeToken + 1; sequence <= lastSequence; sequence++) {
+                        subscriber.offer(history[historyIndex(sequence)]);
+                    }
+                }
+
+                subscribers.add(subscriber);
+            }
+        } catch (final IOException e) {
+            emitter.completeWithError(e);
+            return;
+        }
+
+        subscriber.scheduleDrain();
+    }
+
+    /**
+     * Assigns sequence numbers to all pending updates and hands them to the subscribers.
+     */
+    void flush() {
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+
+        synchronized (history) {
+            for (final Long customerId : pendingUpdates.keySet()) {
+                final BigDecimal loanSum = pendingUpdates.remove(customerId);
+                if (loanSum == null) {
+                    continue;
+                }
+
+                final Update update = new Update(++lastSequence, new LoanSumResponseDto(customerId, loanSum));
+                history[historyIndex(update.sequence())] = update;
+                subscribers.forEach(subscriber -> subscriber.offer(update));
+            }
+        }
+
+        subscribers.forEach(Subscriber::scheduleDrain);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private int historyIndex(final long sequence) {
+        return (int) (sequence % history.length);
+    }
+
+    @Nonnull
+    private static CustomizableThreadFactory daemonThreadFactory(@Nonnull final String threadNamePrefix) {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private record Update(long sequence, @Nonnull LoanSumResponseDto loanSum) {
+    }
+
+    private final class Subscriber {
+        @Nonnull
+        private final SseEmitter emitter;
+        @Nonnull
+        private final Set<Long> customerIds;
+        @Nonnull
+        private final BlockingQueue<Update> buffer = new ArrayBlockingQueue<>(properties.getSubscriberBufferSize());
+        @Nonnull
+        private final AtomicLong pendingResync = new AtomicLong(-1);
+        @Nonnull
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        private Subscriber(@Nonnull final SseEmitter emitter, @Nonnull final Set<Long> customerIds) {
+            this.emitter = emitter;
+            this.customerIds = customerIds;
+        }
+
+        /**
+         * Must only be called while holding the history lock.
+         */
+        private void offer(@Nonnull final Update update) {
+            if (!customerIds.isEmpty() && !customerIds.contains(update.loanSum().getCustomerId())) {
+                return;
+            }
+
+            if (!buffer.offer(update)) {
+                // the subscriber is too slow, so we drop everything it has not received yet and ask it to resync
+                buffer.clear();
+                pendingResync.set(update.sequence());
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    final long resync = pendingResync.getAndSet(-1);
+                    if (resync >= 0) {
+                        emitter.send(SseEmitter.event().id(Long.toString(resync)).name(RESYNC_EVENT).data(""));
+                    }
+
+                    final Update update = buffer.poll();
+                    if (update == null) {
+                        break;
+                    }
+
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(update.sequence()))
+                            .name(UPDATE_EVENT)
+                            .data(update.loanSum(), MediaType.APPLICATION_JSON));
+                }
+            } catch (final IOException | IllegalStateException e) {
+                log.debug("Unable to send loan sum updates, closing subscription.", e);
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+
+            // updates might have been offered after the last poll, but before the draining flag was reset
+            if (!buffer.isEmpty() || pendingResync.get() >= 0) {
+                scheduleDrain();
+            }
+        }
+    }
+}
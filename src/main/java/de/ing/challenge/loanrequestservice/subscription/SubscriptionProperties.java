@@ -0,0 +1,36 @@
+package de.ing.challenge.loanrequestservice.subscription;
+
+import jakarta.annotation.Nonnull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "loan-request-service.subscriptions")
+@Data
+public class SubscriptionProperties {
+    /**
+     * Updates of the same customer within this window are sent as a single update.
+     */
+    @Nonnull
+    private Duration coalescingWindow = Duration.ofMillis(100);
+
+    /**
+     * The maximum number of updates buffered per subscriber. If a subscriber falls further behind, its buffer is
+     * dropped and it is asked to resync.
+     */
+    private int subscriberBufferSize = 1_024;
+
+    /**
+     * The number of most recent updates kept for clients resuming a subscription.
+     */
+    private int historySize = 16_384;
+
+    /**
+     * Subscriptions are closed after this time; clients are expected to reconnect with their resume token.
+     */
+    @Nonnull
+    private Duration timeout = Duration.ofMinutes(30);
+
+    private int senderThreads = 4;
+}
@@ -0,0 +1,83 @@
+package de.ing.challenge.loanrequestservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerRegistryTest {
+
+    @Test
+    void lookup_WithUnknownCustomer_ReturnsUnknown() {
+        final CustomerRegistry sut = new CustomerRegistry();
+
+        assertThat(sut.lookup(42, "Customer")).isEqualTo(CustomerRegistry.Match.UNKNOWN);
+    }
+
+    @Test
+    void lookup_WithRegisteredCustomer_ComparesFullName() {
+        final CustomerRegistry sut = new CustomerRegistry();
+        sut.register(42, "Customer");
+
+        assertThat(sut.lookup(42, "Customer")).isEqualTo(CustomerRegistry.Match.MATCHES);
+        assertThat(sut.lookup(42, "Customer Bar")).isEqualTo(CustomerRegistry.Match.MISMATCHES);
+        assertThat(sut.lookup(43, "Customer")).isEqualTo(CustomerRegistry.Match.UNKNOWN);
+    }
+
+    @Test
+    void register_WithManyCustomers_GrowsAndKeepsAllEntries() {
+        final CustomerRegistry sut = new CustomerRegistry();
+        LongStream.range(0, 10_000).forEach(id -> sut.register(id * 31, "Customer " + id));
+        sut.register(0, "Customer 0");
+
+        assertThat(sut.size()).isEqualTo(10_000);
+        LongStream.range(0, 10_000).forEach(id -> assertThat(sut.lookup(id * 31, "Customer " + id))
+                .isEqualTo(CustomerRegistry.Match.MATCHES));
+    }
+
+    @Test
+    void lookup_WhileRegisteringConcurrently_NeverReportsMismatches() throws Exception {
+        final CustomerRegistry sut = new CustomerRegistry();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                final long offset = writer;
+                futures.add(executor.submit(() -> LongStream.range(0, 20_000)
+                        .forEach(id -> sut.register(id * 2 + offset, "Customer " + (id * 2 + offset)))));
+            }
+
+            for (int reader = 0; reader < 2; reader++) {
+                futures.add(executor.submit(() -> LongStream.range(0, 40_000).forEach(id ->
+                        assertThat(sut.lookup(id, "Customer " + id)).isNotEqualTo(CustomerRegistry.Match.MISMATCHES))));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(sut.size()).isEqualTo(40_000);
+    }
+
+    @Test
+    void reset_RemovesAllEntries() {
+        final CustomerRegistry sut = new CustomerRegistry();
+        sut.register(42, "Customer");
+
+        sut.reset();
+
+        assertThat(sut.size()).isZero();
+        assertThat(sut.lookup(42, "Customer")).isEqualTo(CustomerRegistry.Match.UNKNOWN);
+    }
+}
@@ -0,0 +1,116 @@
+package de.ing.challenge.loanrequestservice;
+
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import jakarta.annotation.Nonnull;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerWriteSequencerTest {
+    @Test
+    @SneakyThrows
+    void execute_WithSameCustomer_RunsOneCallAtATime() {
+        final CustomerWriteSequencer sut = new CustomerWriteSequencer(new SequencerProperties());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(() -> sut.execute(42L, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    return running.decrementAndGet();
+                })));
+            }
+            for (final Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxRunning).hasValue(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void execute_WithDifferentCustomers_RunsCallsInParallel() {
+        final CustomerWriteSequencer sut = new CustomerWriteSequencer(new SequencerProperties());
+        assertThat(CustomerWriteSequencer.stripeOf(1, 1_024)).isNotEqualTo(CustomerWriteSequencer.stripeOf(2, 1_024));
+        // both calls only complete if they run at the same time
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> first = executor.submit(() -> sut.execute(1L, () -> await(barrier)));
+            final Future<?> second = executor.submit(() -> sut.execute(2L, () -> await(barrier)));
+
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void execute_WhenPreviousWriteDoesNotComplete_IsRejected() {
+        final SequencerProperties properties = new SequencerProperties();
+        properties.setMaxWait(Duration.ofMillis(50));
+        final CustomerWriteSequencer sut = new CustomerWriteSequencer(properties);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> previous = executor.submit(() -> sut.execute(42L, () -> {
+                started.countDown();
+                return await(release);
+            }));
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> sut.execute(42L, () -> null))
+                    .isInstanceOf(AdmissionRejectedException.class)
+                    .extracting(e -> ((AdmissionRejectedException) e).getRetryAfter()).isEqualTo(Duration.ofSeconds(1));
+
+            release.countDown();
+            previous.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sut.execute(42L, () -> "next")).isEqualTo("next");
+    }
+
+    @Test
+    void execute_WithoutCustomerId_RunsCall() {
+        final CustomerWriteSequencer sut = new CustomerWriteSequencer(new SequencerProperties());
+
+        assertThat(sut.execute(null, () -> "invalid")).isEqualTo("invalid");
+    }
+
+    @SneakyThrows
+    private static boolean await(@Nonnull final CountDownLatch latch) {
+        return latch.await(10, TimeUnit.SECONDS);
+    }
+
+    @SneakyThrows
+    private static int await(@Nonnull final CyclicBarrier barrier) {
+        return barrier.await(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,26 @@
+package de.ing.challenge.loanrequestservice;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashingTest {
+
+    @Test
+    void fnv1a_MatchesReferenceValues() {
+        assertThat(Hashing.fnv1a("")).isEqualTo(0xcbf29ce484222325L);
+        assertThat(Hashing.fnv1a("a")).isEqualTo(0xaf63dc4c8601ec8cL);
+        assertThat(Hashing.fnv1a("foobar")).isEqualTo(0x85944171f73967e8L);
+    }
+
+    @Test
+    void fnv1a_HashesNonAsciiCharactersAsUnsignedBytes() {
+        assertThat(Hashing.fnv1a("ä")).isEqualTo((((0xcbf29ce484222325L ^ 0xc3) * 0x100000001b3L) ^ 0xa4) * 0x100000001b3L);
+    }
+
+    @Test
+    void mix_SpreadsConsecutiveValues() {
+        assertThat(Hashing.mix(0)).isZero();
+        assertThat(Long.bitCount(Hashing.mix(1) ^ Hashing.mix(2))).isBetween(16, 48);
+    }
+}
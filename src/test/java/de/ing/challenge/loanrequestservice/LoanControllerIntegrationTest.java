@@ -1,9 +1,16 @@
 package de.ing.challenge.loanrequestservice;
 
+import com.jayway.jsonpath.JsonPath;
 import de.ing.challenge.loanrequestservice.dao.Customer;
 import de.ing.challenge.loanrequestservice.dao.CustomerDao;
 import de.ing.challenge.loanrequestservice.dao.LoanRequest;
 import de.ing.challenge.loanrequestservice.dao.LoanRequestDao;
+import de.ing.challenge.loanrequestservice.deduplication.LoanRequestDeduplicator;
+import de.ing.challenge.loanrequestservice.portfolio.PortfolioDistribution;
+import de.ing.challenge.loanrequestservice.search.CustomerNameIndex;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,18 +19,33 @@ import org.junit.jupiter.api.parallel.ResourceLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -40,13 +62,36 @@ class LoanControllerIntegrationTest {
     private LoanRequestDao loanRequestDao;
     @Autowired
     private LoanSumCache loanSumCache;
+    @Autowired
+    private CustomerRegistry customerRegistry;
+    @Autowired
+    private RollingLoanSumCache rollingLoanSumCache;
+    @Autowired
+    private LoanSumRanking loanSumRanking;
+    @Autowired
+    private PortfolioDistribution portfolioDistribution;
+    @Autowired
+    private LoanRequestDeduplicator loanRequestDeduplicator;
+    @Autowired
+    private LoanStore loanStore;
+    @Autowired
+    private ExposureProperties exposureProperties;
+    @Autowired
+    private CustomerNameIndex customerNameIndex;
 
     @BeforeEach
     @AfterEach
     void cleanDatabase() {
-        loanRequestDao.deleteAll();
-        customerDao.deleteAll();
+        // bulk deletes, since cascading the deletion of a loan request to its customer fails for customers with several
+        loanRequestDao.deleteAllInBatch();
+        customerDao.deleteAllInBatch();
         loanSumCache.reset();
+        customerRegistry.reset();
+        rollingLoanSumCache.reset();
+        loanSumRanking.reset();
+        loanRequestDeduplicator.clear();
+        exposureProperties.setLimit(null);
+        customerNameIndex.clear();
     }
 
     @Test
@@ -73,6 +118,30 @@ class LoanControllerIntegrationTest {
         assertThat(loanRequestDao.existsById(id)).isTrue();
     }
 
+    @Test
+    @SneakyThrows
+    void createLoanRequest_WithRetriedRequest_IsAcceptedOnce_AndMismatchIsRejected() {
+        createLoanRequest(42, "1337.42", 1337);
+        createLoanRequest(42, "1337.42", 1337);
+
+        mvc.perform(post("/api/v1/loan-requests")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                   "id": 42,
+                                   "amount": 1337.43,
+                                   "customerId": 1337,
+                                   "customerFullName": "Customer 1337"
+                                 }"""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("The loan request id is already in use."));
+
+        assertThat(loanRequestDao.count()).isEqualTo(1);
+        mvc.perform(get("/api/v1/loan-requests/sum/1337"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sum").value(1337.42));
+    }
+
     @Test
     @SneakyThrows
     void createLoanRequest_ConstrainViolation() {
@@ -97,6 +166,72 @@ class LoanControllerIntegrationTest {
         assertThat(loanRequestDao.existsById(id)).isFalse();
     }
 
+    @Test
+    @SneakyThrows
+    void getLoanRequests_PagesThroughLoanRequestsOfCustomer() {
+        final Customer customer = customerDao.saveAndFlush(new Customer(42, "Customer"));
+        final Customer otherCustomer = customerDao.saveAndFlush(new Customer(43, "Other Customer"));
+        for (long id = 5; id >= 1; id--) {
+            loanRequestDao.saveAndFlush(new LoanRequest(id, new BigDecimal("%d00.00".formatted(id + 4)), customer));
+        }
+        loanRequestDao.saveAndFlush(new LoanRequest(6, new BigDecimal("1000.00"), otherCustomer));
+
+        final MvcResult firstPage = mvc.perform(get("/api/v1/loan-requests").param("customerId", "42").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.customerId").value(42))
+                .andExpect(jsonPath("$.loanRequests.length()").value(2))
+                .andExpect(jsonPath("$.loanRequests[0].id").value(1))
+                .andExpect(jsonPath("$.loanRequests[0].amount").value(500.0))
+                .andExpect(jsonPath("$.loanRequests[1].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn();
+
+        final MvcResult secondPage = mvc.perform(get("/api/v1/loan-requests").param("customerId", "42").param("limit", "2")
+                        .param("after", nextCursorOf(firstPage)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loanRequests[0].id").value(3))
+                .andExpect(jsonPath("$.loanRequests[1].id").value(4))
+                .andReturn();
+
+        mvc.perform(get("/api/v1/loan-requests").param("customerId", "42").param("limit", "2")
+                        .param("after", nextCursorOf(secondPage)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loanRequests.length()").value(1))
+                .andExpect(jsonPath("$.loanRequests[0].id").value(5))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        // cursors are bound to the customer they were issued for
+        mvc.perform(get("/api/v1/loan-requests").param("customerId", "43").param("after", nextCursorOf(firstPage)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SneakyThrows
+    void getLoanRequests_InvalidParameters() {
+        mvc.perform(get("/api/v1/loan-requests").param("customerId", "42").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/v1/loan-requests").param("customerId", "42").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/v1/loan-requests").param("customerId", "42").param("limit", "501"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SneakyThrows
+    void getLoanRequests_UnknownCustomer_ReturnsEmptyPage() {
+        mvc.perform(get("/api/v1/loan-requests").param("customerId", "42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loanRequests").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Nonnull
+    @SneakyThrows
+    private static String nextCursorOf(@Nonnull final MvcResult page) {
+        return JsonPath.read(page.getResponse().getContentAsString(), "$.nextCursor");
+    }
+
     @Test
     @SneakyThrows
     @Transactional
@@ -114,6 +249,331 @@ class LoanControllerIntegrationTest {
                 .andExpect(jsonPath("$.sum").value("13.37"));
     }
 
+    @Test
+    @SneakyThrows
+    @Transactional
+    void getLoanStatisticsByCustomerId_Success() {
+        final Customer customer = new Customer(42, "Customer");
+        customerDao.saveAndFlush(customer);
+        loanRequestDao.saveAndFlush(new LoanRequest(1337, new BigDecimal("500.00"), customer));
+        loanRequestDao.saveAndFlush(new LoanRequest(1338, new BigDecimal("1000.00"), customer));
+        loanRequestDao.saveAndFlush(new LoanRequest(1339, new BigDecimal("2000.01"), customer));
+
+        mvc.perform(get("/api/v1/loan-requests/stats/%s".formatted(customer.getId())))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.customerId").value(customer.getId()))
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.sum").value(3500.01))
+                .andExpect(jsonPath("$.min").value(500.0))
+                .andExpect(jsonPath("$.max").value(2000.01))
+                .andExpect(jsonPath("$.average").value(1166.67));
+    }
+
+    @Test
+    @SneakyThrows
+    void getLoanStatisticsByCustomerId_CustomerNotFound() {
+        mvc.perform(get("/api/v1/loan-requests/stats/42"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @SneakyThrows
+    void getTopCustomersByLoanSum_Success() {
+        createLoanRequest(1, "1000.00", 42);
+        createLoanRequest(2, "700.00", 43);
+        createLoanRequest(3, "600.00", 43);
+        createLoanRequest(4, "500.00", 44);
+
+        mvc.perform(get("/api/v1/loan-requests/top").param("n", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].customerId").value(43))
+                .andExpect(jsonPath("$[0].sum").value(1300.0))
+                .andExpect(jsonPath("$[1].customerId").value(42))
+                .andExpect(jsonPath("$[1].sum").value(1000.0));
+    }
+
+    @Test
+    @SneakyThrows
+    void getTopCustomersByLoanSum_AfterResync_ContainsLoanRequestsCreatedElsewhere() {
+        final Customer customer = customerDao.saveAndFlush(new Customer(42, "Customer"));
+        loanRequestDao.saveAndFlush(new LoanRequest(1337, new BigDecimal("2000.00"), customer));
+        loanRequestDao.saveAndFlush(new LoanRequest(1338, new BigDecimal("3000.00"), customer));
+
+        loanSumRanking.resync();
+
+        mvc.perform(get("/api/v1/loan-requests/top"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].customerId").value(42))
+                .andExpect(jsonPath("$[0].sum").value(5000.0));
+    }
+
+    @Test
+    @SneakyThrows
+    void getTopCustomersByLoanSum_InvalidN() {
+        mvc.perform(get("/api/v1/loan-requests/top").param("n", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SneakyThrows
+    void getPortfolio_Success() {
+        final Customer customer = customerDao.saveAndFlush(new Customer(42, "Customer"));
+        loanRequestDao.saveAndFlush(new LoanRequest(1337, new BigDecimal("500.25"), customer));
+        loanRequestDao.saveAndFlush(new LoanRequest(1338, new BigDecimal("500.75"), customer));
+        portfolioDistribution.start();
+
+        createLoanRequest(1339, "2000.00", 43);
+
+        mvc.perform(get("/api/v1/loan-requests/portfolio"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.volume").value(3001.0))
+                .andExpect(jsonPath("$.percentiles.p50").value(500.0))
+                .andExpect(jsonPath("$.percentiles.p99").value(2000.0))
+                .andExpect(jsonPath("$.buckets.length()").value(2))
+                .andExpect(jsonPath("$.buckets[0].lowerBound").value(500.0))
+                .andExpect(jsonPath("$.buckets[0].count").value(2))
+                .andExpect(jsonPath("$.buckets[1].lowerBound").value(2000.0))
+                .andExpect(jsonPath("$.buckets[1].count").value(1));
+    }
+
+    @Test
+    @SneakyThrows
+    void createLoanRequest_WithConcurrentRequestsOfNewCustomer_AcceptsAll() {
+        final int threads = 8;
+        final int requestsPerThread = 5;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final int firstId = 1 + thread * requestsPerThread;
+                futures.add(executor.submit(() -> {
+                    assertThat(start.await(10, TimeUnit.SECONDS)).isTrue();
+                    for (int id = firstId; id < firstId + requestsPerThread; id++) {
+                        createLoanRequest(id, "1000.00", 1337);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(customerDao.count()).isEqualTo(1);
+        assertThat(loanRequestDao.count()).isEqualTo(threads * requestsPerThread);
+        mvc.perform(get("/api/v1/loan-requests/sum/1337"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sum").value(threads * requestsPerThread * 1000.0));
+    }
+
+    @Test
+    @SneakyThrows
+    void createLoanRequest_WithConcurrentRequestsBeyondExposureLimit_AcceptsOnlyUpToLimit() {
+        exposureProperties.setLimit(new BigDecimal("10000.00"));
+        final int threads = 8;
+        final int requestsPerThread = 5;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Integer> statuses = Collections.synchronizedList(new ArrayList<>());
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final int firstId = 1 + thread * requestsPerThread;
+                futures.add(executor.submit(() -> {
+                    assertThat(start.await(10, TimeUnit.SECONDS)).isTrue();
+                    for (int id = firstId; id < firstId + requestsPerThread; id++) {
+                        final MvcResult result = postLoanRequest(id, "1000.00", 1337).andReturn();
+                        statuses.add(result.getResponse().getStatus());
+                        if (result.getResponse().getStatus() == HttpStatus.BAD_REQUEST.value()) {
+                            assertThat(result.getResponse().getContentAsString())
+                                    .contains("The loan request would exceed the exposure limit of the customer.");
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(statuses).filteredOn(status -> status == HttpStatus.OK.value()).hasSize(10);
+        assertThat(statuses).filteredOn(status -> status == HttpStatus.BAD_REQUEST.value()).hasSize(threads * requestsPerThread - 10);
+        assertThat(loanRequestDao.count()).isEqualTo(10);
+        mvc.perform(get("/api/v1/loan-requests/sum/1337"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sum").value(10000.0));
+    }
+
+    @Test
+    @SneakyThrows
+    void searchCustomers_ReturnsMatchingCustomersWithLoanSums() {
+        createLoanRequest(1, "1000.00", 42);
+        createLoanRequest(2, "700.00", 42);
+        createLoanRequest(3, "600.00", 43);
+        createLoanRequest(4, "500.00", 1337);
+
+        mvc.perform(get("/api/v1/customers/search?q=customer 4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].customerId").value(42))
+                .andExpect(jsonPath("$[0].sum").value(1700.0))
+                .andExpect(jsonPath("$[1].customerId").value(43))
+                .andExpect(jsonPath("$[1].sum").value(600.0));
+        mvc.perform(get("/api/v1/customers/search?q=MER 13&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].customerId").value(1337));
+    }
+
+    @Test
+    @SneakyThrows
+    void searchCustomers_WithUncachedLoanSums_DoesNotCacheThem() {
+        createLoanRequest(1, "1000.00", 42);
+        createLoanRequest(2, "600.00", 43);
+        loanSumCache.reset();
+        loanSumCache.get(43);
+
+        mvc.perform(get("/api/v1/customers/search?q=customer 4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].customerId").value(42))
+                .andExpect(jsonPath("$[0].sum").value(1000.0))
+                .andExpect(jsonPath("$[1].customerId").value(43))
+                .andExpect(jsonPath("$[1].sum").value(600.0));
+        assertThat(loanSumCache.getStatistics()).containsOnlyKeys(43L);
+    }
+
+    @Test
+    @SneakyThrows
+    void searchCustomers_InvalidParameters() {
+        mvc.perform(get("/api/v1/customers/search?q=ab"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("q must contain at least 3 characters."));
+        mvc.perform(get("/api/v1/customers/search?q=abc&limit=0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SneakyThrows
+    void findLoanStatisticsByCustomerIdAfter_AggregatesChunkOfCustomers() {
+        createLoanRequest(1, "1000.00", 42);
+        createLoanRequest(2, "700.00", 43);
+        createLoanRequest(3, "600.00", 43);
+        createLoanRequest(4, "500.00", 44);
+
+        final NavigableMap<Long, LoanStatistics> chunk = loanStore.findLoanStatisticsByCustomerIdAfter(42, 1);
+
+        assertThat(chunk).containsExactly(Map.entry(43L, new LoanStatistics(2, 130_000, 60_000, 70_000)));
+        assertThat(loanStore.findLoanStatisticsByCustomerIdAfter(43, 10)).containsOnlyKeys(44L);
+
+        mvc.perform(get("/api/v1/reconciler"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.paused").value(false));
+    }
+
+    @SneakyThrows
+    private void createLoanRequest(final long id, @Nonnull final String amount, final long customerId) {
+        postLoanRequest(id, amount, customerId).andExpect(status().isOk());
+    }
+
+    @Nonnull
+    @SneakyThrows
+    private ResultActions postLoanRequest(final long id, @Nonnull final String amount, final long customerId) {
+        final String payload = """
+                {
+                   "id": %d,
+                   "amount": %s,
+                   "customerId": %d,
+                   "customerFullName": "Customer %d"
+                 }""".formatted(id, amount, customerId, customerId);
+
+        return mvc.perform(post("/api/v1/loan-requests").contentType(MediaType.APPLICATION_JSON).content(payload));
+    }
+
+    @Test
+    @SneakyThrows
+    void getRollingLoanSumByCustomerId_Success() {
+        final Customer customer = new Customer(42, "Customer");
+        customerDao.saveAndFlush(customer);
+
+        loanRequestDao.saveAndFlush(new LoanRequest(1, new BigDecimal("1000.00"), customer, Instant.now().minus(Duration.ofHours(1))));
+        loanRequestDao.saveAndFlush(new LoanRequest(2, new BigDecimal("2000.00"), customer, Instant.now().minus(Duration.ofDays(3))));
+        loanRequestDao.saveAndFlush(new LoanRequest(3, new BigDecimal("4000.00"), customer, Instant.now().minus(Duration.ofDays(60))));
+
+        mvc.perform(get("/api/v1/loan-requests/sum/%s/rolling/24h".formatted(customer.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId").value(customer.getId()))
+                .andExpect(jsonPath("$.window").value("24h"))
+                .andExpect(jsonPath("$.sum").value("1000.0"));
+
+        mvc.perform(get("/api/v1/loan-requests/sum/%s/rolling/30d".formatted(customer.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sum").value("3000.0"));
+    }
+
+    @Test
+    @SneakyThrows
+    void getRollingLoanSumByCustomerId_UnknownWindow() {
+        mvc.perform(get("/api/v1/loan-requests/sum/42/rolling/7d"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SneakyThrows
+    void getLoanSumByCustomerIdAsOf_Success() {
+        final Customer customer = new Customer(42, "Customer");
+        customerDao.saveAndFlush(customer);
+
+        loanRequestDao.saveAndFlush(new LoanRequest(1, new BigDecimal("1000.00"), customer, Instant.parse("2024-03-01T10:00:00Z")));
+        loanRequestDao.saveAndFlush(new LoanRequest(2, new BigDecimal("2000.00"), customer, Instant.parse("2024-03-02T10:00:00Z")));
+
+        mvc.perform(get("/api/v1/loan-requests/sum/%s/as-of".formatted(customer.getId())).param("at", "2024-03-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId").value(customer.getId()))
+                .andExpect(jsonPath("$.sum").value("1000.0"));
+
+        mvc.perform(get("/api/v1/loan-requests/sum/%s/as-of".formatted(customer.getId())).param("at", "2024-03-02T10:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.asOf").value("2024-03-02T10:00:00Z"))
+                .andExpect(jsonPath("$.sum").value("3000.0"));
+
+        mvc.perform(get("/api/v1/loan-requests/sum/%s/as-of".formatted(customer.getId())).param("at", "2024-02-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sum").value("0"));
+    }
+
+    @Test
+    @SneakyThrows
+    void getLoanSumByCustomerIdAsOf_InvalidPointInTime() {
+        mvc.perform(get("/api/v1/loan-requests/sum/42/as-of").param("at", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SneakyThrows
+    void getLoanSumByCustomerIdAsOf_CustomerNotFound() {
+        mvc.perform(get("/api/v1/loan-requests/sum/42/as-of").param("at", "2024-03-01"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @SneakyThrows
     void getLoanSumByCustomerId_CustomerNotFound() {
@@ -137,4 +597,49 @@ class LoanControllerIntegrationTest {
 
         assertThat(result.getResponse().getContentAsString()).isEmpty();
     }
+
+    @Test
+    @SneakyThrows
+    void subscribeToLoanSums_ReceivesCommittedUpdates() {
+        final MvcResult subscription = mvc.perform(get("/api/v1/loan-requests/sum/subscriptions?customerId=1337"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(post("/api/v1/loan-requests")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                   "id": 42,
+                                   "amount": 1337.42,
+                                   "customerId": 1337,
+                                   "customerFullName": "Customer Full Name"
+                                 }"""))
+                .andExpect(status().isOk());
+
+        await(() -> assertThat(subscription.getResponse().getContentAsString())
+                .contains("event:subscribed")
+                .contains("event:loan-sum")
+                .contains("{\"customerId\":1337,\"sum\":1337.42}"));
+    }
+
+    @SneakyThrows
+    private static void await(@Nonnull final ThrowingRunnable assertion) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (final AssertionError e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
 }
@@ -1,15 +1,22 @@
 package de.ing.challenge.loanrequestservice;
 
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import de.ing.challenge.loanrequestservice.cluster.ClusterRouter;
 import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.deduplication.LoanRequestDeduplicator;
 import de.ing.challenge.loanrequestservice.dto.BadRequestResponseDto;
 import de.ing.challenge.loanrequestservice.dto.LoanRequestDto;
 import de.ing.challenge.loanrequestservice.dto.LoanSumResponseDto;
+import jakarta.annotation.Nonnull;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.NoSuchElementException;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,7 +33,7 @@ class LoanControllerTest {
         final LoanService loanService = mock(LoanService.class);
         when(loanService.createLoanRequest(any())).thenReturn(mock(LoanRequest.class));
 
-        final LoanController sut = new LoanController(loanService);
+        final LoanController sut = createSut(loanService);
 
         final ResponseEntity<?> response = sut.createLoanRequest(LOAN_REQUEST_DTO);
 
@@ -39,7 +46,7 @@ class LoanControllerTest {
         final LoanService loanService = mock(LoanService.class);
         when(loanService.createLoanRequest(any())).thenThrow(new ConstraintViolationException("message", null));
 
-        final LoanController sut = new LoanController(loanService);
+        final LoanController sut = createSut(loanService);
 
         final ResponseEntity<?> response = sut.createLoanRequest(LOAN_REQUEST_DTO);
 
@@ -56,7 +63,7 @@ class LoanControllerTest {
         final LoanService loanService = mock(LoanService.class);
         when(loanService.createLoanRequest(any())).thenThrow(new IllegalStateException("some exception"));
 
-        final LoanController sut = new LoanController(loanService);
+        final LoanController sut = createSut(loanService);
 
         final ResponseEntity<?> response = sut.createLoanRequest(LOAN_REQUEST_DTO);
 
@@ -72,7 +79,7 @@ class LoanControllerTest {
         final LoanService loanService = mock(LoanService.class);
         when(loanService.getLoanSumByCustomerId(anyLong())).thenReturn(BigDecimal.TEN);
 
-        final LoanController sut = new LoanController(loanService);
+        final LoanController sut = createSut(loanService);
 
         final ResponseEntity<?> response = sut.getLoanSumByCustomerId(customerId);
 
@@ -90,7 +97,7 @@ class LoanControllerTest {
         final LoanService loanService = mock(LoanService.class);
         when(loanService.getLoanSumByCustomerId(anyLong())).thenThrow(new NoSuchElementException("customer id not found"));
 
-        final LoanController sut = new LoanController(loanService);
+        final LoanController sut = createSut(loanService);
 
         final ResponseEntity<?> response = sut.getLoanSumByCustomerId(LOAN_REQUEST_DTO.getCustomerId());
 
@@ -103,11 +110,44 @@ class LoanControllerTest {
         final LoanService loanService = mock(LoanService.class);
         when(loanService.getLoanSumByCustomerId(anyLong())).thenThrow(new IllegalStateException("some message"));
 
-        final LoanController sut = new LoanController(loanService);
+        final LoanController sut = createSut(loanService);
 
         final ResponseEntity<?> response = sut.getLoanSumByCustomerId(LOAN_REQUEST_DTO.getCustomerId());
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
         assertThat(response.getBody()).isNull();
     }
+
+    @Test
+    void createLoanRequest_HandlesAdmissionRejectedException() {
+        final LoanService loanService = mock(LoanService.class);
+        when(loanService.createLoanRequest(any())).thenThrow(new AdmissionRejectedException("some message", Duration.ofSeconds(3)));
+
+        final LoanController sut = createSut(loanService);
+
+        final ResponseEntity<?> response = sut.createLoanRequest(LOAN_REQUEST_DTO);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void getLoanSumByCustomerId_HandlesAdmissionRejectedException() {
+        final LoanService loanService = mock(LoanService.class);
+        when(loanService.getLoanSumByCustomerId(anyLong())).thenThrow(new AdmissionRejectedException("some message", Duration.ofMillis(10)));
+
+        final LoanController sut = createSut(loanService);
+
+        final ResponseEntity<?> response = sut.getLoanSumByCustomerId(LOAN_REQUEST_DTO.getCustomerId());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Nonnull
+    private static LoanController createSut(@Nonnull final LoanService loanService) {
+        return new LoanController(loanService, mock(ClusterRouter.class), AdmissionControl.unlimited(), LoanRequestDeduplicator.disabled(),
+                new CustomerWriteSequencer(new SequencerProperties()));
+    }
 }
@@ -1,10 +1,16 @@
 package de.ing.challenge.loanrequestservice;
 
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.dao.ArchivedLoanRequestDao;
 import de.ing.challenge.loanrequestservice.dao.Customer;
 import de.ing.challenge.loanrequestservice.dao.CustomerDao;
 import de.ing.challenge.loanrequestservice.dao.LoanRequest;
 import de.ing.challenge.loanrequestservice.dao.LoanRequestDao;
 import de.ing.challenge.loanrequestservice.dto.LoanRequestDto;
+import de.ing.challenge.loanrequestservice.search.CustomerNameIndex;
+import de.ing.challenge.loanrequestservice.store.JpaLoanStore;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
 import jakarta.annotation.Nonnull;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
@@ -14,9 +20,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.parallel.ResourceLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -26,10 +35,14 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -48,6 +61,8 @@ class LoanServiceTest {
     private LoanSumCache loanSumCache;
     @Autowired
     private LoanRequestDao loanRequestDao;
+    @Autowired
+    private ArchivedLoanRequestDao archivedLoanRequestDao;
 
     @BeforeEach
     @AfterEach
@@ -160,14 +175,13 @@ class LoanServiceTest {
 
     @Test
     void createLoanRequest_WithNewLoan_UpdatesLoanSumCache() {
-        final LoanSumCache loanSumCache = mock(LoanSumCache.class);
-        doAnswer(invocation -> invocation.getArgument(1, BigDecimal.class)).when(loanSumCache).insertOrAdd(anyLong(), any());
+        final LoanSumCache loanSumCache = mockLoanSumCache();
 
         final LoanService sut = createSut(loanSumCache);
 
         final LoanRequest loanRequest = sut.createLoanRequest(LOAN_REQUEST_DTO);
 
-        verify(loanSumCache).insertOrAdd(eq(LOAN_REQUEST_DTO.getCustomerId()), same(LOAN_REQUEST_DTO.getAmount()));
+        verify(loanSumCache).tryReserve(eq(LOAN_REQUEST_DTO.getCustomerId()), same(LOAN_REQUEST_DTO.getAmount()), isNull());
     }
 
     @Test
@@ -182,7 +196,52 @@ class LoanServiceTest {
 
         final LoanRequest loanRequest = sut.createLoanRequest(LOAN_REQUEST_DTO);
 
-        verify(loanSumCache, never()).insertOrAdd(anyLong(), any());
+        verify(loanSumCache, never()).tryReserve(anyLong(), any(), any());
+    }
+
+    @Test
+    void createLoanRequest_WithNewLoan_PublishesEvent() {
+        final LoanSumCache loanSumCache = mock(LoanSumCache.class);
+        when(loanSumCache.tryReserve(anyLong(), any(), any()))
+                .thenReturn(Optional.of(new LoanSumCache.Reservation(LOAN_REQUEST_DTO.getCustomerId(), null, LoanStatistics.of(BigDecimal.TEN))));
+        final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+        final LoanService sut = createSut(loanSumCache, eventPublisher);
+
+        sut.createLoanRequest(LOAN_REQUEST_DTO);
+
+        verify(eventPublisher).publishEvent(new LoanRequestAcceptedEvent(
+                LOAN_REQUEST_DTO.getId(), LOAN_REQUEST_DTO.getCustomerId(), LOAN_REQUEST_DTO.getAmount(), new BigDecimal("10.00")));
+    }
+
+    @Test
+    @Transactional
+    void createLoanRequest_WithExistingLoan_DoesNotPublishEvent() {
+        final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+        final Customer customer = persistCustomer(LOAN_REQUEST_DTO);
+        persistLoanRequest(new LoanRequest(LOAN_REQUEST_DTO.getId(), LOAN_REQUEST_DTO.getAmount(), customer));
+
+        final LoanService sut = createSut(mock(LoanSumCache.class), eventPublisher);
+
+        sut.createLoanRequest(LOAN_REQUEST_DTO);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void createLoanRequest_BeyondExposureLimit_LeadsToException() {
+        final LoanSumCache loanSumCache = mock(LoanSumCache.class);
+        when(loanSumCache.tryReserve(anyLong(), any(), any())).thenReturn(Optional.empty());
+        final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+        final LoanService sut = createSut(loanSumCache, eventPublisher);
+
+        assertThatThrownBy(() -> sut.createLoanRequest(LOAN_REQUEST_DTO))
+                .isExactlyInstanceOf(ConstraintViolationException.class)
+                .hasMessageContaining("The loan request would exceed the exposure limit of the customer.");
+        assertThat(loanRequestDao.findById(LOAN_REQUEST_DTO.getId())).isEmpty();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -196,14 +255,115 @@ class LoanServiceTest {
                 .hasMessageContaining("must be at least 0.");
     }
 
+    @Test
+    @Transactional
+    void createLoanRequest_WithRegisteredCustomer_DoesNotReadCustomer() {
+        final CustomerRegistry customerRegistry = new CustomerRegistry();
+        final LoanStore loanStore = spy(new JpaLoanStore(customerDao, loanRequestDao, archivedLoanRequestDao));
+        final LoanService sut = createSut(mockLoanSumCache(), mock(ApplicationEventPublisher.class), customerRegistry, loanStore);
+
+        persistCustomer(LOAN_REQUEST_DTO);
+        customerRegistry.register(LOAN_REQUEST_DTO.getCustomerId(), LOAN_REQUEST_DTO.getCustomerFullName());
+
+        final LoanRequest loanRequest = sut.createLoanRequest(LOAN_REQUEST_DTO);
+
+        assertDataOfDto(loanRequest, LOAN_REQUEST_DTO);
+        assertIsPersisted(LOAN_REQUEST_DTO);
+        verify(loanStore, never()).findCustomerById(anyLong());
+    }
+
+    @Test
+    @Transactional
+    void createLoanRequest_WithUnknownExistingCustomer_RegistersCustomer() {
+        final CustomerRegistry customerRegistry = new CustomerRegistry();
+        final LoanService sut = createSut(mockLoanSumCache(), mock(ApplicationEventPublisher.class), customerRegistry, new JpaLoanStore(customerDao, loanRequestDao, archivedLoanRequestDao));
+
+        persistCustomer(LOAN_REQUEST_DTO);
+
+        sut.createLoanRequest(LOAN_REQUEST_DTO);
+
+        assertThat(customerRegistry.lookup(LOAN_REQUEST_DTO.getCustomerId(), LOAN_REQUEST_DTO.getCustomerFullName()))
+                .isEqualTo(CustomerRegistry.Match.MATCHES);
+    }
+
+    @Test
+    @Transactional
+    void createLoanRequest_WithNewCustomer_DoesNotRegisterCustomerBeforeCommit() {
+        final CustomerRegistry customerRegistry = new CustomerRegistry();
+        final LoanService sut = createSut(mockLoanSumCache(), mock(ApplicationEventPublisher.class), customerRegistry, new JpaLoanStore(customerDao, loanRequestDao, archivedLoanRequestDao));
+
+        sut.createLoanRequest(LOAN_REQUEST_DTO);
+
+        // the test transaction is never committed
+        assertThat(customerRegistry.lookup(LOAN_REQUEST_DTO.getCustomerId(), LOAN_REQUEST_DTO.getCustomerFullName()))
+                .isEqualTo(CustomerRegistry.Match.UNKNOWN);
+    }
+
+    @Test
+    void createLoanRequest_WithFailingSave_UndoesCacheUpdates() {
+        final LoanSumCache loanSumCache = mockLoanSumCache();
+        final RollingLoanSumCache rollingLoanSumCache = mockRollingLoanSumCache();
+        final RollingLoanSumCache.Addition addition = new RollingLoanSumCache.Addition(LOAN_REQUEST_DTO.getCustomerId(), Instant.now(), LOAN_REQUEST_DTO.getAmount(), Map.of());
+        doReturn(addition).when(rollingLoanSumCache).add(anyLong(), any(), any());
+        final LoanStore loanStore = spy(new JpaLoanStore(customerDao, loanRequestDao, archivedLoanRequestDao));
+        doThrow(new IllegalStateException("The database is gone.")).when(loanStore).saveLoanRequest(any());
+        final LoanService sut = createSut(loanSumCache, mock(ApplicationEventPublisher.class), new CustomerRegistry(), loanStore, rollingLoanSumCache);
+
+        assertThatThrownBy(() -> sut.createLoanRequest(LOAN_REQUEST_DTO)).isExactlyInstanceOf(IllegalStateException.class);
+        verify(loanSumCache).release(any());
+        verify(loanSumCache, never()).commit(any());
+        verify(rollingLoanSumCache).undo(same(addition));
+    }
+
     @Nonnull
     private LoanService createSut() {
-        return createSut(mock(LoanSumCache.class));
+        return createSut(mockLoanSumCache());
+    }
+
+    @Nonnull
+    private static LoanSumCache mockLoanSumCache() {
+        final LoanSumCache loanSumCache = mock(LoanSumCache.class);
+        doAnswer(invocation -> Optional.of(new LoanSumCache.Reservation(invocation.getArgument(0, Long.class), null,
+                LoanStatistics.of(invocation.getArgument(1, BigDecimal.class))))).when(loanSumCache).tryReserve(anyLong(), any(), any());
+
+        return loanSumCache;
+    }
+
+    @Nonnull
+    private static RollingLoanSumCache mockRollingLoanSumCache() {
+        final RollingLoanSumCache rollingLoanSumCache = mock(RollingLoanSumCache.class);
+        doAnswer(invocation -> new RollingLoanSumCache.Addition(invocation.getArgument(0, Long.class), invocation.getArgument(1, Instant.class),
+                invocation.getArgument(2, BigDecimal.class), Map.of())).when(rollingLoanSumCache).add(anyLong(), any(), any());
+
+        return rollingLoanSumCache;
     }
 
     @Nonnull
     private LoanService createSut(@Nonnull final LoanSumCache loanSumCache) {
-        return new LoanService(validator, customerDao, loanRequestDao, loanSumCache);
+        return createSut(loanSumCache, mock(ApplicationEventPublisher.class));
+    }
+
+    @Nonnull
+    private LoanService createSut(@Nonnull final LoanSumCache loanSumCache, @Nonnull final ApplicationEventPublisher eventPublisher) {
+        return createSut(loanSumCache, eventPublisher, new CustomerRegistry(), new JpaLoanStore(customerDao, loanRequestDao, archivedLoanRequestDao));
+    }
+
+    @Nonnull
+    private LoanService createSut(@Nonnull final LoanSumCache loanSumCache,
+                                  @Nonnull final ApplicationEventPublisher eventPublisher,
+                                  @Nonnull final CustomerRegistry customerRegistry,
+                                  @Nonnull final LoanStore loanStore) {
+        return createSut(loanSumCache, eventPublisher, customerRegistry, loanStore, mockRollingLoanSumCache());
+    }
+
+    @Nonnull
+    private LoanService createSut(@Nonnull final LoanSumCache loanSumCache,
+                                  @Nonnull final ApplicationEventPublisher eventPublisher,
+                                  @Nonnull final CustomerRegistry customerRegistry,
+                                  @Nonnull final LoanStore loanStore,
+                                  @Nonnull final RollingLoanSumCache rollingLoanSumCache) {
+        return new LoanService(validator, loanStore, loanSumCache, rollingLoanSumCache, mock(LoanSumRanking.class),
+                customerRegistry, mock(CustomerNameIndex.class), eventPublisher, new ExposureProperties(), AdmissionControl.unlimited());
     }
 
     private void assertDataOfDto(@Nonnull final LoanRequest loanRequest, @Nonnull final LoanRequestDto dto) {
@@ -0,0 +1,122 @@
+package de.ing.challenge.loanrequestservice;
+
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoanStatisticsBatchLoaderTest {
+    private static final LoanStatistics STATISTICS = LoanStatistics.of(new BigDecimal("1000.00"));
+
+    private final LoanStore loanStore = mock(LoanStore.class);
+
+    @Test
+    @SneakyThrows
+    void load_WithConcurrentMissesWithinWindow_LoadsThemWithOneQuery() {
+        when(loanStore.findLoanStatisticsByCustomerIds(any())).thenReturn(Map.of(1L, STATISTICS, 2L, STATISTICS));
+        final LoanStatisticsBatchLoader sut = createSut(Duration.ofMillis(500), 256);
+
+        final List<Optional<LoanStatistics>> actual = loadConcurrently(sut, 1L, 2L, 3L, 1L);
+
+        assertThat(actual).containsExactly(Optional.of(STATISTICS), Optional.of(STATISTICS), Optional.empty(), Optional.of(STATISTICS));
+        verify(loanStore, times(1)).findLoanStatisticsByCustomerIds(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    @SneakyThrows
+    void load_WithFullBatch_LoadsWithoutWaitingForWindow() {
+        when(loanStore.findLoanStatisticsByCustomerIds(any())).thenReturn(Map.of());
+        final LoanStatisticsBatchLoader sut = createSut(Duration.ofMinutes(1), 2);
+
+        final long start = System.nanoTime();
+        final List<Optional<LoanStatistics>> actual = loadConcurrently(sut, 1L, 2L);
+
+        assertThat(actual).containsOnly(Optional.empty());
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(30));
+        verify(loanStore, times(1)).findLoanStatisticsByCustomerIds(any());
+    }
+
+    @Test
+    void load_AfterBatch_StartsNewBatch() {
+        when(loanStore.findLoanStatisticsByCustomerIds(any())).thenReturn(Map.of(1L, STATISTICS));
+        final LoanStatisticsBatchLoader sut = createSut(Duration.ZERO, 256);
+
+        assertThat(sut.load(1)).contains(STATISTICS);
+        assertThat(sut.load(1)).contains(STATISTICS);
+
+        verify(loanStore, times(2)).findLoanStatisticsByCustomerIds(Set.of(1L));
+    }
+
+    @Test
+    @SneakyThrows
+    void load_WhenQueryFails_FailsAllMissesOfBatch() {
+        when(loanStore.findLoanStatisticsByCustomerIds(any())).thenThrow(new IllegalStateException("database unavailable"));
+        final LoanStatisticsBatchLoader sut = createSut(Duration.ofMinutes(1), 2);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> first = executor.submit(() -> sut.load(1));
+            final Future<?> second = executor.submit(() -> sut.load(2));
+
+            assertThatThrownBy(() -> first.get(30, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> second.get(30, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Nonnull
+    @SneakyThrows
+    private static List<Optional<LoanStatistics>> loadConcurrently(@Nonnull final LoanStatisticsBatchLoader sut, @Nonnull final Long... customerIds) {
+        final CyclicBarrier barrier = new CyclicBarrier(customerIds.length);
+        final ExecutorService executor = Executors.newFixedThreadPool(customerIds.length);
+        try {
+            final List<Future<Optional<LoanStatistics>>> futures = new ArrayList<>();
+            for (final long customerId : customerIds) {
+                futures.add(executor.submit(() -> {
+                    barrier.await(10, TimeUnit.SECONDS);
+                    return sut.load(customerId);
+                }));
+            }
+
+            final List<Optional<LoanStatistics>> results = new ArrayList<>();
+            for (final Future<Optional<LoanStatistics>> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Nonnull
+    private LoanStatisticsBatchLoader createSut(@Nonnull final Duration window, final int maxBatchSize) {
+        final BatchLoadingProperties properties = new BatchLoadingProperties();
+        properties.setWindow(window);
+        properties.setMaxBatchSize(maxBatchSize);
+        return new LoanStatisticsBatchLoader(properties, loanStore, AdmissionControl.unlimited());
+    }
+}
@@ -1,17 +1,34 @@
 package de.ing.challenge.loanrequestservice;
 
+import de.ing.challenge.loanrequestservice.admission.AdaptiveConcurrencyLimit;
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.admission.AdmissionProperties;
+import de.ing.challenge.loanrequestservice.admission.AdmissionRejectedException;
+import de.ing.challenge.loanrequestservice.admission.Bulkhead;
+import de.ing.challenge.loanrequestservice.config.ReplicaPool;
+import de.ing.challenge.loanrequestservice.dao.ArchivedLoanRequestDao;
+import de.ing.challenge.loanrequestservice.dao.CustomerDao;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanAmountAggregate;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
+import de.ing.challenge.loanrequestservice.dao.LoanAmountAggregate;
 import de.ing.challenge.loanrequestservice.dao.LoanRequest;
 import de.ing.challenge.loanrequestservice.dao.LoanRequestDao;
+import de.ing.challenge.loanrequestservice.store.JpaLoanStore;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -32,9 +49,9 @@ class LoanSumCacheTest {
     @Test
     void get_WithCachedValue_DoesNotAccessDatabase() {
         final LoanRequestDao loanRequestDao = mock(LoanRequestDao.class);
-        final LoanSumCache sut = new LoanSumCache(loanRequestDao);
+        final LoanSumCache sut = createSut(loanRequestDao);
 
-        sut.getSummedLoans().put(CUSTOMER_ID, FIRST_LOAN.getAmount());
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
 
         final Optional<BigDecimal> actual = sut.get(CUSTOMER_ID);
         assertActualIsEqualTo(actual, FIRST_LOAN.getAmount());
@@ -42,16 +59,39 @@ class LoanSumCacheTest {
         verifyNoMoreInteractions(loanRequestDao);
     }
 
+    @Test
+    void get_WithCachedValue_AndSaturatedReadBulkhead_ReturnsCachedValue() {
+        final LoanRequestDao loanRequestDao = mock(LoanRequestDao.class);
+        final LoanSumCache sut = createSaturatedSut(loanRequestDao);
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+
+        final Optional<BigDecimal> actual = sut.get(CUSTOMER_ID);
+        assertActualIsEqualTo(actual, FIRST_LOAN.getAmount());
+
+        verifyNoMoreInteractions(loanRequestDao);
+    }
+
+    @Test
+    void get_WithoutCachedValue_AndSaturatedReadBulkhead_IsRejected() {
+        final LoanRequestDao loanRequestDao = mockLoanRequestDao(FIRST_LOAN);
+        final LoanSumCache sut = createSaturatedSut(loanRequestDao);
+
+        assertThatThrownBy(() -> sut.get(CUSTOMER_ID)).isInstanceOf(AdmissionRejectedException.class);
+
+        verifyNoMoreInteractions(loanRequestDao);
+    }
+
     @Test
     void get_WithoutCachedValue_DoesAccessDatabase() {
         final LoanRequestDao loanRequestDao = mockLoanRequestDao(FIRST_LOAN, SECOND_LOAN);
 
-        final LoanSumCache sut = new LoanSumCache(loanRequestDao);
+        final LoanSumCache sut = createSut(loanRequestDao);
 
         final Optional<BigDecimal> actual = sut.get(CUSTOMER_ID);
         assertActualIsEqualTo(actual, SUMMED_AMOUNT);
 
-        verify(loanRequestDao, times(1)).findAllByCustomerId(eq(CUSTOMER_ID));
+        verify(loanRequestDao, times(1)).aggregateAmountsByCustomerId(eq(CUSTOMER_ID));
         verifyNoMoreInteractions(loanRequestDao);
     }
 
@@ -59,29 +99,69 @@ class LoanSumCacheTest {
     void get_WithoutCachedValue_AndNonExistingCustomer_DoesAccessDatabaseEveryTime() {
         final LoanRequestDao loanRequestDao = mockLoanRequestDao();
 
-        final LoanSumCache sut = new LoanSumCache(loanRequestDao);
+        final LoanSumCache sut = createSut(loanRequestDao);
 
         // first access
         final Optional<BigDecimal> firstResult = sut.get(CUSTOMER_ID);
         assertActualIsEqualTo(firstResult, null);
-        assertThat(sut.getSummedLoans()).isEmpty();
-        verify(loanRequestDao, times(1)).findAllByCustomerId(eq(CUSTOMER_ID));
+        assertThat(sut.getStatistics()).isEmpty();
+        verify(loanRequestDao, times(1)).aggregateAmountsByCustomerId(eq(CUSTOMER_ID));
 
         // second access
         final Optional<BigDecimal> secondResult = sut.get(CUSTOMER_ID);
         assertActualIsEqualTo(secondResult, null);
-        assertThat(sut.getSummedLoans()).isEmpty();
-        verify(loanRequestDao, times(2)).findAllByCustomerId(eq(CUSTOMER_ID));
+        assertThat(sut.getStatistics()).isEmpty();
+        verify(loanRequestDao, times(2)).aggregateAmountsByCustomerId(eq(CUSTOMER_ID));
+    }
+
+    @Test
+    void getStatistics_WithoutCachedValue_LoadsAggregateFromDatabase() {
+        final LoanRequestDao loanRequestDao = mockLoanRequestDao(FIRST_LOAN, SECOND_LOAN);
+        final LoanSumCache sut = createSut(loanRequestDao);
+
+        final Optional<LoanStatistics> actual = sut.getStatistics(CUSTOMER_ID);
+
+        assertThat(actual).hasValueSatisfying(statistics -> {
+            assertThat(statistics.getCount()).isEqualTo(2);
+            assertThat(statistics.getSum()).isEqualByComparingTo(SUMMED_AMOUNT);
+            assertThat(statistics.getMin()).isEqualByComparingTo(SECOND_LOAN.getAmount());
+            assertThat(statistics.getMax()).isEqualByComparingTo(FIRST_LOAN.getAmount());
+            assertThat(statistics.getAverage()).isEqualByComparingTo("1125.00");
+        });
+        verify(loanRequestDao, times(1)).aggregateAmountsByCustomerId(eq(CUSTOMER_ID));
+        verifyNoMoreInteractions(loanRequestDao);
+    }
+
+    @Test
+    void getStatistics_WithBatchLoading_LoadsAggregateOfBatch() {
+        final LoanRequestDao loanRequestDao = mock(LoanRequestDao.class);
+        final CustomerLoanAmountAggregate aggregate = new CustomerLoanAmountAggregate(CUSTOMER_ID, 2,
+                SUMMED_AMOUNT, SECOND_LOAN.getAmount(), FIRST_LOAN.getAmount());
+        when(loanRequestDao.aggregateAmountsByCustomerIdIn(any())).thenReturn(List.of(aggregate));
+        final JpaLoanStore loanStore = new JpaLoanStore(mock(CustomerDao.class), loanRequestDao, mock(ArchivedLoanRequestDao.class));
+        final BatchLoadingProperties properties = new BatchLoadingProperties();
+        properties.setWindow(Duration.ZERO);
+        final LoanSumCache sut = new LoanSumCache(loanStore, AdmissionControl.unlimited(), mock(LoanSumRanking.class),
+                new LoanStatisticsBatchLoader(properties, loanStore, AdmissionControl.unlimited()), Optional.empty());
+
+        assertActualIsEqualTo(sut.get(CUSTOMER_ID), SUMMED_AMOUNT);
+        assertActualIsEqualTo(sut.get(CUSTOMER_ID), SUMMED_AMOUNT);
+        assertActualIsEqualTo(sut.get(CUSTOMER_ID + 1), null);
+
+        assertThat(sut.getStatistics()).containsOnlyKeys(CUSTOMER_ID);
+        verify(loanRequestDao).aggregateAmountsByCustomerIdIn(Set.of(CUSTOMER_ID));
+        verify(loanRequestDao).aggregateAmountsByCustomerIdIn(Set.of(CUSTOMER_ID + 1));
+        verifyNoMoreInteractions(loanRequestDao);
     }
 
     @Test
-    void insertOrAdd_WithCachedValue_DoesNotAccessDatabase() {
+    void tryReserve_WithCachedValue_DoesNotAccessDatabase() {
         final LoanRequestDao loanRequestDao = mock(LoanRequestDao.class);
-        final LoanSumCache sut = new LoanSumCache(loanRequestDao);
+        final LoanSumCache sut = createSut(loanRequestDao);
 
-        sut.getSummedLoans().put(CUSTOMER_ID, FIRST_LOAN.getAmount());
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
 
-        sut.insertOrAdd(CUSTOMER_ID, SECOND_LOAN.getAmount());
+        sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null);
 
         final Optional<BigDecimal> actual = sut.get(CUSTOMER_ID);
         assertActualIsEqualTo(actual, SUMMED_AMOUNT);
@@ -90,23 +170,242 @@ class LoanSumCacheTest {
     }
 
     @Test
-    void insertOrAdd_WithoutCachedValue_DoesAccessDatabase() {
+    void tryReserve_WithValueLoadedByReaderFromReplica_ReloadsItOnce() {
+        final BigDecimal first = FIRST_LOAN.getAmount();
+        final BigDecimal second = SECOND_LOAN.getAmount();
+        final LoanRequestDao loanRequestDao = mock(LoanRequestDao.class);
+        when(loanRequestDao.aggregateAmountsByCustomerId(CUSTOMER_ID)).thenReturn(
+                new LoanAmountAggregate(1, first, first, first),
+                new LoanAmountAggregate(2, SUMMED_AMOUNT, second, first));
+        final LoanSumCache sut = new LoanSumCache(new JpaLoanStore(mock(CustomerDao.class), loanRequestDao, mock(ArchivedLoanRequestDao.class)),
+                AdmissionControl.unlimited(), mock(LoanSumRanking.class), disabledBatchLoader(), Optional.of(mock(ReplicaPool.class)));
+
+        // the replica has not seen the second loan yet, the primary has
+        assertActualIsEqualTo(sut.get(CUSTOMER_ID), first);
+        assertThat(sut.tryReserve(CUSTOMER_ID, second, SUMMED_AMOUNT)).isEmpty();
+        assertThat(sut.tryReserve(CUSTOMER_ID, BigDecimal.ZERO, SUMMED_AMOUNT)).isPresent();
+
+        assertActualIsEqualTo(sut.get(CUSTOMER_ID), SUMMED_AMOUNT);
+        verify(loanRequestDao, times(2)).aggregateAmountsByCustomerId(CUSTOMER_ID);
+    }
+
+    @Test
+    void commit_OffersNewSumToRanking() {
+        final LoanSumRanking ranking = mock(LoanSumRanking.class);
+        final LoanSumCache sut = new LoanSumCache(new JpaLoanStore(mock(CustomerDao.class), mock(LoanRequestDao.class), mock(ArchivedLoanRequestDao.class)),
+                AdmissionControl.unlimited(), ranking, disabledBatchLoader(), Optional.empty());
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+
+        final LoanSumCache.Reservation reservation = sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null).orElseThrow();
+        verifyNoMoreInteractions(ranking);
+
+        sut.commit(reservation);
+
+        verify(ranking).offer(CUSTOMER_ID, 225_000);
+    }
+
+    @Test
+    void tryReserve_WithoutCachedValue_DoesAccessDatabase() {
         final LoanRequestDao loanRequestDao = mockLoanRequestDao(FIRST_LOAN);
-        final LoanSumCache sut = new LoanSumCache(loanRequestDao);
+        final LoanSumCache sut = createSut(loanRequestDao);
+
+        sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null);
+
+        assertThat(sut.getStatistics()).containsOnlyKeys(CUSTOMER_ID);
+        assertThat(sut.getStatistics().get(CUSTOMER_ID)).isEqualTo(new LoanStatistics(2, 225_000, 75_000, 150_000));
+
+        verify(loanRequestDao, times(1)).aggregateAmountsByCustomerId(eq(CUSTOMER_ID));
+    }
+
+    @Test
+    void tryReserve_UpToLimit_ReservesLoan() {
+        final LoanSumCache sut = createSut(mock(LoanRequestDao.class));
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+
+        final Optional<LoanSumCache.Reservation> actual = sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), SUMMED_AMOUNT);
+
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getSum()).isEqualByComparingTo(SUMMED_AMOUNT);
+        assertThat(actual.get().getPreviousStatistics()).isEqualTo(LoanStatistics.of(FIRST_LOAN.getAmount()));
+        assertActualIsEqualTo(sut.get(CUSTOMER_ID), SUMMED_AMOUNT);
+    }
+
+    @Test
+    void tryReserve_BeyondLimit_LeavesStatisticsUnchanged() {
+        final LoanSumCache sut = createSut(mock(LoanRequestDao.class));
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+
+        final Optional<LoanSumCache.Reservation> actual = sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), SUMMED_AMOUNT.subtract(new BigDecimal("0.01")));
+
+        assertThat(actual).isEmpty();
+        assertActualIsEqualTo(sut.get(CUSTOMER_ID), FIRST_LOAN.getAmount());
+    }
+
+    @Test
+    void release_RestoresPreviousStatistics() {
+        final LoanSumCache sut = createSut(mock(LoanRequestDao.class));
 
-        sut.insertOrAdd(CUSTOMER_ID, SECOND_LOAN.getAmount());
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
 
-        assertThat(sut.getSummedLoans()).containsOnlyKeys(CUSTOMER_ID);
-        assertThat(sut.getSummedLoans().get(CUSTOMER_ID).compareTo(SUMMED_AMOUNT)).isZero();
+        sut.release(sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null).orElseThrow());
 
-        verify(loanRequestDao, times(1)).findAllByCustomerId(eq(CUSTOMER_ID));
+        assertThat(sut.getStatistics().get(CUSTOMER_ID)).isEqualTo(LoanStatistics.of(FIRST_LOAN.getAmount()));
+    }
+
+    @Test
+    void release_OfFirstLoan_RemovesStatistics() {
+        final LoanSumCache sut = createSut(mockLoanRequestDao());
+
+        sut.release(sut.tryReserve(CUSTOMER_ID, FIRST_LOAN.getAmount(), null).orElseThrow());
+
+        assertThat(sut.getStatistics()).isEmpty();
+    }
+
+    @Test
+    void release_AfterConcurrentRepair_EvictsStatistics() {
+        final LoanSumCache sut = createSut(mock(LoanRequestDao.class));
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+        final LoanSumCache.Reservation reservation = sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null).orElseThrow();
+        sut.repair(CUSTOMER_ID, LoanStatistics.of(SECOND_LOAN.getAmount()));
+
+        sut.release(reservation);
+
+        assertThat(sut.getStatistics()).isEmpty();
+    }
+
+    @Test
+    void repair_ReplacesOnlyDriftedCachedStatistics() {
+        final LoanRequestDao loanRequestDao = mock(LoanRequestDao.class);
+        final LoanSumCache sut = createSut(loanRequestDao);
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+
+        assertThat(sut.repair(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()))).isFalse();
+        assertThat(sut.repair(CUSTOMER_ID + 1, LoanStatistics.of(SECOND_LOAN.getAmount()))).isFalse();
+        assertThat(sut.repair(CUSTOMER_ID, LoanStatistics.of(SECOND_LOAN.getAmount()))).isTrue();
+        assertThat(sut.getCachedStatistics(CUSTOMER_ID)).contains(LoanStatistics.of(SECOND_LOAN.getAmount()));
+        assertThat(sut.getCachedStatistics(CUSTOMER_ID + 1)).isEmpty();
+
+        assertThat(sut.repair(CUSTOMER_ID, null)).isTrue();
+        assertThat(sut.getStatistics()).isEmpty();
+        verifyNoMoreInteractions(loanRequestDao);
+    }
+
+    @Test
+    void release_LowersRankedSum() {
+        final LoanSumRanking ranking = createRanking();
+        final LoanSumCache sut = createSut(ranking);
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+        final LoanSumCache.Reservation committed = sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null).orElseThrow();
+        final LoanSumCache.Reservation released = sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null).orElseThrow();
+        sut.commit(committed);
+        assertThat(ranking.top(1)).containsExactly(new CustomerLoanSum(CUSTOMER_ID, new BigDecimal("3000.00")));
+
+        sut.release(released);
+
+        assertThat(ranking.top(1)).containsExactly(new CustomerLoanSum(CUSTOMER_ID, new BigDecimal("2250.00")));
+    }
+
+    @Test
+    void release_AfterConcurrentCommit_RemovesCustomerFromRanking() {
+        final LoanSumRanking ranking = createRanking();
+        final LoanSumCache sut = createSut(ranking);
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+        final LoanSumCache.Reservation released = sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null).orElseThrow();
+        final LoanSumCache.Reservation committed = sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null).orElseThrow();
+        sut.commit(committed);
+
+        sut.release(released);
+
+        assertThat(sut.getStatistics()).isEmpty();
+        assertThat(ranking.top(1)).isEmpty();
+    }
+
+    @Test
+    void repair_LowersOrRemovesRankedSum() {
+        final LoanSumRanking ranking = createRanking();
+        final LoanSumCache sut = createSut(ranking);
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+        sut.commit(sut.tryReserve(CUSTOMER_ID, SECOND_LOAN.getAmount(), null).orElseThrow());
+
+        sut.repair(CUSTOMER_ID, LoanStatistics.of(SECOND_LOAN.getAmount()));
+        assertThat(ranking.top(1)).containsExactly(new CustomerLoanSum(CUSTOMER_ID, new BigDecimal("750.00")));
+
+        sut.repair(CUSTOMER_ID, null);
+        assertThat(ranking.top(1)).isEmpty();
+    }
+
+    @Test
+    void retainOnly_RemovesNonMatchingCustomers() {
+        final LoanRequestDao loanRequestDao = mock(LoanRequestDao.class);
+        final LoanSumCache sut = createSut(loanRequestDao);
+
+        sut.getStatistics().put(CUSTOMER_ID, LoanStatistics.of(FIRST_LOAN.getAmount()));
+        sut.getStatistics().put(CUSTOMER_ID + 1, LoanStatistics.of(SECOND_LOAN.getAmount()));
+
+        sut.retainOnly(customerId -> customerId == CUSTOMER_ID);
+
+        assertThat(sut.getStatistics()).containsOnlyKeys(CUSTOMER_ID);
+        verifyNoMoreInteractions(loanRequestDao);
+    }
+
+    @Nonnull
+    private static LoanSumCache createSut(@Nonnull final LoanRequestDao loanRequestDao) {
+        return new LoanSumCache(new JpaLoanStore(mock(CustomerDao.class), loanRequestDao, mock(ArchivedLoanRequestDao.class)), AdmissionControl.unlimited(), mock(LoanSumRanking.class),
+                disabledBatchLoader(), Optional.empty());
+    }
+
+    @Nonnull
+    private static LoanSumCache createSut(@Nonnull final LoanSumRanking ranking) {
+        return new LoanSumCache(new JpaLoanStore(mock(CustomerDao.class), mock(LoanRequestDao.class), mock(ArchivedLoanRequestDao.class)),
+                AdmissionControl.unlimited(), ranking, disabledBatchLoader(), Optional.empty());
+    }
+
+    @Nonnull
+    private static LoanSumRanking createRanking() {
+        final RankingProperties properties = new RankingProperties();
+        properties.setCapacity(10);
+        return new LoanSumRanking(properties, mock(LoanStore.class));
+    }
+
+    @Nonnull
+    private static LoanSumCache createSaturatedSut(@Nonnull final LoanRequestDao loanRequestDao) {
+        final AdmissionProperties.Limit limitProperties = new AdmissionProperties.Limit();
+        limitProperties.setInitialLimit(1);
+        limitProperties.setMaxLimit(1);
+        final AdaptiveConcurrencyLimit saturatedLimit = new AdaptiveConcurrencyLimit(limitProperties);
+        assertThat(saturatedLimit.tryAcquire()).isTrue();
+
+        final AdmissionControl admissionControl = mock(AdmissionControl.class);
+        when(admissionControl.reads()).thenReturn(new Bulkhead("reads", saturatedLimit, Duration.ofSeconds(1)));
+
+        return new LoanSumCache(new JpaLoanStore(mock(CustomerDao.class), loanRequestDao, mock(ArchivedLoanRequestDao.class)), admissionControl, mock(LoanSumRanking.class),
+                disabledBatchLoader(), Optional.empty());
+    }
+
+    @Nonnull
+    private static LoanStatisticsBatchLoader disabledBatchLoader() {
+        final BatchLoadingProperties properties = new BatchLoadingProperties();
+        properties.setEnabled(false);
+        return new LoanStatisticsBatchLoader(properties, mock(LoanStore.class), AdmissionControl.unlimited());
     }
 
     @Nonnull
     private static LoanRequestDao mockLoanRequestDao(@Nonnull final LoanRequest... daos) {
         final LoanRequestDao loanRequestDao = mock(LoanRequestDao.class);
-        final List<LoanRequest> listOfDaos = Arrays.stream(daos).toList();
-        when(loanRequestDao.findAllByCustomerId(any(Long.class))).thenReturn(listOfDaos);
+        final List<BigDecimal> amounts = Arrays.stream(daos).map(LoanRequest::getAmount).toList();
+        final LoanAmountAggregate aggregate = new LoanAmountAggregate(amounts.size(),
+                amounts.stream().reduce(BigDecimal::add).orElse(null),
+                amounts.stream().min(BigDecimal::compareTo).orElse(null),
+                amounts.stream().max(BigDecimal::compareTo).orElse(null));
+        when(loanRequestDao.aggregateAmountsByCustomerId(any(Long.class))).thenReturn(aggregate);
 
         return loanRequestDao;
     }
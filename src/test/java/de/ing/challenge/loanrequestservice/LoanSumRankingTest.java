@@ -0,0 +1,150 @@
+package de.ing.challenge.loanrequestservice;
+
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LoanSumRankingTest {
+
+    @Test
+    void top_ReturnsCustomersInDescendingOrderOfTheirLatestSum() {
+        final LoanSumRanking sut = createSut(10, mock(LoanStore.class));
+
+        sut.offer(1, 100_00);
+        sut.offer(2, 300_00);
+        sut.offer(3, 200_00);
+        sut.offer(1, 400_00);
+
+        assertThat(sut.top(3)).containsExactly(
+                new CustomerLoanSum(1, new BigDecimal("400.00")),
+                new CustomerLoanSum(2, new BigDecimal("300.00")),
+                new CustomerLoanSum(3, new BigDecimal("200.00")));
+        assertThat(sut.top(1)).containsExactly(new CustomerLoanSum(1, new BigDecimal("400.00")));
+    }
+
+    @Test
+    void offer_WithSmallerSumThanKnown_LowersSum() {
+        final LoanSumRanking sut = createSut(10, mock(LoanStore.class));
+
+        sut.offer(1, 400_00);
+        sut.offer(2, 300_00);
+        sut.offer(1, 100_00);
+
+        assertThat(sut.top(10)).containsExactly(
+                new CustomerLoanSum(2, new BigDecimal("300.00")),
+                new CustomerLoanSum(1, new BigDecimal("100.00")));
+    }
+
+    @Test
+    void remove_RemovesCustomerUntilNextOffer() {
+        final LoanSumRanking sut = createSut(2, mock(LoanStore.class));
+
+        sut.offer(1, 100_00);
+        sut.offer(2, 200_00);
+        sut.remove(2);
+        sut.remove(3);
+
+        assertThat(sut.top(10)).containsExactly(new CustomerLoanSum(1, new BigDecimal("100.00")));
+
+        sut.offer(3, 50_00);
+        sut.offer(2, 200_00);
+
+        assertThat(sut.top(10)).extracting(CustomerLoanSum::getCustomerId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void offer_BeyondCapacity_EvictsTheSmallestSums() {
+        final LoanSumRanking sut = createSut(2, mock(LoanStore.class));
+
+        sut.offer(1, 100_00);
+        sut.offer(2, 200_00);
+        sut.offer(3, 300_00);
+        sut.offer(4, 50_00);
+
+        assertThat(sut.top(10)).extracting(CustomerLoanSum::getCustomerId).containsExactly(3L, 2L);
+
+        // an evicted customer re-enters the ranking with its full sum
+        sut.offer(1, 250_00);
+
+        assertThat(sut.top(10)).extracting(CustomerLoanSum::getCustomerId).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void resync_AddsTopCustomersOfStore_WithoutLoweringKnownSums() {
+        final LoanStore loanStore = mock(LoanStore.class);
+        when(loanStore.findTopCustomersByLoanSum(2)).thenReturn(List.of(
+                new CustomerLoanSum(7, new BigDecimal("900.00")),
+                new CustomerLoanSum(8, new BigDecimal("800.00"))));
+        final LoanSumRanking sut = createSut(2, loanStore);
+
+        sut.offer(8, 850_00);
+        sut.resync();
+
+        assertThat(sut.top(2)).containsExactly(
+                new CustomerLoanSum(7, new BigDecimal("900.00")),
+                new CustomerLoanSum(8, new BigDecimal("850.00")));
+    }
+
+    @Test
+    void tick_WithResyncDisabled_DoesNotQueryStore() {
+        final LoanStore loanStore = mock(LoanStore.class);
+        final LoanSumRanking sut = createSut(2, loanStore);
+
+        sut.tick();
+
+        verifyNoInteractions(loanStore);
+    }
+
+    @Test
+    @SneakyThrows
+    void offer_Concurrently_KeepsLatestSumPerCustomer() {
+        final int customers = 50;
+        final LoanSumRanking sut = createSut(10, mock(LoanStore.class));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                final int firstCustomerId = thread;
+                // the offers of a customer arrive in order, hence each customer is offered by a single thread
+                futures.add(executor.submit(() -> {
+                    for (long sum = 1; sum <= 100; sum++) {
+                        for (long customerId = firstCustomerId; customerId < customers; customerId += 8) {
+                            sut.offer(customerId, sum * 100 + customerId);
+                        }
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sut.top(10)).extracting(CustomerLoanSum::getCustomerId)
+                .containsExactly(49L, 48L, 47L, 46L, 45L, 44L, 43L, 42L, 41L, 40L);
+        assertThat(sut.top(1)).containsExactly(new CustomerLoanSum(49, BigDecimal.valueOf(100 * 100 + 49, 2)));
+    }
+
+    @Nonnull
+    private static LoanSumRanking createSut(final int capacity, @Nonnull final LoanStore loanStore) {
+        final RankingProperties properties = new RankingProperties();
+        properties.setCapacity(capacity);
+        return new LoanSumRanking(properties, loanStore);
+    }
+}
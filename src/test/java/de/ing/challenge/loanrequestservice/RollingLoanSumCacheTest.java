@@ -0,0 +1,110 @@
+package de.ing.challenge.loanrequestservice;
+
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RollingLoanSumCacheTest {
+    private static final long CUSTOMER_ID = 42;
+    private static final Customer CUSTOMER = new Customer(CUSTOMER_ID, "Customer");
+    private static final Instant NOW = Instant.parse("2024-03-01T12:30:00Z");
+
+    @Test
+    void get_WithoutCachedWindows_LoadsRecentLoanRequestsOnce() {
+        final LoanStore loanStore = mockLoanStore(
+                new LoanRequest(1, new BigDecimal("1000.00"), CUSTOMER, NOW.minus(Duration.ofHours(1))),
+                new LoanRequest(2, new BigDecimal("2000.50"), CUSTOMER, NOW.minus(Duration.ofDays(2))),
+                new LoanRequest(3, new BigDecimal("4000.00"), CUSTOMER, null));
+        final RollingLoanSumCache sut = createSut(loanStore);
+
+        assertThat(sut.get(CUSTOMER_ID, RollingLoanSumCache.Window.LAST_24_HOURS, NOW)).isEqualByComparingTo("1000.00");
+        assertThat(sut.get(CUSTOMER_ID, RollingLoanSumCache.Window.LAST_30_DAYS, NOW)).isEqualByComparingTo("3000.50");
+
+        verify(loanStore, times(1)).findLoanRequestsByCustomerIdCreatedAfter(eq(CUSTOMER_ID), eq(NOW.minus(Duration.ofDays(30))));
+    }
+
+    @Test
+    void add_WithCachedWindows_UpdatesAllWindows() {
+        final LoanStore loanStore = mockLoanStore();
+        final RollingLoanSumCache sut = createSut(loanStore);
+
+        sut.add(CUSTOMER_ID, NOW, new BigDecimal("500.25"));
+        sut.add(CUSTOMER_ID, NOW, new BigDecimal("500"));
+
+        assertThat(sut.get(CUSTOMER_ID, RollingLoanSumCache.Window.LAST_24_HOURS, NOW)).isEqualByComparingTo("1000.25");
+        assertThat(sut.get(CUSTOMER_ID, RollingLoanSumCache.Window.LAST_30_DAYS, NOW)).isEqualByComparingTo("1000.25");
+        assertThat(sut.get(CUSTOMER_ID, RollingLoanSumCache.Window.LAST_24_HOURS, NOW.plus(Duration.ofDays(1)))).isEqualByComparingTo("0");
+        verify(loanStore, times(1)).findLoanRequestsByCustomerIdCreatedAfter(anyLong(), any());
+    }
+
+    @Test
+    void undo_SubtractsAmountFromAllWindows() {
+        final RollingLoanSumCache sut = createSut(mockLoanStore());
+        sut.add(CUSTOMER_ID, NOW, new BigDecimal("500"));
+        final RollingLoanSumCache.Addition addition = sut.add(CUSTOMER_ID, NOW, new BigDecimal("700.25"));
+
+        sut.undo(addition);
+
+        assertThat(sut.get(CUSTOMER_ID, RollingLoanSumCache.Window.LAST_24_HOURS, NOW)).isEqualByComparingTo("500");
+        assertThat(sut.get(CUSTOMER_ID, RollingLoanSumCache.Window.LAST_30_DAYS, NOW)).isEqualByComparingTo("500");
+    }
+
+    @Test
+    void undo_WithReloadedWindows_DoesNothing() {
+        final RollingLoanSumCache sut = createSut(mockLoanStore());
+        final RollingLoanSumCache.Addition addition = sut.add(CUSTOMER_ID, NOW, new BigDecimal("700.25"));
+        sut.retainOnly(customerId -> false);
+        sut.add(CUSTOMER_ID, NOW, new BigDecimal("500"));
+
+        sut.undo(addition);
+
+        assertThat(sut.get(CUSTOMER_ID, RollingLoanSumCache.Window.LAST_24_HOURS, NOW)).isEqualByComparingTo("500");
+    }
+
+    @Test
+    void retainOnly_RemovesNonMatchingCustomers() {
+        final RollingLoanSumCache sut = createSut(mockLoanStore());
+        sut.add(CUSTOMER_ID, NOW, BigDecimal.ONE);
+        sut.add(CUSTOMER_ID + 1, NOW, BigDecimal.ONE);
+
+        sut.retainOnly(customerId -> customerId == CUSTOMER_ID);
+
+        assertThat(sut.getWindowsByCustomer()).containsOnlyKeys(CUSTOMER_ID);
+    }
+
+    @Test
+    void window_FromName_ResolvesApiNames() {
+        assertThat(RollingLoanSumCache.Window.fromName("24h")).hasValue(RollingLoanSumCache.Window.LAST_24_HOURS);
+        assertThat(RollingLoanSumCache.Window.fromName("30d")).hasValue(RollingLoanSumCache.Window.LAST_30_DAYS);
+        assertThat(RollingLoanSumCache.Window.fromName("7d")).isEmpty();
+    }
+
+    @Nonnull
+    private static RollingLoanSumCache createSut(@Nonnull final LoanStore loanStore) {
+        return new RollingLoanSumCache(loanStore, AdmissionControl.unlimited());
+    }
+
+    @Nonnull
+    private static LoanStore mockLoanStore(@Nonnull final LoanRequest... loanRequests) {
+        final LoanStore loanStore = mock(LoanStore.class);
+        when(loanStore.findLoanRequestsByCustomerIdCreatedAfter(anyLong(), any())).thenReturn(List.of(loanRequests));
+        return loanStore;
+    }
+}
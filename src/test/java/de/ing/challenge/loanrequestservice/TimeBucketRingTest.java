@@ -0,0 +1,66 @@
+package de.ing.challenge.loanrequestservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeBucketRingTest {
+    private static final Instant NOW = Instant.parse("2024-03-01T12:30:00Z");
+
+    @Test
+    void sum_IncludesCurrentAndPrecedingBuckets() {
+        final TimeBucketRing sut = new TimeBucketRing(Duration.ofHours(1), 24);
+
+        sut.add(NOW, 100);
+        sut.add(NOW.minus(Duration.ofMinutes(20)), 50);
+        sut.add(NOW.minus(Duration.ofHours(23)), 25);
+
+        assertThat(sut.sum(NOW)).isEqualTo(175);
+    }
+
+    @Test
+    void sum_ExcludesExpiredBuckets_WithoutClearingThem() {
+        final TimeBucketRing sut = new TimeBucketRing(Duration.ofHours(1), 24);
+
+        sut.add(NOW.minus(Duration.ofHours(24)), 1_000);
+        sut.add(NOW.minus(Duration.ofHours(2)), 10);
+
+        assertThat(sut.sum(NOW)).isEqualTo(10);
+        // the window moves on without any writes
+        assertThat(sut.sum(NOW.plus(Duration.ofHours(22)))).isEqualTo(0);
+    }
+
+    @Test
+    void add_ReusingSlot_ReplacesExpiredBucket() {
+        final TimeBucketRing sut = new TimeBucketRing(Duration.ofHours(1), 24);
+
+        sut.add(NOW.minus(Duration.ofHours(24)), 1_000);
+        sut.add(NOW, 1);
+
+        assertThat(sut.sum(NOW)).isEqualTo(1);
+        assertThat(sut.sum(NOW.minus(Duration.ofHours(1)))).isEqualTo(0);
+    }
+
+    @Test
+    void add_WithTimestampOlderThanSlotContent_IsIgnored() {
+        final TimeBucketRing sut = new TimeBucketRing(Duration.ofHours(1), 24);
+
+        sut.add(NOW, 1);
+        sut.add(NOW.minus(Duration.ofHours(24)), 1_000);
+
+        assertThat(sut.sum(NOW)).isEqualTo(1);
+    }
+
+    @Test
+    void sum_ExcludesFutureBuckets() {
+        final TimeBucketRing sut = new TimeBucketRing(Duration.ofDays(1), 30);
+
+        sut.add(NOW.plus(Duration.ofDays(1)), 1_000);
+        sut.add(NOW, 1);
+
+        assertThat(sut.sum(NOW)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,116 @@
+package de.ing.challenge.loanrequestservice.admission;
+
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void tryAcquire_RejectsCallsBeyondTheLimit() {
+        final AdaptiveConcurrencyLimit sut = createSut(2);
+
+        assertThat(sut.tryAcquire()).isTrue();
+        assertThat(sut.tryAcquire()).isTrue();
+        assertThat(sut.tryAcquire()).isFalse();
+
+        sut.release(FAST, false);
+
+        assertThat(sut.tryAcquire()).isTrue();
+        assertThat(sut.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void release_WithFastCallsAtTheLimit_IncreasesLimitAdditively() {
+        final AdaptiveConcurrencyLimit sut = createSut(4);
+
+        // a few rounds of fully utilized calls grow the limit by one
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(sut.tryAcquire()).isTrue();
+            }
+            for (int i = 0; i < 4; i++) {
+                sut.release(FAST, false);
+            }
+        }
+
+        assertThat(sut.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void release_WithFastCallsWhileIdle_DoesNotIncreaseLimit() {
+        final AdaptiveConcurrencyLimit sut = createSut(10);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(sut.tryAcquire()).isTrue();
+            sut.release(FAST, false);
+        }
+
+        assertThat(sut.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void release_WithSlowOrDroppedCalls_DecreasesLimitMultiplicatively() {
+        final AdaptiveConcurrencyLimit sut = createSut(10);
+
+        assertThat(sut.tryAcquire()).isTrue();
+        sut.release(SLOW, false);
+        assertThat(sut.getLimit()).isEqualTo(9);
+
+        assertThat(sut.tryAcquire()).isTrue();
+        sut.release(FAST, true);
+        assertThat(sut.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void release_NeverDecreasesBelowMinLimit() {
+        final AdaptiveConcurrencyLimit sut = createSut(2);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(sut.tryAcquire()).isTrue();
+            sut.release(SLOW, true);
+        }
+
+        assertThat(sut.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkhead_WhenSaturated_RejectsWithRetryAfter() {
+        final AdaptiveConcurrencyLimit limit = createSut(1);
+        final Bulkhead sut = new Bulkhead("test", limit, Duration.ofSeconds(2));
+        assertThat(limit.tryAcquire()).isTrue();
+
+        assertThatThrownBy(() -> sut.execute(() -> "never called"))
+                .isInstanceOf(AdmissionRejectedException.class)
+                .extracting(e -> ((AdmissionRejectedException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void bulkhead_WithConnectionTimeout_ReleasesPermitAndDecreasesLimit() {
+        final AdaptiveConcurrencyLimit limit = createSut(10);
+        final Bulkhead sut = new Bulkhead("test", limit, Duration.ofSeconds(1));
+
+        assertThatThrownBy(() -> sut.execute(() -> {
+            throw new CannotCreateTransactionException("pool exhausted");
+        })).isInstanceOf(CannotCreateTransactionException.class);
+
+        assertThat(limit.getInFlight()).isZero();
+        assertThat(limit.getLimit()).isEqualTo(9);
+    }
+
+    @Nonnull
+    private static AdaptiveConcurrencyLimit createSut(final int initialLimit) {
+        final AdmissionProperties.Limit properties = new AdmissionProperties.Limit();
+        properties.setInitialLimit(initialLimit);
+        properties.setLatencyThreshold(Duration.ofMillis(100));
+        return new AdaptiveConcurrencyLimit(properties);
+    }
+}
@@ -0,0 +1,125 @@
+package de.ing.challenge.loanrequestservice.archival;
+
+import de.ing.challenge.loanrequestservice.LoanService;
+import de.ing.challenge.loanrequestservice.dao.ArchivedLoanRequestDao;
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.dao.CustomerDao;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanBase;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanBaseDao;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestDao;
+import de.ing.challenge.loanrequestservice.dto.LoanRequestDto;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Uses its own in-memory database, hence it does not interfere with the other tests.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:archival-integration")
+class LoanRequestArchiverIntegrationTest {
+    private static final Instant OLD = Instant.now().minus(Duration.ofDays(400));
+
+    @Autowired
+    private LoanRequestArchiver sut;
+    @Autowired
+    private CustomerDao customerDao;
+    @Autowired
+    private LoanRequestDao loanRequestDao;
+    @Autowired
+    private ArchivedLoanRequestDao archivedLoanRequestDao;
+    @Autowired
+    private CustomerLoanBaseDao customerLoanBaseDao;
+    @Autowired
+    private LoanStore loanStore;
+    @Autowired
+    private LoanService loanService;
+
+    @BeforeEach
+    @AfterEach
+    void cleanDatabase() {
+        archivedLoanRequestDao.deleteAllInBatch();
+        customerLoanBaseDao.deleteAllInBatch();
+        loanRequestDao.deleteAllInBatch();
+        customerDao.deleteAllInBatch();
+    }
+
+    @Test
+    void archiveBatch_MovesOldLoanRequests_WithoutChangingWhatTheStoreReturns() {
+        final Customer customer = customerDao.save(new Customer(42, "Customer 42"));
+        final Customer otherCustomer = customerDao.save(new Customer(43, "Customer 43"));
+        saveLoanRequest(1, "1000.00", customer, OLD);
+        saveLoanRequest(2, "500.50", customer, null);
+        saveLoanRequest(3, "2000.00", customer, Instant.now());
+        saveLoanRequest(4, "700.00", otherCustomer, OLD);
+
+        final List<Object> before = readEverything();
+
+        final Instant cutoff = Instant.now().minus(Duration.ofDays(365));
+        assertThat(sut.archiveBatch(cutoff, 1)).isEqualTo(1);
+        assertThat(sut.archiveBatch(cutoff, 10)).isEqualTo(1);
+        // loan request 3 is recent and loan request 4 is the newest of its customer
+        assertThat(sut.archiveBatch(cutoff, 10)).isZero();
+
+        assertThat(loanRequestDao.findAll()).extracting(LoanRequest::getId).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(archivedLoanRequestDao.count()).isEqualTo(2);
+        final CustomerLoanBase base = customerLoanBaseDao.findById(42L).orElseThrow();
+        assertThat(base.getLoanCount()).isEqualTo(2);
+        assertThat(base.getAmountSum()).isEqualByComparingTo("1500.50");
+        assertThat(base.getMinAmount()).isEqualByComparingTo("500.50");
+        assertThat(base.getMaxAmount()).isEqualByComparingTo("1000.00");
+        assertThat(customerLoanBaseDao.existsById(43L)).isFalse();
+
+        assertThat(readEverything()).isEqualTo(before);
+    }
+
+    @Test
+    void createLoanRequest_WithArchivedId_IsIdempotent_AndMismatchIsRejected() {
+        final Customer customer = customerDao.save(new Customer(44, "Customer 44"));
+        saveLoanRequest(5, "1000.00", customer, OLD);
+        saveLoanRequest(6, "600.00", customer, Instant.now());
+        assertThat(sut.archiveBatch(Instant.now().minus(Duration.ofDays(365)), 10)).isEqualTo(1);
+
+        final LoanRequest loanRequest = loanService.createLoanRequest(new LoanRequestDto(5L, new BigDecimal("1000.00"), 44L, "Customer 44"));
+
+        assertThat(loanRequest.getId()).isEqualTo(5);
+        assertThat(loanRequestDao.existsById(5L)).isFalse();
+        assertThatThrownBy(() -> loanService.createLoanRequest(new LoanRequestDto(5L, new BigDecimal("1000.01"), 44L, "Customer 44")))
+                .isExactlyInstanceOf(ConstraintViolationException.class)
+                .hasMessageContaining("The loan request id is already in use.");
+        assertThat(loanService.getLoanSumByCustomerId(44)).isEqualByComparingTo("1600.00");
+    }
+
+    private void saveLoanRequest(final long id, @Nonnull final String amount, @Nonnull final Customer customer, @Nullable final Instant createdAt) {
+        loanRequestDao.save(new LoanRequest(id, new BigDecimal(amount), customer, createdAt));
+    }
+
+    @Nonnull
+    private List<Object> readEverything() {
+        return List.of(
+                loanStore.findLoanStatisticsByCustomerId(42),
+                loanStore.findLoanStatisticsByCustomerIds(List.of(42L, 43L)),
+                loanStore.findLoanStatisticsByCustomerIdAfter(-1, 10),
+                loanStore.findTopCustomersByLoanSum(10),
+                Set.copyOf(loanStore.findLoanAmountHistogram()),
+                loanStore.findLoanSumByCustomerIdAsOf(42, Instant.now()),
+                loanStore.findLoanSumByCustomerIdAsOf(42, OLD),
+                loanStore.findLoanRequestSummariesByCustomerIdAfter(42, -1, 10),
+                loanStore.findLoanRequestSummariesByCustomerIdAfter(42, 1, 1));
+    }
+}
@@ -0,0 +1,119 @@
+package de.ing.challenge.loanrequestservice.cluster;
+
+import de.ing.challenge.loanrequestservice.Application;
+import de.ing.challenge.loanrequestservice.LoanSumCache;
+import jakarta.annotation.Nonnull;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts two instances of the service on localhost, each with its own in-memory database.
+ * As a consequence, a customer can only be found on the instance that owns it.
+ */
+class ClusterIntegrationTest {
+    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+
+    private static String firstUrl;
+    private static String secondUrl;
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void startCluster() {
+        final int firstPort = findFreePort();
+        final int secondPort = findFreePort();
+        firstUrl = "http://localhost:" + firstPort;
+        secondUrl = "http://localhost:" + secondPort;
+
+        first = startInstance("first", firstPort, "FORWARD");
+        second = startInstance("second", secondPort, "REDIRECT");
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void createLoanRequest_ForRemoteCustomer_IsForwardedToOwner() {
+        final long customerId = customerOwnedBy(secondUrl);
+
+        final HttpResponse<String> created = send(HttpRequest.newBuilder(URI.create(firstUrl + "/api/v1/loan-requests"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload(customerId * 10, customerId))));
+        assertThat(created.statusCode()).isEqualTo(200);
+
+        final HttpResponse<String> sum = send(HttpRequest.newBuilder(URI.create(firstUrl + "/api/v1/loan-requests/sum/" + customerId)).GET());
+        assertThat(sum.statusCode()).isEqualTo(200);
+        assertThat(sum.body()).contains("\"sum\":1337.42");
+
+        // only the owner is caching the sum
+        assertThat(first.getBean(LoanSumCache.class).get(customerId)).isEmpty();
+        assertThat(second.getBean(LoanSumCache.class).get(customerId)).isPresent();
+    }
+
+    @Test
+    void getLoanSumByCustomerId_ForRemoteCustomer_InRedirectMode_RedirectsToOwner() {
+        final long customerId = customerOwnedBy(firstUrl);
+
+        final HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(secondUrl + "/api/v1/loan-requests/sum/" + customerId)).GET());
+
+        assertThat(response.statusCode()).isEqualTo(307);
+        assertThat(response.headers().firstValue("Location")).hasValue(firstUrl + "/api/v1/loan-requests/sum/" + customerId);
+        assertThat(response.headers().firstValue(ClusterRouter.OWNER_HEADER)).hasValue(firstUrl);
+    }
+
+    private static long customerOwnedBy(@Nonnull final String member) {
+        final ClusterMembership membership = first.getBean(ClusterMembership.class);
+        return LongStream.range(1, 1_000).filter(customerId -> membership.ownerOf(customerId).equals(member)).findFirst().orElseThrow();
+    }
+
+    @Nonnull
+    private static String payload(final long id, final long customerId) {
+        return """
+                {
+                   "id": %d,
+                   "amount": 1337.42,
+                   "customerId": %d,
+                   "customerFullName": "Customer Full Name"
+                 }""".formatted(id, customerId);
+    }
+
+    @Nonnull
+    @SneakyThrows
+    private static HttpResponse<String> send(@Nonnull final HttpRequest.Builder request) {
+        return HTTP_CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Nonnull
+    private static ConfigurableApplicationContext startInstance(@Nonnull final String name, final int port, @Nonnull final String mode) {
+        return new SpringApplicationBuilder(Application.class).run(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:cluster-" + name,
+                "--loan-request-service.cluster.enabled=true",
+                "--loan-request-service.cluster.mode=" + mode,
+                "--loan-request-service.cluster.self=http://localhost:" + port,
+                "--loan-request-service.cluster.peers=" + firstUrl + "," + secondUrl);
+    }
+
+    @SneakyThrows
+    private static int findFreePort() {
+        try (final ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
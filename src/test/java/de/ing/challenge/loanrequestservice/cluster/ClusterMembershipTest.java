@@ -0,0 +1,114 @@
+package de.ing.challenge.loanrequestservice.cluster;
+
+import de.ing.challenge.loanrequestservice.LoanSumCache;
+import jakarta.annotation.Nonnull;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ClusterMembershipTest {
+    private static final String SELF = "http://localhost:8081";
+    private static final String PEER = "http://localhost:8082";
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    @SneakyThrows
+    void refresh_WithChangedMembershipFile_RebalancesAndEvictsForeignCustomers() {
+        final Path membershipFile = tempDir.resolve("members.txt");
+        Files.writeString(membershipFile, "# single node\n" + SELF + "\n");
+        final LoanSumCache loanSumCache = mock(LoanSumCache.class);
+
+        final ClusterMembership sut = new ClusterMembership(createProperties(membershipFile), List.of(loanSumCache));
+        assertThat(sut.isOwnedLocally(42)).isTrue();
+
+        Files.writeString(membershipFile, SELF + "\n" + PEER + "\n");
+        sut.refresh();
+
+        final long foreignCustomer = findCustomerOwnedBy(sut, PEER);
+        assertThat(sut.ownerOf(foreignCustomer)).isEqualTo(PEER);
+        verify(loanSumCache).retainOnly(any(LongPredicate.class));
+    }
+
+    @Test
+    @SneakyThrows
+    void refresh_WithCustomerTakenOver_EvictsIt() {
+        final Path membershipFile = tempDir.resolve("members.txt");
+        Files.writeString(membershipFile, SELF + "\n" + PEER + "\n");
+        final LoanSumCache loanSumCache = mock(LoanSumCache.class);
+
+        final ClusterMembership sut = new ClusterMembership(createProperties(membershipFile), List.of(loanSumCache));
+        final long ownCustomer = findCustomerOwnedBy(sut, SELF);
+        final long takenOverCustomer = findCustomerOwnedBy(sut, PEER);
+
+        Files.writeString(membershipFile, SELF + "\n");
+        sut.refresh();
+
+        final ArgumentCaptor<LongPredicate> isRetained = ArgumentCaptor.forClass(LongPredicate.class);
+        verify(loanSumCache).retainOnly(isRetained.capture());
+        assertThat(sut.isOwnedLocally(takenOverCustomer)).isTrue();
+        assertThat(isRetained.getValue().test(ownCustomer)).isTrue();
+        assertThat(isRetained.getValue().test(takenOverCustomer)).isFalse();
+    }
+
+    @Test
+    @SneakyThrows
+    void refresh_WithUnchangedMembershipFile_DoesNotTouchCache() {
+        final Path membershipFile = tempDir.resolve("members.txt");
+        Files.writeString(membershipFile, SELF + "\n" + PEER + "\n");
+        final LoanSumCache loanSumCache = mock(LoanSumCache.class);
+
+        final ClusterMembership sut = new ClusterMembership(createProperties(membershipFile), List.of(loanSumCache));
+        sut.refresh();
+
+        verifyNoInteractions(loanSumCache);
+    }
+
+    @Test
+    @SneakyThrows
+    void refresh_WithMissingMembershipFile_KeepsCurrentMembership() {
+        final Path membershipFile = tempDir.resolve("members.txt");
+        Files.writeString(membershipFile, SELF + "\n" + PEER + "\n");
+        final LoanSumCache loanSumCache = mock(LoanSumCache.class);
+
+        final ClusterMembership sut = new ClusterMembership(createProperties(membershipFile), List.of(loanSumCache));
+        final long foreignCustomer = findCustomerOwnedBy(sut, PEER);
+
+        Files.delete(membershipFile);
+        sut.refresh();
+
+        assertThat(sut.ownerOf(foreignCustomer)).isEqualTo(PEER);
+        verify(loanSumCache, never()).retainOnly(any());
+    }
+
+    private static long findCustomerOwnedBy(@Nonnull final ClusterMembership membership, @Nonnull final String member) {
+        long customerId = 0;
+        while (!membership.ownerOf(customerId).equals(member)) {
+            customerId++;
+        }
+        return customerId;
+    }
+
+    @Nonnull
+    private static ClusterProperties createProperties(@Nonnull final Path membershipFile) {
+        final ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setSelf(SELF);
+        properties.setMembershipFile(membershipFile);
+        return properties;
+    }
+}
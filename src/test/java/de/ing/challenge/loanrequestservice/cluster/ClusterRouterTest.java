@@ -0,0 +1,75 @@
+package de.ing.challenge.loanrequestservice.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClusterRouterTest {
+    private static final long CUSTOMER_ID = 42;
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void route_WithUnreachableOwner_IsAnsweredWithServiceUnavailable() {
+        final String owner = "http://localhost:" + findUnusedPort();
+        final ClusterMembership membership = mock(ClusterMembership.class);
+        when(membership.isOwnedLocally(CUSTOMER_ID)).thenReturn(false);
+        when(membership.ownerOf(CUSTOMER_ID)).thenReturn(owner);
+        when(membership.getSelf()).thenReturn("http://localhost:8080");
+        final ClusterProperties properties = new ClusterProperties();
+        properties.setForwardRetryAfter(Duration.ofSeconds(3));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(
+                new MockHttpServletRequest("GET", "/api/v1/loan-requests/sum/" + CUSTOMER_ID)));
+        final ClusterRouter sut = new ClusterRouter(properties, Optional.of(membership), new ObjectMapper());
+
+        final Optional<ResponseEntity<?>> actual = sut.route(CUSTOMER_ID, null);
+
+        assertThat(actual).hasValueSatisfying(response -> {
+            assertThat(response.getStatusCode().value()).isEqualTo(503);
+            assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+            assertThat(response.getHeaders().getFirst(ClusterRouter.OWNER_HEADER)).isEqualTo(owner);
+        });
+    }
+
+    @Test
+    void route_WithRequestForwardedToNonOwner_IsAnsweredWithServiceUnavailable() {
+        final ClusterMembership membership = mock(ClusterMembership.class);
+        when(membership.isOwnedLocally(CUSTOMER_ID)).thenReturn(false);
+        when(membership.ownerOf(CUSTOMER_ID)).thenReturn("http://localhost:8082");
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/loan-requests/sum/" + CUSTOMER_ID);
+        request.addHeader(ClusterRouter.FORWARDED_HEADER, "http://localhost:8081");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        final ClusterRouter sut = new ClusterRouter(new ClusterProperties(), Optional.of(membership), new ObjectMapper());
+
+        final Optional<ResponseEntity<?>> actual = sut.route(CUSTOMER_ID, null);
+
+        assertThat(actual).hasValueSatisfying(response -> {
+            assertThat(response.getStatusCode().value()).isEqualTo(503);
+            assertThat(response.getHeaders().getFirst(ClusterRouter.OWNER_HEADER)).isEqualTo("http://localhost:8082");
+        });
+    }
+
+    @SneakyThrows
+    private static int findUnusedPort() {
+        try (final ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
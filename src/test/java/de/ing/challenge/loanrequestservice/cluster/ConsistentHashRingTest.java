@@ -0,0 +1,60 @@
+package de.ing.challenge.loanrequestservice.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConsistentHashRingTest {
+    private static final List<String> MEMBERS = List.of("http://localhost:8081", "http://localhost:8082", "http://localhost:8083");
+    private static final int CUSTOMERS = 30_000;
+
+    @Test
+    void ownerOf_IsStable() {
+        final ConsistentHashRing first = new ConsistentHashRing(MEMBERS, 128);
+        final ConsistentHashRing second = new ConsistentHashRing(List.of(MEMBERS.get(2), MEMBERS.get(1), MEMBERS.get(0)), 128);
+
+        LongStream.range(0, 1_000).forEach(customerId ->
+                assertThat(first.ownerOf(customerId)).isEqualTo(second.ownerOf(customerId)));
+    }
+
+    @Test
+    void ownerOf_SpreadsCustomersEvenly() {
+        final ConsistentHashRing sut = new ConsistentHashRing(MEMBERS, 128);
+
+        final Map<String, Integer> customersPerMember = new HashMap<>();
+        LongStream.range(0, CUSTOMERS).forEach(customerId -> customersPerMember.merge(sut.ownerOf(customerId), 1, Integer::sum));
+
+        assertThat(customersPerMember).containsOnlyKeys(MEMBERS);
+        customersPerMember.values().forEach(count -> assertThat(count).isBetween(CUSTOMERS / 3 * 7 / 10, CUSTOMERS / 3 * 13 / 10));
+    }
+
+    @Test
+    void ownerOf_WithAdditionalMember_OnlyMovesCustomersToNewMember() {
+        final ConsistentHashRing before = new ConsistentHashRing(MEMBERS, 128);
+        final ConsistentHashRing after = new ConsistentHashRing(List.of(MEMBERS.get(0), MEMBERS.get(1), MEMBERS.get(2), "http://localhost:8084"), 128);
+
+        int moved = 0;
+        for (long customerId = 0; customerId < CUSTOMERS; customerId++) {
+            final String oldOwner = before.ownerOf(customerId);
+            final String newOwner = after.ownerOf(customerId);
+            if (!oldOwner.equals(newOwner)) {
+                assertThat(newOwner).isEqualTo("http://localhost:8084");
+                moved++;
+            }
+        }
+
+        // roughly a quarter of the customers should move to the new member
+        assertThat(moved).isBetween(CUSTOMERS / 4 * 7 / 10, CUSTOMERS / 4 * 13 / 10);
+    }
+
+    @Test
+    void constructor_WithoutMembers_LeadsToException() {
+        assertThatThrownBy(() -> new ConsistentHashRing(List.of(), 128)).isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,59 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.generate.ClassNameGenerator;
+import org.springframework.aot.generate.DefaultGenerationContext;
+import org.springframework.aot.generate.GeneratedFiles;
+import org.springframework.aot.generate.InMemoryGeneratedFiles;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationCode;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.javapoet.ClassName;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class AotBuildPropertiesCheckTest {
+
+    @Test
+    void processAheadOfTime_RecordsPropertiesWithDefaults() throws IOException {
+        final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("environment", new MockEnvironment().withProperty("loan-request-service.cluster.enabled", "true"));
+        final InMemoryGeneratedFiles generatedFiles = new InMemoryGeneratedFiles();
+
+        new AotBuildPropertiesCheck().processAheadOfTime(beanFactory).applyTo(
+                new DefaultGenerationContext(new ClassNameGenerator(ClassName.get(getClass())), generatedFiles),
+                mock(BeanFactoryInitializationCode.class));
+
+        final Properties buildProperties = new Properties();
+        buildProperties.load(new StringReader(generatedFiles.getGeneratedFileContent(GeneratedFiles.Kind.RESOURCE, AotBuildPropertiesCheck.RESOURCE)));
+        assertThat(buildProperties)
+                .containsEntry("loan-request-service.cluster.enabled", "true")
+                .containsEntry("loan-request-service.storage.type", "jpa")
+                .hasSize(AotBuildPropertiesCheck.CONDITION_PROPERTIES.size());
+    }
+
+    @Test
+    void check_WithSameProperties_Passes() {
+        final Properties buildProperties = new Properties();
+        buildProperties.setProperty("loan-request-service.storage.type", "jpa");
+
+        assertThatCode(() -> AotBuildPropertiesCheck.check(new MockEnvironment(), buildProperties)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void check_WithDifferentProperty_LeadsToException() {
+        final Environment environment = new MockEnvironment().withProperty("loan-request-service.datasource.sharding.enabled", "true");
+
+        assertThatThrownBy(() -> AotBuildPropertiesCheck.check(environment, new Properties()))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("loan-request-service.datasource.sharding.enabled is true, but was false at build time");
+    }
+}
@@ -0,0 +1,92 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class CustomerShardsTest {
+    private static final List<DataSource> DATA_SOURCES = List.of(mock(DataSource.class), mock(DataSource.class), mock(DataSource.class));
+
+    @Test
+    void shardOf_IsStable_AndSpreadsCustomersEvenly() {
+        final CustomerShards sut = new CustomerShards(DATA_SOURCES, DATA_SOURCES.size());
+        final int[] customersPerShard = new int[3];
+        // every third id only, which must not end up on the same shard
+        LongStream.range(0, 30_000).map(i -> i * 3).forEach(customerId -> customersPerShard[sut.shardOf(customerId)]++);
+
+        assertThat(Arrays.stream(customersPerShard).boxed().toList()).allSatisfy(count -> assertThat(count).isBetween(9_500, 10_500));
+        assertThat(sut.shardOf(42)).isEqualTo(new CustomerShards(DATA_SOURCES, DATA_SOURCES.size()).shardOf(42));
+        assertThat(sut.shardOf(-42)).isBetween(0, 2);
+    }
+
+    @Test
+    void callOnShard_SelectsShardOnlyDuringCall() {
+        final CustomerShards sut = new CustomerShards(DATA_SOURCES, DATA_SOURCES.size());
+
+        assertThat(sut.callOnShard(2, CustomerShards::currentShard)).isEqualTo(2);
+        assertThat(sut.callOnShard(2, () -> sut.callOnShard(2, CustomerShards::currentShard))).isEqualTo(2);
+        assertThat(sut.isShardSelected()).isFalse();
+    }
+
+    @Test
+    void callOnShard_WithOtherShardSelected_LeadsToException() {
+        final CustomerShards sut = new CustomerShards(DATA_SOURCES, DATA_SOURCES.size());
+
+        assertThatThrownBy(() -> sut.callOnShard(0, () -> sut.callOnShard(1, () -> null)))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Shard 1 cannot be used while shard 0 is selected.");
+        assertThat(sut.isShardSelected()).isFalse();
+    }
+
+    @Test
+    void bindTransaction_SelectsShardUntilTransactionCompletes() {
+        final CustomerShards sut = new CustomerShards(DATA_SOURCES, DATA_SOURCES.size());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            sut.bindTransaction(1);
+            sut.bindTransaction(1);
+
+            assertThat(CustomerShards.currentShard()).isEqualTo(1);
+            assertThatThrownBy(() -> sut.bindTransaction(2)).isExactlyInstanceOf(IllegalStateException.class);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            assertThat(sut.isShardSelected()).isFalse();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void callOnEachShard_RunsCallWithEveryShardSelected() {
+        final CustomerShards sut = new CustomerShards(DATA_SOURCES, DATA_SOURCES.size());
+
+        assertThat(sut.callOnEachShard(shard -> List.of(shard, CustomerShards.currentShard())))
+                .containsExactly(List.of(0, 0), List.of(1, 1), List.of(2, 2));
+    }
+
+    @Test
+    void callOnEachShard_WithFewerThreadsThanShards_QueuesCalls() {
+        final CustomerShards sut = new CustomerShards(DATA_SOURCES, 1);
+
+        assertThat(sut.callOnEachShard(shard -> shard)).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void callOnEachShard_WithFailingShard_RethrowsException() {
+        final CustomerShards sut = new CustomerShards(DATA_SOURCES, DATA_SOURCES.size());
+
+        assertThatThrownBy(() -> sut.callOnEachShard(shard -> shard == 1 ? Collections.emptyList().get(0) : shard))
+                .isExactlyInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
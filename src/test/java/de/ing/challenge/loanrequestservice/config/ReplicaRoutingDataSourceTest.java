@@ -0,0 +1,165 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicaRoutingDataSourceTest {
+    private static final DataSource PRIMARY = createDatabase("primary");
+    private static final DataSource REPLICA = createDatabase("replica");
+    private static final DataSource UNREACHABLE_REPLICA = new DriverManagerDataSource("jdbc:h2:mem:does-not-exist;IFEXISTS=TRUE", "sa", "");
+
+    @BeforeAll
+    static void createRoleTables() {
+        new JdbcTemplate(PRIMARY).execute("CREATE TABLE IF NOT EXISTS DB_ROLE AS SELECT 'primary' AS NAME");
+        new JdbcTemplate(REPLICA).execute("CREATE TABLE IF NOT EXISTS DB_ROLE AS SELECT 'replica' AS NAME");
+    }
+
+    @Test
+    void readOnlyTransaction_IsRoutedToReplica() {
+        final DataSource sut = createSut(REPLICA, null);
+
+        assertThat(queryRole(sut, true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransaction_IsRoutedToPrimary() {
+        final DataSource sut = createSut(REPLICA, null);
+
+        assertThat(queryRole(sut, false)).isEqualTo("primary");
+    }
+
+    @Test
+    void queryWithoutTransaction_IsRoutedToPrimary() {
+        final DataSource sut = createSut(REPLICA, null);
+
+        assertThat(new JdbcTemplate(sut).queryForObject("SELECT NAME FROM DB_ROLE", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_OnPrimary_IsRoutedToPrimary() {
+        final DataSource sut = createSut(REPLICA, null);
+
+        final String actual = ReplicaRoutingDataSource.onPrimary(() -> queryRole(sut, true));
+
+        assertThat(actual).isEqualTo("primary");
+    }
+
+    @Test
+    void onPrimary_WithinReadOnlyTransaction_LeadsToException() {
+        final DataSource sut = createSut(REPLICA, null);
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(sut));
+        transactionTemplate.setReadOnly(true);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> ReplicaRoutingDataSource.onPrimary(() -> "")))
+                .isExactlyInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void readOnlyTransaction_WithCredentials_IsRoutedToReplica() {
+        final ReplicaPool pool = new ReplicaPool(List.of(new ReplicaPool.Replica("replica-0", REPLICA, null)),
+                Duration.ofSeconds(5), Duration.ofSeconds(1));
+        pool.checkHealth();
+        final DataSource sut = new ReplicaRoutingDataSource(PRIMARY, pool);
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(PRIMARY));
+        transactionTemplate.setReadOnly(true);
+
+        final String actual = transactionTemplate.execute(status -> {
+            try (final Connection connection = sut.getConnection("sa", "")) {
+                return new JdbcTemplate(new SingleConnectionDataSource(connection, true)).queryForObject("SELECT NAME FROM DB_ROLE", String.class);
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(actual).isEqualTo("replica");
+    }
+
+    @Test
+    void readOnlyTransaction_WithStaleReplica_IsRoutedToPrimary() {
+        // the replica reports 10 seconds of lag, which exceeds the staleness bound of 5 seconds
+        final DataSource sut = createSut(REPLICA, "SELECT 10");
+
+        assertThat(queryRole(sut, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_WithReplicaWithinStalenessBound_IsRoutedToReplica() {
+        final DataSource sut = createSut(REPLICA, "SELECT 1.5");
+
+        assertThat(queryRole(sut, true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readOnlyTransaction_WithUnreachableReplica_IsRoutedToPrimary() {
+        final DataSource sut = createSut(UNREACHABLE_REPLICA, null);
+
+        assertThat(queryRole(sut, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_WithReplicaFailingAfterHealthCheck_FallsBackToPrimary() {
+        final AtomicBoolean replicaIsReachable = new AtomicBoolean(true);
+        final DataSource flakyReplica = new DelegatingDataSource(REPLICA) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (!replicaIsReachable.get()) {
+                    throw new SQLException("replica is gone");
+                }
+                return super.getConnection();
+            }
+        };
+        final ReplicaPool pool = new ReplicaPool(List.of(new ReplicaPool.Replica("replica-0", flakyReplica, null)),
+                Duration.ofSeconds(5), Duration.ofSeconds(1));
+        pool.checkHealth();
+        final DataSource sut = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(PRIMARY, pool));
+
+        assertThat(queryRole(sut, true)).isEqualTo("replica");
+
+        replicaIsReachable.set(false);
+
+        assertThat(queryRole(sut, true)).isEqualTo("primary");
+        assertThat(pool.select()).isEmpty();
+    }
+
+    @Nonnull
+    private static DataSource createSut(@Nonnull final DataSource replica, @Nullable final String lagQuery) {
+        final ReplicaPool pool = new ReplicaPool(List.of(new ReplicaPool.Replica("replica-0", replica, lagQuery)),
+                Duration.ofSeconds(5), Duration.ofSeconds(1));
+        pool.checkHealth();
+
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(PRIMARY, pool));
+    }
+
+    @Nonnull
+    private static String queryRole(@Nonnull final DataSource dataSource, final boolean readOnly) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT NAME FROM DB_ROLE", String.class));
+    }
+
+    @Nonnull
+    private static DataSource createDatabase(@Nonnull final String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:routing-%s;DB_CLOSE_DELAY=-1".formatted(name), "sa", "");
+    }
+}
@@ -0,0 +1,72 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestSummary;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Customer 42 has different loan requests in the primary and in the replica, so that it can be told which one served a
+ * read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-integration-primary",
+        "loan-request-service.datasource.read-replicas.enabled=true",
+        "loan-request-service.datasource.read-replicas.replicas[0].url=jdbc:h2:mem:routing-integration-replica;DB_CLOSE_DELAY=-1",
+        "loan-request-service.datasource.read-replicas.replicas[0].username=sa",
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReplicaRoutingIntegrationTest {
+    @Autowired
+    private LoanStore loanStore;
+    @Autowired
+    private ReplicaPool replicaPool;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void createLoanRequests() {
+        final JdbcTemplate replica = new JdbcTemplate(replicaPool.getReplicas().get(0).getDataSource());
+        replica.execute("CREATE TABLE CUSTOMER(ID BIGINT PRIMARY KEY, FULL_NAME VARCHAR(255))");
+        replica.execute("CREATE TABLE LOAN_REQUEST(ID BIGINT PRIMARY KEY, AMOUNT NUMERIC(38, 2), CUSTOMER_ID BIGINT, CREATED_AT TIMESTAMP(6) WITH TIME ZONE)");
+        replica.execute("CREATE TABLE ARCHIVED_LOAN_REQUEST(ID BIGINT PRIMARY KEY, AMOUNT NUMERIC(38, 2), CUSTOMER_ID BIGINT, CREATED_AT TIMESTAMP(6) WITH TIME ZONE)");
+        replica.execute("CREATE TABLE CUSTOMER_LOAN_BASE(CUSTOMER_ID BIGINT PRIMARY KEY, LOAN_COUNT BIGINT, AMOUNT_SUM NUMERIC(38, 2), MIN_AMOUNT NUMERIC(38, 2), MAX_AMOUNT NUMERIC(38, 2))");
+        replica.update("INSERT INTO CUSTOMER VALUES (42, 'Customer')");
+        replica.update("INSERT INTO LOAN_REQUEST VALUES (1337, 13.37, 42, CURRENT_TIMESTAMP)");
+
+        // the replica lags behind, it does not have the loan request yet
+        jdbcTemplate.update("INSERT INTO CUSTOMER(ID, FULL_NAME) VALUES (42, 'Customer')");
+        jdbcTemplate.update("INSERT INTO LOAN_REQUEST(ID, AMOUNT, CUSTOMER_ID, CREATED_AT) VALUES (1, 1000.00, 42, CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    void reads_AreServedByReplica() {
+        assertThat(loanStore.findLoanRequestSummariesByCustomerIdAfter(42, -1, 10)).extracting(LoanRequestSummary::getId).containsExactly(1337L);
+        assertThat(loanStore.findLoanSumByCustomerIdAsOf(42, Instant.now())).hasValueSatisfying(sum -> assertThat(sum).isEqualByComparingTo("13.37"));
+        assertThat(loanStore.findLoanStatisticsByCustomerId(42)).map(LoanStatistics::getSum)
+                .hasValueSatisfying(sum -> assertThat(sum).isEqualByComparingTo("13.37"));
+        assertThat(loanStore.findLoanStatisticsByCustomerIds(List.of(42L))).extractingByKey(42L).extracting(LoanStatistics::getSum)
+                .satisfies(sum -> assertThat(sum).isEqualByComparingTo("13.37"));
+    }
+
+    @Test
+    void readsReflectingEveryCommit_AreServedByPrimary() {
+        assertThat(ReplicaRoutingDataSource.onPrimary(() -> loanStore.findLoanStatisticsByCustomerId(42))).map(LoanStatistics::getSum)
+                .hasValueSatisfying(sum -> assertThat(sum).isEqualByComparingTo(new BigDecimal("1000.00")));
+        assertThat(loanStore.findLoanStatisticsByCustomerIdAfter(0, 10)).extractingByKey(42L).extracting(LoanStatistics::getSum)
+                .satisfies(sum -> assertThat(sum).isEqualByComparingTo(new BigDecimal("1000.00")));
+        assertThat(loanStore.findLoanRequestsByCustomerIdCreatedAfter(42, Instant.EPOCH)).extracting(LoanRequest::getId).containsExactly(1L);
+    }
+}
@@ -0,0 +1,143 @@
+package de.ing.challenge.loanrequestservice.config;
+
+import de.ing.challenge.loanrequestservice.LoanService;
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
+import de.ing.challenge.loanrequestservice.dao.LoanAmountBucket;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.dto.LoanRequestDto;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Every test uses its own customers, as the customers are remembered by several in-memory structures.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.open-in-view=false",
+        "loan-request-service.datasource.sharding.enabled=true",
+        "loan-request-service.datasource.sharding.check-loan-request-ids-on-all-shards=true",
+        "loan-request-service.datasource.sharding.shards[0].url=jdbc:h2:mem:sharding-integration-0;DB_CLOSE_DELAY=-1",
+        "loan-request-service.datasource.sharding.shards[0].username=sa",
+        "loan-request-service.datasource.sharding.shards[1].url=jdbc:h2:mem:sharding-integration-1;DB_CLOSE_DELAY=-1",
+        "loan-request-service.datasource.sharding.shards[1].username=sa",
+        "loan-request-service.datasource.sharding.shards[2].url=jdbc:h2:mem:sharding-integration-2;DB_CLOSE_DELAY=-1",
+        "loan-request-service.datasource.sharding.shards[2].username=sa",
+})
+class ShardingIntegrationTest {
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private LoanStore loanStore;
+    @Autowired
+    private CustomerShards customerShards;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void createLoanRequest_StoresCustomerAndLoanRequestOnShardOfCustomer() {
+        LongStream.rangeClosed(1, 12).forEach(customerId -> createLoanRequest(customerId * 100, "500.00", customerId));
+
+        for (long customerId = 1; customerId <= 12; customerId++) {
+            for (int shard = 0; shard < customerShards.getCount(); shard++) {
+                final int expectedCount = shard == customerShards.shardOf(customerId) ? 1 : 0;
+                assertThat(jdbcTemplateOf(shard).queryForObject("SELECT COUNT(*) FROM CUSTOMER WHERE ID = ?", Integer.class, customerId))
+                        .isEqualTo(expectedCount);
+                assertThat(jdbcTemplateOf(shard).queryForObject("SELECT COUNT(*) FROM LOAN_REQUEST WHERE CUSTOMER_ID = ?", Integer.class, customerId))
+                        .isEqualTo(expectedCount);
+            }
+        }
+        // the customers are spread over all shards
+        assertThat(IntStream.range(0, customerShards.getCount()).mapToObj(shard -> jdbcTemplateOf(shard).queryForObject("SELECT COUNT(*) FROM CUSTOMER", Integer.class)))
+                .allSatisfy(count -> assertThat(count).isPositive());
+    }
+
+    @Test
+    void createLoanRequest_WithKnownId_IsRecognizedOnShardOfCustomer() {
+        createLoanRequest(2_100, "500.00", 21);
+
+        assertThat(createLoanRequest(2_100, "500.00", 21).getId()).isEqualTo(2_100);
+        assertThatThrownBy(() -> createLoanRequest(2_100, "600.00", 21))
+                .isExactlyInstanceOf(ConstraintViolationException.class)
+                .hasMessageContaining("The loan request id is already in use.");
+        assertThat(loanService.getLoanSumByCustomerId(21)).isEqualByComparingTo("500.00");
+    }
+
+    @Test
+    void createLoanRequest_WithIdUsedOnOtherShard_LeadsToException() {
+        final long customerId = 61;
+        final long customerIdOfOtherShard = LongStream.iterate(62, id -> id + 1)
+                .filter(id -> customerShards.shardOf(id) != customerShards.shardOf(customerId))
+                .findFirst().orElseThrow();
+        createLoanRequest(6_100, "500.00", customerId);
+
+        assertThatThrownBy(() -> createLoanRequest(6_100, "500.00", customerIdOfOtherShard))
+                .isExactlyInstanceOf(ConstraintViolationException.class)
+                .hasMessageContaining("The loan request id is already in use.");
+        assertThat(jdbcTemplateOf(customerShards.shardOf(customerIdOfOtherShard))
+                .queryForObject("SELECT COUNT(*) FROM LOAN_REQUEST WHERE ID = ?", Integer.class, 6_100)).isZero();
+    }
+
+    @Test
+    void readsAcrossCustomers_AreMergedFromAllShards() {
+        LongStream.rangeClosed(31, 42).forEach(customerId -> createLoanRequest(customerId * 100, "%d.50".formatted(500 + customerId), customerId));
+        createLoanRequest(4_101, "600.50", 41);
+        createLoanRequest(4_201, "600.25", 42);
+
+        assertThat(loanStore.findCustomersByIdAfter(32, 3)).extracting(Customer::getId).containsExactly(33L, 34L, 35L);
+        assertThat(loanStore.findLoanStatisticsByCustomerIdAfter(38, 3)).containsOnlyKeys(39L, 40L, 41L);
+        assertThat(loanStore.findLoanStatisticsByCustomerIds(List.of(31L, 32L, 33L, 99L))).containsOnlyKeys(31L, 32L, 33L);
+        assertThat(loanStore.findTopCustomersByLoanSum(2)).extracting(CustomerLoanSum::getCustomerId).containsExactly(42L, 41L);
+        assertThat(loanStore.findLoanAmountHistogram())
+                .filteredOn(bucket -> bucket.getWholeAmount().compareTo(BigDecimal.valueOf(600)) == 0)
+                .singleElement()
+                .satisfies(bucket -> assertThat(bucket.getCount()).isEqualTo(2))
+                .extracting(LoanAmountBucket::getSum).satisfies(sum -> assertThat(sum).isEqualByComparingTo("1200.75"));
+        assertThat(loanStore.findLoanRequestById(4_201)).map(LoanRequest::getAmount).hasValueSatisfying(amount -> assertThat(amount).isEqualByComparingTo("600.25"));
+    }
+
+    @Test
+    void transaction_AccessingCustomersOfDifferentShards_LeadsToException() {
+        final long customerId = 51;
+        final long customerIdOfOtherShard = LongStream.iterate(52, id -> id + 1)
+                .filter(id -> customerShards.shardOf(id) != customerShards.shardOf(customerId))
+                .findFirst().orElseThrow();
+
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            loanStore.findCustomerById(customerId);
+            loanStore.findCustomerById(customerIdOfOtherShard);
+        })).isExactlyInstanceOf(IllegalStateException.class);
+        assertThat(customerShards.isShardSelected()).isFalse();
+    }
+
+    @Test
+    void statement_WithoutSelectedShard_LeadsToException() {
+        assertThatThrownBy(() -> new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM CUSTOMER", Integer.class))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("without a selected shard");
+    }
+
+    private LoanRequest createLoanRequest(final long id, final String amount, final long customerId) {
+        return loanService.createLoanRequest(new LoanRequestDto(id, new BigDecimal(amount), customerId, "Customer " + customerId));
+    }
+
+    private JdbcTemplate jdbcTemplateOf(final int shard) {
+        return new JdbcTemplate(customerShards.getDataSources().get(shard));
+    }
+}
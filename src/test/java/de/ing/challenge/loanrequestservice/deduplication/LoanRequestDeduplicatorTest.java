@@ -0,0 +1,161 @@
+package de.ing.challenge.loanrequestservice.deduplication;
+
+import de.ing.challenge.loanrequestservice.dto.LoanRequestDto;
+import jakarta.annotation.Nonnull;
+import jakarta.validation.ConstraintViolationException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoanRequestDeduplicatorTest {
+    private static final LoanRequestDto LOAN_REQUEST_DTO = new LoanRequestDto(1337L, new BigDecimal("1000.00"), 42L, "Customer");
+
+    @Test
+    void execute_WithDuplicateOfAcceptedLoanRequest_DoesNotRunCallAgain() {
+        final LoanRequestDeduplicator sut = createSut(new AtomicLong());
+        final AtomicInteger calls = new AtomicInteger();
+
+        sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet);
+        // trailing zeros of the amount do not matter
+        sut.execute(new LoanRequestDto(1337L, new BigDecimal("1000"), 42L, "Customer"), calls::incrementAndGet);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void execute_WithDifferentPayload_RunsCall() {
+        final LoanRequestDeduplicator sut = createSut(new AtomicLong());
+        final AtomicInteger calls = new AtomicInteger();
+
+        sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet);
+        sut.execute(new LoanRequestDto(1337L, new BigDecimal("1000.00"), 42L, "Other Customer"), calls::incrementAndGet);
+        sut.execute(new LoanRequestDto(1337L, new BigDecimal("1000.01"), 42L, "Customer"), calls::incrementAndGet);
+        sut.execute(new LoanRequestDto(1337L, new BigDecimal("1000.00"), 43L, "Customer"), calls::incrementAndGet);
+
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void execute_AfterFailure_RunsCallAgain() {
+        final LoanRequestDeduplicator sut = createSut(new AtomicLong());
+        final AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> sut.execute(LOAN_REQUEST_DTO, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+        sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(2);
+        assertThat(sut.size()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_AfterTtl_RunsCallAgain() {
+        final AtomicLong now = new AtomicLong();
+        final LoanRequestDeduplicator sut = createSut(now);
+        final AtomicInteger calls = new AtomicInteger();
+
+        sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet);
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void evictExpired_RemovesOnlyExpiredLoanRequests() {
+        final AtomicLong now = new AtomicLong();
+        final LoanRequestDeduplicator sut = createSut(now);
+
+        sut.execute(LOAN_REQUEST_DTO, () -> {
+        });
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        sut.execute(new LoanRequestDto(1338L, new BigDecimal("1000.00"), 42L, "Customer"), () -> {
+        });
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        sut.evictExpired();
+
+        assertThat(sut.size()).isEqualTo(1);
+    }
+
+    @Test
+    @SneakyThrows
+    void execute_WithInFlightDuplicate_AwaitsOutcomeOfOriginal() {
+        final LoanRequestDeduplicator sut = createSut(new AtomicLong());
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch originalStarted = new CountDownLatch(1);
+        final CountDownLatch releaseOriginal = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> original = executor.submit(() -> sut.execute(LOAN_REQUEST_DTO, () -> {
+                calls.incrementAndGet();
+                originalStarted.countDown();
+                await(releaseOriginal);
+                throw new ConstraintViolationException("The customer id is already in use.", null);
+            }));
+            assertThat(originalStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+            final Future<?> duplicate = executor.submit(() -> sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet));
+            Thread.sleep(100);
+            assertThat(duplicate).isNotDone();
+
+            releaseOriginal.countDown();
+
+            assertThatThrownBy(() -> original.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(ConstraintViolationException.class);
+            assertThatThrownBy(() -> duplicate.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(ConstraintViolationException.class);
+            assertThat(calls).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WhenDisabled_AlwaysRunsCall() {
+        final LoanRequestDeduplicator sut = LoanRequestDeduplicator.disabled();
+        final AtomicInteger calls = new AtomicInteger();
+
+        sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet);
+        sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void execute_AtMaxEntries_RunsCall() {
+        final DeduplicationProperties properties = new DeduplicationProperties();
+        properties.setMaxEntries(1);
+        final LoanRequestDeduplicator sut = new LoanRequestDeduplicator(properties, () -> 0);
+        final AtomicInteger calls = new AtomicInteger();
+
+        sut.execute(new LoanRequestDto(1L, new BigDecimal("1000.00"), 42L, "Customer"), calls::incrementAndGet);
+        sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet);
+        sut.execute(LOAN_REQUEST_DTO, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(3);
+    }
+
+    @SneakyThrows
+    private static void await(@Nonnull final CountDownLatch latch) {
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Nonnull
+    private static LoanRequestDeduplicator createSut(@Nonnull final AtomicLong now) {
+        return new LoanRequestDeduplicator(new DeduplicationProperties(), now::get);
+    }
+}
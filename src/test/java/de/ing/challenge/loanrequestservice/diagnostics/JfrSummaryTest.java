@@ -0,0 +1,73 @@
+package de.ing.challenge.loanrequestservice.diagnostics;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JfrSummaryTest {
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void summarize_WithRecordedEvents_PrintsHistogramsPerPhase() throws Exception {
+        final Path file = tempDir.resolve("recording.jfr");
+        try (final Recording recording = new Recording()) {
+            recording.enable(LoanRequestPhaseEvent.class).withoutThreshold();
+            recording.enable(LoanSumCacheEvent.class);
+            recording.enable(LoanSumLoadEvent.class).withoutThreshold();
+            recording.start();
+
+            for (int i = 0; i < 10; i++) {
+                LoanRequestPhaseEvent.time(LoanRequestPhaseEvent.CREATE_LOAN_REQUEST, LoanRequestPhaseEvent.VALIDATION,
+                        42L, (long) i, () -> null);
+            }
+            assertThatThrownBy(() -> LoanRequestPhaseEvent.time(LoanRequestPhaseEvent.GET_LOAN_SUM,
+                    LoanRequestPhaseEvent.CACHE_GET, 42L, null, () -> {
+                        throw new NoSuchElementException();
+                    })).isInstanceOf(NoSuchElementException.class);
+
+            new LoanSumCacheEvent("get", 42, true).commit();
+            new LoanSumCacheEvent("get", 42, true).commit();
+            new LoanSumCacheEvent("get", 43, false).commit();
+            final LoanSumLoadEvent load = new LoanSumLoadEvent(43);
+            load.begin();
+            load.commit(false);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JfrSummary.summarize(file, new PrintStream(output, true, StandardCharsets.UTF_8));
+
+        assertThat(output.toString(StandardCharsets.UTF_8))
+                .contains("createLoanRequest / validation: count=10")
+                .contains("getLoanSumByCustomerId / cache-get (failed): count=1")
+                .contains("LoanSumCache / load: count=1")
+                .contains("LoanSumCache / get: 2 hits, 1 misses (hit rate 66.7%)");
+    }
+
+    @Test
+    void summarize_WithoutEvents_SaysSo() throws Exception {
+        final Path file = tempDir.resolve("empty.jfr");
+        try (final Recording recording = new Recording()) {
+            recording.start();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JfrSummary.summarize(file, new PrintStream(output, true, StandardCharsets.UTF_8));
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).contains("does not contain any loan request service events");
+    }
+}
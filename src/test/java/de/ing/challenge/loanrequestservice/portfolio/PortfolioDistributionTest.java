@@ -0,0 +1,115 @@
+package de.ing.challenge.loanrequestservice.portfolio;
+
+import de.ing.challenge.loanrequestservice.LoanRequestAcceptedEvent;
+import de.ing.challenge.loanrequestservice.dao.LoanAmountBucket;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PortfolioDistributionTest {
+
+    @Test
+    void snapshot_WithoutLoanRequests_IsEmpty() {
+        final PortfolioDistribution sut = createSut(new PortfolioProperties(), mock(LoanStore.class));
+
+        final PortfolioDistribution.Snapshot actual = sut.snapshot(50);
+
+        assertThat(actual.getCount()).isZero();
+        assertThat(actual.getVolume()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(actual.getPercentiles()).isEmpty();
+        assertThat(actual.getBuckets()).isEmpty();
+    }
+
+    @Test
+    void onLoanRequestAccepted_UpdatesCountVolumeAndBuckets() {
+        final PortfolioDistribution sut = createSut(new PortfolioProperties(), mock(LoanStore.class));
+
+        accept(sut, "500.00");
+        accept(sut, "500.99");
+        accept(sut, "12000.50");
+
+        final PortfolioDistribution.Snapshot actual = sut.snapshot();
+
+        assertThat(actual.getCount()).isEqualTo(3);
+        assertThat(actual.getVolume()).isEqualTo(new BigDecimal("13001.49"));
+        assertThat(actual.getBuckets()).containsExactly(
+                new PortfolioDistribution.Bucket(new BigDecimal("500.00"), new BigDecimal("501.00"), 2),
+                new PortfolioDistribution.Bucket(new BigDecimal("12000.00"), new BigDecimal("12001.00"), 1));
+    }
+
+    @Test
+    void snapshot_ReturnsLowerBoundOfBucketContainingPercentile() {
+        final PortfolioProperties properties = new PortfolioProperties();
+        properties.setBucketWidth(100);
+        final PortfolioDistribution sut = createSut(properties, mock(LoanStore.class));
+
+        for (int i = 0; i < 90; i++) {
+            accept(sut, "550.00");
+        }
+        for (int i = 0; i < 9; i++) {
+            accept(sut, "1000.00");
+        }
+        accept(sut, "11999.99");
+
+        assertThat(sut.snapshot(50, 90, 91, 99, 100).getPercentiles()).containsExactly(
+                new PortfolioDistribution.Percentile(50, new BigDecimal("500.00")),
+                new PortfolioDistribution.Percentile(90, new BigDecimal("500.00")),
+                new PortfolioDistribution.Percentile(91, new BigDecimal("1000.00")),
+                new PortfolioDistribution.Percentile(99, new BigDecimal("1000.00")),
+                new PortfolioDistribution.Percentile(100, new BigDecimal("11900.00")));
+    }
+
+    @Test
+    void onLoanRequestAccepted_WithAmountOutOfBounds_IsCountedInOuterBuckets() {
+        final PortfolioDistribution sut = createSut(new PortfolioProperties(), mock(LoanStore.class));
+
+        accept(sut, "1.00");
+        accept(sut, "50000.00");
+
+        assertThat(sut.snapshot().getBuckets()).extracting(PortfolioDistribution.Bucket::getLowerBound)
+                .containsExactly(new BigDecimal("500.00"), new BigDecimal("12000.00"));
+    }
+
+    @Test
+    void start_RebuildsFromStore() {
+        final LoanStore loanStore = mock(LoanStore.class);
+        when(loanStore.findLoanAmountHistogram()).thenReturn(List.of(
+                new LoanAmountBucket(new BigDecimal("500"), 2, new BigDecimal("1000.50")),
+                new LoanAmountBucket(new BigDecimal("700"), 1, new BigDecimal("700.10"))));
+        final PortfolioDistribution sut = createSut(new PortfolioProperties(), loanStore);
+        accept(sut, "600.00");
+
+        sut.start();
+
+        final PortfolioDistribution.Snapshot actual = sut.snapshot(50);
+        assertThat(sut.isRunning()).isTrue();
+        assertThat(actual.getCount()).isEqualTo(3);
+        assertThat(actual.getVolume()).isEqualTo(new BigDecimal("1700.60"));
+        assertThat(actual.getPercentiles()).containsExactly(new PortfolioDistribution.Percentile(50, new BigDecimal("500.00")));
+    }
+
+    @Test
+    void create_WithFractionalBucketBoundaries_IsRejected() {
+        final PortfolioProperties properties = new PortfolioProperties();
+        properties.setMinAmount(new BigDecimal("500.50"));
+
+        assertThatThrownBy(() -> createSut(properties, mock(LoanStore.class))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void accept(@Nonnull final PortfolioDistribution sut, @Nonnull final String amount) {
+        sut.onLoanRequestAccepted(new LoanRequestAcceptedEvent(1, 1, new BigDecimal(amount), new BigDecimal(amount)));
+    }
+
+    @Nonnull
+    private static PortfolioDistribution createSut(@Nonnull final PortfolioProperties properties, @Nonnull final LoanStore loanStore) {
+        return new PortfolioDistribution(properties, loanStore);
+    }
+}
@@ -0,0 +1,183 @@
+package de.ing.challenge.loanrequestservice.reconciliation;
+
+import de.ing.challenge.loanrequestservice.BatchLoadingProperties;
+import de.ing.challenge.loanrequestservice.CustomerWriteSequencer;
+import de.ing.challenge.loanrequestservice.LoanStatisticsBatchLoader;
+import de.ing.challenge.loanrequestservice.LoanSumCache;
+import de.ing.challenge.loanrequestservice.LoanSumRanking;
+import de.ing.challenge.loanrequestservice.LoanSumRepairedEvent;
+import de.ing.challenge.loanrequestservice.SequencerProperties;
+import de.ing.challenge.loanrequestservice.admission.AdmissionControl;
+import de.ing.challenge.loanrequestservice.store.LoanStatistics;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoanSumReconcilerTest {
+    private static final LoanStatistics THOUSAND = LoanStatistics.of(new BigDecimal("1000.00"));
+    private static final LoanStatistics TWO_THOUSAND = LoanStatistics.of(new BigDecimal("2000.00"));
+
+    private final LoanStore loanStore = mock(LoanStore.class);
+    private final LoanSumCache loanSumCache = new LoanSumCache(loanStore, AdmissionControl.unlimited(), mock(LoanSumRanking.class),
+            disabledBatchLoader(), Optional.empty());
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final NavigableMap<Long, LoanStatistics> stored = new TreeMap<>();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void tick_RepairsDriftedCustomers() {
+        final NavigableMap<Long, LoanStatistics> stored = new TreeMap<>(Map.of(1L, THOUSAND, 2L, THOUSAND, 3L, THOUSAND));
+        mockStore(stored);
+        cache(1, THOUSAND);
+        cache(2, TWO_THOUSAND);
+        final LoanSumReconciler sut = createSut(properties());
+
+        sut.tick();
+
+        assertThat(loanSumCache.getCachedStatistics(1)).contains(THOUSAND);
+        assertThat(loanSumCache.getCachedStatistics(2)).contains(THOUSAND);
+        assertThat(loanSumCache.getCachedStatistics(3)).isEmpty();
+        assertThat(sut.getStatus()).isEqualTo(new LoanSumReconciler.Status(true, false, 1, 3, 2, 1, 0.5));
+        verify(eventPublisher).publishEvent(new LoanSumRepairedEvent(2, THOUSAND.getSum()));
+    }
+
+    @Test
+    void tick_WithCustomerUpdatedBeforeConfirmation_DoesNotReportDrift() {
+        final NavigableMap<Long, LoanStatistics> stored = new TreeMap<>(Map.of(1L, THOUSAND));
+        mockStore(stored);
+        cache(1, TWO_THOUSAND);
+        // the loan request that was in flight during the chunk query has been committed when the drift is confirmed
+        when(loanStore.findLoanStatisticsByCustomerId(1)).thenReturn(Optional.of(TWO_THOUSAND));
+        final LoanSumReconciler sut = createSut(properties());
+
+        sut.tick();
+
+        assertThat(loanSumCache.getCachedStatistics(1)).contains(TWO_THOUSAND);
+        assertThat(sut.getStatus().getDrifted()).isZero();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void tick_WalksCustomersInChunks() {
+        final NavigableMap<Long, LoanStatistics> stored = new TreeMap<>(Map.of(1L, THOUSAND, 2L, THOUSAND, 3L, THOUSAND));
+        mockStore(stored);
+        final ReconcilerProperties properties = properties();
+        properties.setChunkSize(2);
+        final LoanSumReconciler sut = createSut(properties);
+
+        sut.tick();
+        assertThat(sut.getStatus().getPasses()).isZero();
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        sut.tick();
+
+        assertThat(sut.getStatus().getPasses()).isEqualTo(1);
+        verify(loanStore).findLoanStatisticsByCustomerIdAfter(-1, 2);
+        verify(loanStore).findLoanStatisticsByCustomerIdAfter(2, 2);
+    }
+
+    @Test
+    void tick_AfterExpensiveChunk_WaitsUntilBudgetHasRecovered() {
+        final NavigableMap<Long, LoanStatistics> stored = new TreeMap<>(Map.of(1L, new LoanStatistics(15, 1_500_000, 100_000, 100_000)));
+        mockStore(stored);
+        final ReconcilerProperties properties = properties();
+        properties.setRowsPerSecond(10);
+        final LoanSumReconciler sut = createSut(properties);
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        sut.tick();
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+        sut.tick();
+        verify(loanStore, times(1)).findLoanStatisticsByCustomerIdAfter(anyLong(), anyInt());
+
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        sut.tick();
+        verify(loanStore, times(2)).findLoanStatisticsByCustomerIdAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void tick_WhenPaused_DoesNotScan() {
+        mockStore(new TreeMap<>());
+        final LoanSumReconciler sut = createSut(properties());
+
+        sut.pause();
+        sut.tick();
+        assertThat(sut.getStatus().isPaused()).isTrue();
+        verify(loanStore, never()).findLoanStatisticsByCustomerIdAfter(anyLong(), anyInt());
+
+        sut.resume();
+        sut.tick();
+        verify(loanStore).findLoanStatisticsByCustomerIdAfter(-1, 1_000);
+    }
+
+    @Test
+    void tick_BeforePassInterval_DoesNotStartPass() {
+        mockStore(new TreeMap<>());
+        final ReconcilerProperties properties = properties();
+        properties.setPassInterval(Duration.ofMinutes(10));
+        final LoanSumReconciler sut = createSut(properties);
+
+        sut.tick();
+        verify(loanStore, never()).findLoanStatisticsByCustomerIdAfter(anyLong(), anyInt());
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        sut.tick();
+        verify(loanStore).findLoanStatisticsByCustomerIdAfter(anyLong(), anyInt());
+    }
+
+    private void mockStore(@Nonnull final NavigableMap<Long, LoanStatistics> stored) {
+        this.stored.putAll(stored);
+        when(loanStore.findLoanStatisticsByCustomerIdAfter(anyLong(), anyInt())).thenAnswer(invocation -> {
+            final long afterCustomerId = invocation.getArgument(0);
+            final int limit = invocation.getArgument(1);
+            final NavigableMap<Long, LoanStatistics> chunk = new TreeMap<>();
+            stored.tailMap(afterCustomerId, false).entrySet().stream().limit(limit).forEach(entry -> chunk.put(entry.getKey(), entry.getValue()));
+            return chunk;
+        });
+    }
+
+    private void cache(final long customerId, @Nonnull final LoanStatistics statistics) {
+        when(loanStore.findLoanStatisticsByCustomerId(customerId)).thenReturn(Optional.of(statistics));
+        assertThat(loanSumCache.getStatistics(customerId)).contains(statistics);
+        // the drift is confirmed against the stored statistics
+        when(loanStore.findLoanStatisticsByCustomerId(customerId)).thenAnswer(invocation -> Optional.ofNullable(stored.get(customerId)));
+    }
+
+    @Nonnull
+    private LoanStatisticsBatchLoader disabledBatchLoader() {
+        final BatchLoadingProperties properties = new BatchLoadingProperties();
+        properties.setEnabled(false);
+        return new LoanStatisticsBatchLoader(properties, loanStore, AdmissionControl.unlimited());
+    }
+
+    @Nonnull
+    private static ReconcilerProperties properties() {
+        final ReconcilerProperties properties = new ReconcilerProperties();
+        properties.setPassInterval(Duration.ZERO);
+        return properties;
+    }
+
+    @Nonnull
+    private LoanSumReconciler createSut(@Nonnull final ReconcilerProperties properties) {
+        return new LoanSumReconciler(properties, loanStore, loanSumCache, new CustomerWriteSequencer(new SequencerProperties()),
+                eventPublisher, now::get);
+    }
+}
@@ -0,0 +1,89 @@
+package de.ing.challenge.loanrequestservice.search;
+
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.store.LoanStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerNameIndexTest {
+
+    @Test
+    void search_FindsPartialNames_IgnoringCaseAndWhitespace() {
+        final CustomerNameIndex sut = new CustomerNameIndex(mock(LoanStore.class));
+        sut.add(1, "Ada Lovelace");
+        sut.add(2, "Grace  Hopper");
+        sut.add(3, "Alan Turing");
+
+        assertThat(sut.search("LOVE", 10)).containsExactly(1L);
+        assertThat(sut.search("ce hop", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void search_WithTrigramsInDifferentOrder_DoesNotMatch() {
+        final CustomerNameIndex sut = new CustomerNameIndex(mock(LoanStore.class));
+        sut.add(1, "bcd abc");
+
+        assertThat(sut.search("abcd", 10)).isEmpty();
+        assertThat(sut.search("bcd abc", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void search_WithUnknownTrigram_IsEmpty() {
+        final CustomerNameIndex sut = new CustomerNameIndex(mock(LoanStore.class));
+        sut.add(1, "Ada Lovelace");
+
+        assertThat(sut.search("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void search_ReturnsAtMostLimitMatches_InOrderOfAddition() {
+        final CustomerNameIndex sut = new CustomerNameIndex(mock(LoanStore.class));
+        for (long customerId = 1_000; customerId > 0; customerId--) {
+            sut.add(customerId, "Customer " + customerId);
+        }
+
+        assertThat(sut.search("customer", 3)).containsExactly(1_000L, 999L, 998L);
+        // the deltas of documents far apart take several bytes
+        assertThat(sut.search("customer 1", 1_000)).hasSize(112).startsWith(1_000L, 199L).endsWith(1L);
+        assertThat(sut.search("tomer 500", 10)).containsExactly(500L);
+    }
+
+    @Test
+    void search_WithTooShortQuery_LeadsToException() {
+        final CustomerNameIndex sut = new CustomerNameIndex(mock(LoanStore.class));
+
+        assertThatThrownBy(() -> sut.search("  ab ", 10))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("q must contain at least 3 characters.");
+    }
+
+    @Test
+    void start_RebuildsIndexFromStoreChunkByChunk() {
+        final LoanStore loanStore = mock(LoanStore.class);
+        final List<Customer> firstChunk = new ArrayList<>();
+        LongStream.range(0, 10_000).forEach(customerId -> firstChunk.add(new Customer(customerId, "Customer " + customerId)));
+        when(loanStore.findCustomersByIdAfter(anyLong(), anyInt())).thenReturn(List.of());
+        when(loanStore.findCustomersByIdAfter(eq(-1L), anyInt())).thenReturn(firstChunk);
+        when(loanStore.findCustomersByIdAfter(eq(9_999L), anyInt())).thenReturn(List.of(new Customer(10_000, "Ada Lovelace")));
+
+        final CustomerNameIndex sut = new CustomerNameIndex(loanStore);
+        sut.add(42, "Grace Hopper");
+        sut.start();
+
+        assertThat(sut.isRunning()).isTrue();
+        assertThat(sut.search("lovelace", 10)).containsExactly(10_000L);
+        assertThat(sut.search("customer 9999", 10)).containsExactly(9_999L);
+        assertThat(sut.search("hopper", 10)).isEmpty();
+    }
+}
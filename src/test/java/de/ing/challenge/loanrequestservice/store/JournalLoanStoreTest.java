@@ -0,0 +1,299 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import de.ing.challenge.loanrequestservice.dao.Customer;
+import de.ing.challenge.loanrequestservice.dao.CustomerLoanSum;
+import de.ing.challenge.loanrequestservice.dao.LoanRequest;
+import de.ing.challenge.loanrequestservice.dao.LoanRequestSummary;
+import jakarta.annotation.Nonnull;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalLoanStoreTest {
+    private static final Customer CUSTOMER = new Customer(42, "Customer");
+
+    @TempDir
+    private Path directory;
+
+    @ParameterizedTest
+    @EnumSource(JournalProperties.FsyncPolicy.class)
+    @SneakyThrows
+    void save_AndReopen_RestoresCustomersLoanRequestsAndSums(@Nonnull final JournalProperties.FsyncPolicy fsyncPolicy) {
+        final JournalProperties properties = createProperties();
+        properties.setFsyncPolicy(fsyncPolicy);
+
+        final JournalLoanStore sut = new JournalLoanStore(properties);
+        sut.saveCustomer(CUSTOMER);
+        sut.saveLoanRequest(new LoanRequest(1, new BigDecimal("1500.25"), CUSTOMER));
+        sut.saveLoanRequest(new LoanRequest(2, new BigDecimal("750.50"), CUSTOMER));
+        assertThat(sut.findLoanSumByCustomerId(CUSTOMER.getId())).hasValue(new BigDecimal("2250.75"));
+        sut.close();
+
+        final JournalLoanStore reopened = new JournalLoanStore(properties);
+        assertThat(reopened.findCustomerById(CUSTOMER.getId())).hasValue(CUSTOMER);
+        assertThat(reopened.findLoanRequestById(1)).hasValueSatisfying(loanRequest -> {
+            assertThat(loanRequest.getAmount()).isEqualTo(new BigDecimal("1500.25"));
+            assertThat(loanRequest.getCustomer()).isEqualTo(CUSTOMER);
+        });
+        assertThat(reopened.findLoanSumByCustomerId(CUSTOMER.getId())).hasValue(new BigDecimal("2250.75"));
+        assertThat(reopened.findLoanSumByCustomerId(CUSTOMER.getId() + 1)).isEmpty();
+        assertThat(reopened.findLoanStatisticsByCustomerId(CUSTOMER.getId())).hasValue(new LoanStatistics(2, 225_075, 75_050, 150_025));
+        assertThat(reopened.findLoanRequestSummariesByCustomerIdAfter(CUSTOMER.getId(), 1, 10))
+                .extracting(LoanRequestSummary::getId).containsExactly(2L);
+        assertThat(reopened.findTopCustomersByLoanSum(10)).containsExactly(new CustomerLoanSum(CUSTOMER.getId(), new BigDecimal("2250.75")));
+        reopened.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void reopen_WithTornTail_DropsIncompleteRecord() {
+        final JournalProperties properties = createProperties();
+
+        final JournalLoanStore sut = new JournalLoanStore(properties);
+        sut.saveCustomer(CUSTOMER);
+        sut.saveLoanRequest(new LoanRequest(1, new BigDecimal("1500.00"), CUSTOMER));
+        sut.close();
+
+        // simulate a crash in the middle of writing the last record
+        final Path segment = listSegments().get(0);
+        try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        final JournalLoanStore reopened = new JournalLoanStore(properties);
+        assertThat(reopened.findCustomerById(CUSTOMER.getId())).isPresent();
+        assertThat(reopened.findLoanRequestById(1)).isEmpty();
+        assertThat(reopened.findLoanSumByCustomerId(CUSTOMER.getId())).isEmpty();
+
+        // the truncated segment is still readable after new records have been appended to the journal
+        reopened.saveLoanRequest(new LoanRequest(2, new BigDecimal("600.00"), CUSTOMER));
+        reopened.close();
+
+        final JournalLoanStore reopenedAgain = new JournalLoanStore(properties);
+        assertThat(reopenedAgain.findLoanSumByCustomerId(CUSTOMER.getId())).hasValue(new BigDecimal("600.00"));
+        reopenedAgain.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void reopen_WithCorruptedRecord_DropsRecord() {
+        final JournalProperties properties = createProperties();
+
+        final JournalLoanStore sut = new JournalLoanStore(properties);
+        sut.saveCustomer(CUSTOMER);
+        sut.saveLoanRequest(new LoanRequest(1, new BigDecimal("1500.00"), CUSTOMER));
+        sut.close();
+
+        final Path segment = listSegments().get(0);
+        final byte[] content = Files.readAllBytes(segment);
+        content[content.length - 1] ^= 0x7f;
+        Files.write(segment, content);
+
+        final JournalLoanStore reopened = new JournalLoanStore(properties);
+        assertThat(reopened.findLoanRequestById(1)).isEmpty();
+        reopened.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void compact_MergesSealedSegments_AndRetainsState() {
+        final JournalProperties properties = createProperties();
+        properties.setMaxSegmentSize(DataSize.ofBytes(64));
+        properties.setCompactionThreshold(2);
+
+        final JournalLoanStore sut = new JournalLoanStore(properties);
+        sut.saveCustomer(CUSTOMER);
+        // saving the same customer again leads to a duplicate record, which is dropped by the compaction
+        sut.saveCustomer(CUSTOMER);
+        IntStream.rangeClosed(1, 20).forEach(id -> sut.saveLoanRequest(new LoanRequest(id, new BigDecimal("500.00"), CUSTOMER)));
+
+        final int segmentsBeforeCompaction = listSegments().size();
+        assertThat(segmentsBeforeCompaction).isGreaterThan(2);
+
+        sut.compact();
+
+        // everything except the active segment has been merged into one
+        assertThat(listSegments()).hasSize(2);
+        sut.saveLoanRequest(new LoanRequest(21, new BigDecimal("500.00"), CUSTOMER));
+        sut.close();
+
+        final JournalLoanStore reopened = new JournalLoanStore(properties);
+        assertThat(reopened.findLoanSumByCustomerId(CUSTOMER.getId())).hasValue(new BigDecimal("10500.00"));
+        assertThat(reopened.findCustomerById(CUSTOMER.getId())).hasValue(CUSTOMER);
+        reopened.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void reopen_RestoresCreationTimestamps_ForAsOfAndCreatedAfterQueries() {
+        final JournalProperties properties = createProperties();
+        final Instant first = Instant.parse("2024-03-01T10:15:30.123456789Z");
+        final Instant second = first.plus(Duration.ofDays(2));
+
+        final JournalLoanStore sut = new JournalLoanStore(properties);
+        sut.saveCustomer(CUSTOMER);
+        sut.saveLoanRequest(new LoanRequest(1, new BigDecimal("1000.00"), CUSTOMER, null));
+        sut.saveLoanRequest(new LoanRequest(2, new BigDecimal("2000.00"), CUSTOMER, first));
+        sut.saveLoanRequest(new LoanRequest(3, new BigDecimal("4000.00"), CUSTOMER, second));
+        sut.close();
+
+        final JournalLoanStore reopened = new JournalLoanStore(properties);
+        assertThat(reopened.findLoanRequestById(2)).hasValueSatisfying(loanRequest -> assertThat(loanRequest.getCreatedAt()).isEqualTo(first));
+        assertThat(reopened.findLoanRequestById(1)).hasValueSatisfying(loanRequest -> assertThat(loanRequest.getCreatedAt()).isNull());
+
+        // loan requests without a timestamp count as created before any point in time
+        assertThat(reopened.findLoanSumByCustomerIdAsOf(CUSTOMER.getId(), first.minusNanos(1))).hasValue(new BigDecimal("1000.00"));
+        assertThat(reopened.findLoanSumByCustomerIdAsOf(CUSTOMER.getId(), first)).hasValue(new BigDecimal("3000.00"));
+        assertThat(reopened.findLoanSumByCustomerIdAsOf(CUSTOMER.getId(), second)).hasValue(new BigDecimal("7000.00"));
+        assertThat(reopened.findLoanSumByCustomerIdAsOf(CUSTOMER.getId() + 1, second)).isEmpty();
+
+        assertThat(reopened.findLoanRequestsByCustomerIdCreatedAfter(CUSTOMER.getId(), first))
+                .extracting(LoanRequest::getId)
+                .containsExactly(3L);
+        reopened.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void findLoanRequestById_WithUnknownId_IsEmpty() {
+        final JournalLoanStore sut = new JournalLoanStore(createProperties());
+
+        final Optional<LoanRequest> actual = sut.findLoanRequestById(1337);
+
+        assertThat(actual).isEmpty();
+        sut.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void saveLoanRequest_WithExistingId_LeadsToException() {
+        final JournalLoanStore sut = new JournalLoanStore(createProperties());
+        sut.saveCustomer(CUSTOMER);
+        sut.saveLoanRequest(new LoanRequest(1, new BigDecimal("1500.00"), CUSTOMER));
+
+        assertThatThrownBy(() -> sut.saveLoanRequest(new LoanRequest(1, new BigDecimal("750.00"), CUSTOMER)))
+                .isExactlyInstanceOf(DataIntegrityViolationException.class);
+        assertThat(sut.findLoanSumByCustomerId(CUSTOMER.getId())).hasValue(new BigDecimal("1500.00"));
+        sut.close();
+
+        final JournalLoanStore reopened = new JournalLoanStore(createProperties());
+        assertThat(reopened.findLoanRequestById(1)).map(LoanRequest::getAmount).hasValue(new BigDecimal("1500.00"));
+        reopened.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void save_WithinTransaction_IsOnlyWrittenOnCommit() {
+        final JournalLoanStore sut = new JournalLoanStore(createProperties());
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+        final Customer otherCustomer = new Customer(43, "Other Customer");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            sut.saveCustomer(CUSTOMER);
+            sut.saveLoanRequest(new LoanRequest(1, new BigDecimal("1500.00"), CUSTOMER));
+            assertThat(sut.findCustomerById(CUSTOMER.getId())).isEmpty();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            sut.saveCustomer(otherCustomer);
+            sut.saveLoanRequest(new LoanRequest(2, new BigDecimal("750.00"), otherCustomer));
+            status.setRollbackOnly();
+        });
+
+        assertThat(sut.findCustomerById(CUSTOMER.getId())).hasValue(CUSTOMER);
+        assertThat(sut.findLoanSumByCustomerId(CUSTOMER.getId())).hasValue(new BigDecimal("1500.00"));
+        assertThat(sut.findCustomerById(otherCustomer.getId())).isEmpty();
+        assertThat(sut.findLoanRequestById(2)).isEmpty();
+        sut.close();
+
+        final JournalLoanStore reopened = new JournalLoanStore(createProperties());
+        assertThat(reopened.findCustomersByIdAfter(0, 10)).containsExactly(CUSTOMER);
+        reopened.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void append_RacingWithClose_CompletesEveryAppend() {
+        final JournalProperties properties = createProperties();
+        properties.setMaxPendingRecords(4);
+        final Journal journal = Journal.open(properties, record -> {
+        });
+        final ExecutorService appenders = Executors.newFixedThreadPool(8);
+        final List<Future<CompletableFuture<Void>>> appends = IntStream.range(0, 1_000)
+                .mapToObj(i -> appenders.submit(() -> journal.append(new JournalRecord.CustomerCreated(i, "Customer"))))
+                .toList();
+
+        journal.close();
+
+        for (final Future<CompletableFuture<Void>> append : appends) {
+            // appends either are written before the journal is closed or fail, but never hang
+            assertThat(append.get(10, TimeUnit.SECONDS).exceptionally(e -> null)).succeedsWithin(Duration.ofSeconds(10));
+        }
+        appenders.shutdown();
+        assertThat(journal.append(new JournalRecord.CustomerCreated(1_000, "Customer"))).isCompletedExceptionally();
+    }
+
+    @Nonnull
+    private JournalProperties createProperties() {
+        final JournalProperties properties = new JournalProperties();
+        properties.setDirectory(directory);
+        return properties;
+    }
+
+    @Nonnull
+    @SneakyThrows
+    private List<Path> listSegments() {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    /**
+     * Only provides the transaction synchronization.
+     */
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(@Nonnull final Object transaction, @Nonnull final TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(@Nonnull final DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(@Nonnull final DefaultTransactionStatus status) {
+        }
+    }
+}
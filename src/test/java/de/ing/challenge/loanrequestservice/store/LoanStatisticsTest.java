@@ -0,0 +1,37 @@
+package de.ing.challenge.loanrequestservice.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoanStatisticsTest {
+
+    @Test
+    void plus_UpdatesCountSumMinAndMax() {
+        final LoanStatistics actual = LoanStatistics.of(new BigDecimal("1000.50"))
+                .plus(new BigDecimal("500"))
+                .plus(new BigDecimal("12000.5"));
+
+        assertThat(actual).isEqualTo(new LoanStatistics(3, 1_350_100, 50_000, 1_200_050));
+        assertThat(actual.getSum()).isEqualTo(new BigDecimal("13501.00"));
+        assertThat(actual.getMin()).isEqualTo(new BigDecimal("500.00"));
+        assertThat(actual.getMax()).isEqualTo(new BigDecimal("12000.50"));
+    }
+
+    @Test
+    void getAverage_IsRoundedHalfEvenToCents() {
+        final LoanStatistics actual = LoanStatistics.of(new BigDecimal("500.00"))
+                .plus(new BigDecimal("500.00"))
+                .plus(new BigDecimal("500.01"));
+
+        assertThat(actual.getAverage()).isEqualTo(new BigDecimal("500.00"));
+    }
+
+    @Test
+    void of_WithFractionOfCents_IsRejected() {
+        assertThatThrownBy(() -> LoanStatistics.of(new BigDecimal("500.001"))).isInstanceOf(ArithmeticException.class);
+    }
+}
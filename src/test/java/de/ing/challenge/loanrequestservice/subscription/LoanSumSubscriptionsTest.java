@@ -0,0 +1,185 @@
+package de.ing.challenge.loanrequestservice.subscription;
+
+import de.ing.challenge.loanrequestservice.LoanRequestAcceptedEvent;
+import de.ing.challenge.loanrequestservice.LoanSumRepairedEvent;
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoanSumSubscriptionsTest {
+    private static final long CUSTOMER_ID = 42;
+    private static final long OTHER_CUSTOMER_ID = 1337;
+
+    @Test
+    void flush_CoalescesUpdatesPerCustomer() {
+        final LoanSumSubscriptions sut = createSut(createProperties());
+        final RecordingEmitter emitter = new RecordingEmitter();
+        sut.subscribe(emitter, Set.of(), null);
+
+        accept(sut, CUSTOMER_ID, "1000.00");
+        accept(sut, CUSTOMER_ID, "2500.00");
+        accept(sut, OTHER_CUSTOMER_ID, "600.00");
+        sut.flush();
+
+        assertThat(emitter.events).hasSize(3);
+        assertThat(emitter.events.get(0)).startsWith("id:0\nevent:subscribed");
+        assertThat(emitter.events.subList(1, 3)).anySatisfy(event ->
+                assertThat(event).contains("event:loan-sum").contains("customerId=42, sum=2500.00"));
+        assertThat(emitter.events.subList(1, 3)).anySatisfy(event ->
+                assertThat(event).contains("event:loan-sum").contains("customerId=1337, sum=600.00"));
+    }
+
+    @Test
+    void flush_WithLowerLatestSum_SendsLatestSum() {
+        final LoanSumSubscriptions sut = createSut(createProperties());
+        final RecordingEmitter emitter = new RecordingEmitter();
+        sut.subscribe(emitter, Set.of(), null);
+
+        accept(sut, CUSTOMER_ID, "2500.00");
+        accept(sut, CUSTOMER_ID, "1000.00");
+        sut.flush();
+
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.events.get(1)).startsWith("id:1\nevent:loan-sum").contains("customerId=42, sum=1000.00");
+    }
+
+    @Test
+    void flush_WithRepairedSum_SendsRepairedSum() {
+        final LoanSumSubscriptions sut = createSut(createProperties());
+        final RecordingEmitter emitter = new RecordingEmitter();
+        sut.subscribe(emitter, Set.of(), null);
+
+        accept(sut, CUSTOMER_ID, "2500.00");
+        sut.onLoanSumRepaired(new LoanSumRepairedEvent(CUSTOMER_ID, new BigDecimal("1000.00")));
+        sut.flush();
+
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.events.get(1)).startsWith("id:1\nevent:loan-sum").contains("customerId=42, sum=1000.00");
+    }
+
+    @Test
+    void flush_OnlySendsUpdatesOfSubscribedCustomers() {
+        final LoanSumSubscriptions sut = createSut(createProperties());
+        final RecordingEmitter emitter = new RecordingEmitter();
+        sut.subscribe(emitter, Set.of(CUSTOMER_ID), null);
+
+        accept(sut, OTHER_CUSTOMER_ID, "600.00");
+        sut.flush();
+        accept(sut, CUSTOMER_ID, "700.00");
+        sut.flush();
+
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.events.get(1)).startsWith("id:2\nevent:loan-sum").contains("customerId=42, sum=700.00");
+    }
+
+    @Test
+    void subscribe_WithResumeToken_ReplaysMissedUpdates() {
+        final LoanSumSubscriptions sut = createSut(createProperties());
+
+        accept(sut, CUSTOMER_ID, "600.00");
+        sut.flush();
+        accept(sut, CUSTOMER_ID, "1200.00");
+        sut.flush();
+        accept(sut, CUSTOMER_ID, "1800.00");
+        sut.flush();
+
+        final RecordingEmitter emitter = new RecordingEmitter();
+        sut.subscribe(emitter, Set.of(CUSTOMER_ID), 1L);
+
+        assertThat(emitter.events).hasSize(3);
+        assertThat(emitter.events.get(0)).startsWith("id:1\nevent:subscribed");
+        assertThat(emitter.events.get(1)).startsWith("id:2\nevent:loan-sum").contains("sum=1200.00");
+        assertThat(emitter.events.get(2)).startsWith("id:3\nevent:loan-sum").contains("sum=1800.00");
+    }
+
+    @Test
+    void subscribe_WithExpiredResumeToken_RequestsResync() {
+        final SubscriptionProperties properties = createProperties();
+        properties.setHistorySize(2);
+        final LoanSumSubscriptions sut = createSut(properties);
+
+        for (int i = 1; i <= 5; i++) {
+            accept(sut, CUSTOMER_ID, "%d00.00".formatted(i));
+            sut.flush();
+        }
+
+        final RecordingEmitter emitter = new RecordingEmitter();
+        sut.subscribe(emitter, Set.of(), 1L);
+
+        assertThat(emitter.events).hasSize(1);
+        assertThat(emitter.events.get(0)).startsWith("id:5\nevent:resync");
+    }
+
+    @Test
+    void flush_WithSlowSubscriber_DropsBufferAndRequestsResync() {
+        final SubscriptionProperties properties = createProperties();
+        properties.setSubscriberBufferSize(2);
+        final List<Runnable> pendingSends = new ArrayList<>();
+        final LoanSumSubscriptions sut = new LoanSumSubscriptions(properties, pendingSends::add);
+        final RecordingEmitter emitter = new RecordingEmitter();
+        sut.subscribe(emitter, Set.of(), null);
+        pendingSends.forEach(Runnable::run);
+        pendingSends.clear();
+
+        // the subscriber does not get to send anything until three updates are buffered
+        for (int i = 1; i <= 3; i++) {
+            accept(sut, i, "600.00");
+            sut.flush();
+        }
+        pendingSends.forEach(Runnable::run);
+
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.events.get(1)).startsWith("id:3\nevent:resync");
+    }
+
+    @Test
+    void subscribe_WithFailingEmitter_RemovesSubscriber() {
+        final LoanSumSubscriptions sut = createSut(createProperties());
+        final RecordingEmitter emitter = new RecordingEmitter();
+        sut.subscribe(emitter, Set.of(), null);
+        assertThat(sut.subscriberCount()).isEqualTo(1);
+
+        emitter.failing = true;
+        accept(sut, CUSTOMER_ID, "600.00");
+        sut.flush();
+
+        assertThat(sut.subscriberCount()).isZero();
+    }
+
+    private static void accept(@Nonnull final LoanSumSubscriptions sut, final long customerId, @Nonnull final String loanSum) {
+        sut.onLoanRequestAccepted(new LoanRequestAcceptedEvent(1, customerId, BigDecimal.ONE, new BigDecimal(loanSum)));
+    }
+
+    @Nonnull
+    private static LoanSumSubscriptions createSut(@Nonnull final SubscriptionProperties properties) {
+        return new LoanSumSubscriptions(properties, Runnable::run);
+    }
+
+    @Nonnull
+    private static SubscriptionProperties createProperties() {
+        return new SubscriptionProperties();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private boolean failing = false;
+
+        @Override
+        public void send(@Nonnull final SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("broken pipe");
+            }
+
+            events.add(builder.build().stream().map(data -> data.getData().toString()).collect(Collectors.joining()));
+        }
+    }
+}